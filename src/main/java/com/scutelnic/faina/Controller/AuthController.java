@@ -1,13 +1,19 @@
 package com.scutelnic.faina.Controller;
 
+import com.scutelnic.faina.service.SavedSearchService;
 import com.scutelnic.faina.service.UserService;
 import com.scutelnic.faina.dto.LoginRequest;
 import com.scutelnic.faina.dto.RegisterRequest;
 import com.scutelnic.faina.dto.AuthResponse;
+import com.scutelnic.faina.dto.SessionUser;
 import com.scutelnic.faina.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpSession;
@@ -26,14 +32,32 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    @Value("${features.live-feed:true}")
+    private boolean liveFeedEnabled;
+
+    @Value("${features.saved-searches:true}")
+    private boolean savedSearchesEnabled;
+
+    @Value("${features.recurring-rides:true}")
+    private boolean recurringRidesEnabled;
+
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest, HttpSession session) {
         System.out.println("Login attempt for email: " + loginRequest.getEmail());
         
-        AuthResponse response = userService.login(loginRequest);
+        AuthResponse response;
+        try {
+            response = userService.login(loginRequest);
+        } catch (IllegalStateException e) {
+            // Prea multe verificări de parolă în curs: respingem devreme, fără să ocupăm procesorul
+            return busy(e);
+        }
         if (response.isSuccess()) {
-            // Store user in session
-            session.setAttribute("user", response.getUser());
+            // În sesiune păstrăm doar id-ul, numele și imaginea, nu toată entitatea
+            session.setAttribute("user", SessionUser.of(response.getUser()));
             System.out.println("User logged in successfully: " + response.getUser().getEmail());
             System.out.println("Session ID: " + session.getId());
             return ResponseEntity.ok(response);
@@ -70,16 +94,26 @@ public class AuthController {
             }
         }
         
-        AuthResponse response = userService.register(registerRequest);
+        AuthResponse response;
+        try {
+            response = userService.register(registerRequest);
+        } catch (IllegalStateException e) {
+            return busy(e);
+        }
         if (response.isSuccess()) {
             // Store user in session after registration
-            session.setAttribute("user", response.getUser());
+            session.setAttribute("user", SessionUser.of(response.getUser()));
             return ResponseEntity.ok(response);
         } else {
             return ResponseEntity.badRequest().body(response);
         }
     }
     
+    private static ResponseEntity<AuthResponse> busy(IllegalStateException e) {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new AuthResponse(false, e.getMessage()));
+    }
+    
     private String saveProfileImage(MultipartFile file) throws IOException {
         // Create uploads directory if it doesn't exist
         String uploadDir = "uploads/profile-images/";
@@ -106,23 +140,26 @@ public class AuthController {
         return ResponseEntity.ok(new AuthResponse(true, "Deconectare reușită"));
     }
 
+    /**
+     * Profilul complet al utilizatorului din sesiune, citit din baza de date (pentru pagina de profil și editare).
+     */
     @GetMapping("/user")
     public ResponseEntity<User> getCurrentUser(HttpSession session) {
         System.out.println("Checking current user for session: " + session.getId());
-        User user = (User) session.getAttribute("user");
-        if (user != null) {
-            System.out.println("User found in session: " + user.getEmail());
-            return ResponseEntity.ok(user);
-        } else {
+        SessionUser sessionUser = (SessionUser) session.getAttribute("user");
+        if (sessionUser == null) {
             System.out.println("No user found in session");
             return ResponseEntity.notFound().build();
         }
+        return userService.getUserById(sessionUser.id())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/check")
     public ResponseEntity<Map<String, Object>> checkAuth(HttpSession session) {
         Map<String, Object> response = new HashMap<>();
-        User user = (User) session.getAttribute("user");
+        SessionUser user = (SessionUser) session.getAttribute("user");
         
         if (user != null) {
             response.put("authenticated", true);
@@ -136,6 +173,42 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Tot ce are nevoie o pagină la pornire, într-o singură cerere: utilizatorul din sesiune,
+     * numărul de mesaje necitite și funcționalitățile active. ETag-ul este construit din exact
+     * aceste valori (numărul de mesaje necitite citit din baza de date), deci este același pe
+     * orice nod și se schimbă odată cu răspunsul, inclusiv după citirea mesajelor.
+     */
+    @GetMapping("/bootstrap")
+    public ResponseEntity<Map<String, Object>> bootstrap(HttpSession session, WebRequest webRequest) {
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        long unreadInbox = user != null ? savedSearchService.getUnreadCount(user.id()) : 0L;
+        String features = (liveFeedEnabled ? "L" : "") + (savedSearchesEnabled ? "S" : "") + (recurringRidesEnabled ? "R" : "");
+        String etag = user == null
+                ? "boot-anon-" + features
+                : "boot-u" + user.id() + "-" + Integer.toHexString(user.hashCode()) + "-" + unreadInbox + "-" + features;
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304, nimic nu s-a schimbat pentru această sesiune
+        }
+        
+        Map<String, Object> featureFlags = new HashMap<>();
+        featureFlags.put("liveFeed", liveFeedEnabled);
+        featureFlags.put("savedSearches", savedSearchesEnabled);
+        featureFlags.put("recurringRides", recurringRidesEnabled);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("authenticated", user != null);
+        response.put("user", user);
+        response.put("unreadInbox", unreadInbox);
+        response.put("features", featureFlags);
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.COOKIE)
+                .eTag(etag)
+                .body(response);
+    }
+    
     @GetMapping("/test")
     public ResponseEntity<Map<String, Object>> testAuth() {
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,116 @@
+package com.scutelnic.faina.Controller;
+
+import com.scutelnic.faina.dto.BookingDTO;
+import com.scutelnic.faina.dto.SessionUser;
+import com.scutelnic.faina.service.BookingService;
+import com.scutelnic.faina.service.RideTemplateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/bookings")
+public class BookingController {
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private RideTemplateService rideTemplateService;
+    
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> reserve(
+            @RequestParam(required = false) Long rideId,
+            @RequestParam(required = false) Long templateId,
+            @RequestParam(required = false) String date,
+            @RequestParam(defaultValue = "1") int seats,
+            HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a rezerva locuri.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            if (rideId == null) {
+                // Ocurență a unei curse recurente: cursa concretă se creează la prima rezervare
+                if (templateId == null || date == null) {
+                    throw new IllegalArgumentException("Specificați cursa (rideId) sau cursa recurentă și data (templateId, date)");
+                }
+                rideId = rideTemplateService.materializeForBooking(templateId, LocalDate.parse(date), user.id());
+            }
+            BookingDTO booking = bookingService.reserve(rideId, user.id(), seats);
+            response.put("success", true);
+            response.put("message", "Locurile au fost rezervate. Confirmați rezervarea până la " + booking.getHoldExpiresAt());
+            response.put("booking", booking);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la rezervare: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Map<String, Object>> confirm(@PathVariable Long id, HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a confirma rezervarea.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            BookingDTO booking = bookingService.confirm(id, user.id());
+            response.put("success", true);
+            response.put("message", "Rezervarea a fost confirmată!");
+            response.put("booking", booking);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la confirmarea rezervării: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable Long id, HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a anula rezervarea.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            BookingDTO booking = bookingService.cancel(id, user.id());
+            response.put("success", true);
+            response.put("message", "Rezervarea a fost anulată.");
+            response.put("booking", booking);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la anularea rezervării: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/my")
+    public ResponseEntity<List<BookingDTO>> getMyBookings(HttpSession session) {
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(bookingService.getBookingsForPassenger(user.id()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.scutelnic.faina.Controller;
+
+import com.scutelnic.faina.dto.SessionUser;
+import com.scutelnic.faina.service.SavedSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inbox")
+public class InboxController {
+    
+    @Autowired
+    private SavedSearchService savedSearchService;
+    
+    /**
+     * Ultimele mesaje din inbox și numărul celor necitite.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getInbox(HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a vedea mesajele.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        response.put("success", true);
+        response.put("messages", savedSearchService.getInbox(user.id()));
+        response.put("unread", savedSearchService.getUnreadCount(user.id()));
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/{id}/read")
+    public ResponseEntity<Map<String, Object>> markRead(@PathVariable Long id, HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        boolean updated = savedSearchService.markRead(id, user.id());
+        response.put("success", updated);
+        if (!updated) {
+            response.put("message", "Mesajul nu a fost găsit.");
+        }
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/read-all")
+    public ResponseEntity<Map<String, Object>> markAllRead(HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        response.put("success", true);
+        response.put("updated", savedSearchService.markAllRead(user.id()));
+        return ResponseEntity.ok(response);
+    }
+}
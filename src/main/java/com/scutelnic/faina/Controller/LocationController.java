@@ -0,0 +1,30 @@
+package com.scutelnic.faina.Controller;
+
+import com.scutelnic.faina.dto.LocationSuggestion;
+import com.scutelnic.faina.service.GazetteerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/locations")
+public class LocationController {
+    
+    @Autowired
+    private GazetteerService gazetteerService;
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<List<LocationSuggestion>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<LocationSuggestion> suggestions = gazetteerService.suggest(query, limit);
+        // Gazetteer-ul se schimbă doar la redeploy, deci răspunsurile pot fi păstrate de browser
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                .body(suggestions);
+    }
+}
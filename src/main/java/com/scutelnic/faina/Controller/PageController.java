@@ -2,6 +2,7 @@ package com.scutelnic.faina.Controller;
 
 import com.scutelnic.faina.service.RideService;
 import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.dto.RidePage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,9 +17,10 @@ import org.springframework.http.ResponseEntity;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
 
 @Controller
 public class PageController {
@@ -53,38 +55,41 @@ public class PageController {
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             @RequestParam(required = false) String date,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Long total,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Model model) {
         try {
-            // Filtrare și paginare
-            List<RideDTO> allRides = rideService.getAllActiveRides();
-            
-            // Filtrare
-            List<RideDTO> filteredRides = allRides.stream()
-                .filter(ride -> from == null || from.isEmpty() || 
-                        ride.getFromLocation().toLowerCase().contains(from.toLowerCase()))
-                .filter(ride -> to == null || to.isEmpty() || 
-                        ride.getToLocation().toLowerCase().contains(to.toLowerCase()))
-                .filter(ride -> date == null || date.isEmpty() || 
-                        ride.getTravelDate().toString().equals(date))
-                .collect(Collectors.toList());
+            LocalDate travelDate = null;
+            if (date != null && !date.isEmpty()) {
+                try {
+                    travelDate = LocalDate.parse(date);
+                } catch (DateTimeParseException e) {
+                    System.err.println("Dată invalidă în filtru: " + date);
+                }
+            }
             
-            // Paginare
-            int totalRides = filteredRides.size();
-            int totalPages = (int) Math.ceil((double) totalRides / size);
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, totalRides);
+            // Paginare keyset: "after" duce la pagina următoare, "before" la cea anterioară
+            boolean backwards = before != null && !before.isEmpty();
+            RidePage ridePage = rideService.getActiveRidesPage(
+                from, to, travelDate, backwards ? before : after, backwards, size, total);
             
-            List<RideDTO> pagedRides = filteredRides.subList(startIndex, endIndex);
+            long totalRides = ridePage.getTotalRides();
+            int totalPages = (int) Math.ceil((double) totalRides / Math.max(size, 1));
+            int currentPage = Math.max(0, Math.min(page, Math.max(totalPages - 1, 0)));
             
             // Adăugăm atributele în model
-            model.addAttribute("allRides", pagedRides);
-            model.addAttribute("currentPage", page);
+            model.addAttribute("allRides", ridePage.getRides());
+            model.addAttribute("currentPage", currentPage);
             model.addAttribute("totalPages", totalPages);
             model.addAttribute("totalRides", totalRides);
-            model.addAttribute("hasNextPage", page < totalPages - 1);
-            model.addAttribute("hasPreviousPage", page > 0);
+            model.addAttribute("hasNextPage", ridePage.isHasNext());
+            model.addAttribute("hasPreviousPage", ridePage.isHasPrevious());
+            model.addAttribute("nextCursor", ridePage.getNextCursor());
+            model.addAttribute("previousCursor", ridePage.getPreviousCursor());
+            model.addAttribute("pageSize", size);
             
             // Pentru filtre
             model.addAttribute("filterFrom", from != null ? from : "");
@@ -99,6 +104,9 @@ public class PageController {
             model.addAttribute("totalRides", 0);
             model.addAttribute("hasNextPage", false);
             model.addAttribute("hasPreviousPage", false);
+            model.addAttribute("nextCursor", null);
+            model.addAttribute("previousCursor", null);
+            model.addAttribute("pageSize", size);
             model.addAttribute("filterFrom", "");
             model.addAttribute("filterTo", "");
             model.addAttribute("filterDate", "");
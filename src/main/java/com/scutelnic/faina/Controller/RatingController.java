@@ -1,18 +1,22 @@
 package com.scutelnic.faina.Controller;
 
+import com.scutelnic.faina.dto.RatingPage;
+import com.scutelnic.faina.dto.RatingSummary;
+import com.scutelnic.faina.dto.SessionUser;
 import com.scutelnic.faina.entity.Rating;
-import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.service.DataVersions;
 import com.scutelnic.faina.service.RatingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import jakarta.servlet.http.HttpSession;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import com.scutelnic.faina.repository.RatingRepository;
 
 @RestController
 @RequestMapping("/api/ratings")
@@ -22,7 +26,7 @@ public class RatingController {
     private RatingService ratingService;
     
     @Autowired
-    private RatingRepository ratingRepository;
+    private DataVersions dataVersions;
     
     /**
      * Add or update a rating
@@ -41,8 +45,8 @@ public class RatingController {
         
         try {
             // Check if user is logged in
-            User currentUser = (User) session.getAttribute("user");
-            System.out.println("🔍 Current user from session: " + (currentUser != null ? currentUser.getEmail() + " (ID: " + currentUser.getId() + ")" : "null"));
+            SessionUser currentUser = (SessionUser) session.getAttribute("user");
+            System.out.println("🔍 Current user from session: " + (currentUser != null ? currentUser.displayName() + " (ID: " + currentUser.id() + ")" : "null"));
             
             if (currentUser == null) {
                 System.out.println("❌ User not authenticated");
@@ -51,11 +55,11 @@ public class RatingController {
                 return ResponseEntity.status(401).body(response);
             }
             
-            System.out.println("✅ User authenticated: " + currentUser.getEmail());
+            System.out.println("✅ User authenticated: " + currentUser.displayName());
             
             // Add or update rating
             Rating savedRating = ratingService.addOrUpdateRating(
-                currentUser.getId(), 
+                currentUser.id(), 
                 ratedUserId, 
                 rating, 
                 comment
@@ -94,39 +98,22 @@ public class RatingController {
         
         try {
             // Check if user is logged in
-            User currentUser = (User) session.getAttribute("user");
+            SessionUser currentUser = (SessionUser) session.getAttribute("user");
             if (currentUser == null) {
                 response.put("success", false);
                 response.put("message", "Trebuie să fiți logat pentru a actualiza un rating.");
                 return ResponseEntity.status(401).body(response);
             }
             
-            // Get the existing rating
-            Optional<Rating> existingRating = ratingRepository.findById(ratingId);
-            if (!existingRating.isPresent()) {
+            Rating updatedRating;
+            try {
+                updatedRating = ratingService.updateRating(ratingId, currentUser.id(), rating, comment);
+            } catch (SecurityException e) {
                 response.put("success", false);
-                response.put("message", "Rating-ul nu a fost găsit.");
-                return ResponseEntity.notFound().build();
-            }
-            
-            Rating ratingToUpdate = existingRating.get();
-            
-            // Check if user owns this rating
-            if (!ratingToUpdate.getRater().getId().equals(currentUser.getId())) {
-                response.put("success", false);
-                response.put("message", "Nu aveți permisiunea să actualizați acest rating.");
+                response.put("message", e.getMessage());
                 return ResponseEntity.status(403).body(response);
             }
             
-            // Update rating
-            ratingToUpdate.setRating(rating);
-            ratingToUpdate.setComment(comment);
-            
-            Rating updatedRating = ratingRepository.save(ratingToUpdate);
-            
-            // Update user's rating statistics
-            ratingService.updateUserRatingStats(ratingToUpdate.getRatedUser().getId());
-            
             response.put("success", true);
             response.put("message", "Rating-ul a fost actualizat cu succes!");
             response.put("rating", updatedRating);
@@ -143,23 +130,32 @@ public class RatingController {
     }
     
     /**
-     * Get all ratings for a user
+     * Get a page of ratings for a user (newest first), with the stored average and total
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Map<String, Object>> getUserRatings(@PathVariable Long userId) {
+    public ResponseEntity<Map<String, Object>> getUserRatings(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            List<Rating> ratings = ratingService.getUserRatings(userId);
-            Double averageRating = ratingService.getAverageRating(userId);
-            Long totalRatings = ratingService.getTotalRatings(userId);
+            String etag = dataVersions.userRatingsETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return null; // 304, rating-urile nu s-au schimbat
+            }
+
+            RatingPage page = ratingService.getUserRatingsPage(userId, cursor, size);
             
             response.put("success", true);
-            response.put("ratings", ratings);
-            response.put("averageRating", averageRating);
-            response.put("totalRatings", totalRatings);
+            response.put("ratings", page.getRatings());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasNext", page.isHasNext());
+            response.put("averageRating", page.getAverageRating());
+            response.put("totalRatings", page.getTotalRatings());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).body(response);
             
         } catch (Exception e) {
             response.put("success", false);
@@ -168,6 +164,89 @@ public class RatingController {
         }
     }
     
+    /**
+     * Get the rating summary for a user: average, total, star histogram and the latest comments
+     */
+    @GetMapping("/summary/{userId}")
+    public ResponseEntity<Map<String, Object>> getRatingSummary(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "3") int comments,
+            WebRequest webRequest) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            String etag = dataVersions.userRatingsETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return null; // 304, rating-urile nu s-au schimbat
+            }
+            
+            Optional<RatingSummary> summary = ratingService.getRatingSummary(userId, comments);
+            if (summary.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "Utilizatorul nu a fost găsit.");
+                return ResponseEntity.status(404).body(response);
+            }
+            
+            response.put("success", true);
+            response.put("summary", summary.get());
+            return ResponseEntity.ok().eTag(etag).body(response);
+            
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la încărcarea rezumatului: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Get rating summaries (without comments) for many users at once, e.g. the drivers of a ride list
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Map<String, Object>> getRatingSummaries(@RequestParam List<Long> userIds) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.put("summaries", ratingService.getRatingSummaries(new LinkedHashSet<>(userIds)));
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la încărcarea rezumatelor: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Check which of the given users the current user has already rated
+     */
+    @GetMapping("/check")
+    public ResponseEntity<Map<String, Object>> checkRatedUsers(
+            @RequestParam List<Long> userIds,
+            HttpSession session) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            SessionUser currentUser = (SessionUser) session.getAttribute("user");
+            if (currentUser == null) {
+                response.put("success", false);
+                response.put("message", "Utilizatorul nu este autentificat.");
+                response.put("ratedUserIds", List.of());
+                return ResponseEntity.ok(response);
+            }
+            
+            response.put("success", true);
+            response.put("ratedUserIds", ratingService.getRatedUserIds(currentUser.id(), new LinkedHashSet<>(userIds)));
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la verificarea rating-urilor: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     /**
      * Check if current user has rated a specific user
      */
@@ -182,8 +261,8 @@ public class RatingController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = (User) session.getAttribute("user");
-            System.out.println("🔍 Current user from session: " + (currentUser != null ? currentUser.getEmail() + " (ID: " + currentUser.getId() + ")" : "null"));
+            SessionUser currentUser = (SessionUser) session.getAttribute("user");
+            System.out.println("🔍 Current user from session: " + (currentUser != null ? currentUser.displayName() + " (ID: " + currentUser.id() + ")" : "null"));
             
             if (currentUser == null) {
                 System.out.println("❌ User not authenticated");
@@ -193,9 +272,9 @@ public class RatingController {
                 return ResponseEntity.ok(response);
             }
             
-            System.out.println("✅ User authenticated: " + currentUser.getEmail());
+            System.out.println("✅ User authenticated: " + currentUser.displayName());
             
-            boolean hasRated = ratingService.hasUserRated(currentUser.getId(), ratedUserId);
+            boolean hasRated = ratingService.hasUserRated(currentUser.id(), ratedUserId);
             System.out.println("🔍 Has user rated: " + hasRated);
             
             response.put("success", true);
@@ -203,7 +282,7 @@ public class RatingController {
             
             if (hasRated) {
                 // Get existing rating details
-                var existingRating = ratingService.getExistingRating(currentUser.getId(), ratedUserId);
+                var existingRating = ratingService.getExistingRating(currentUser.id(), ratedUserId);
                 if (existingRating.isPresent()) {
                     response.put("existingRating", existingRating.get());
                     System.out.println("✅ Existing rating found: " + existingRating.get().getId());
@@ -232,14 +311,14 @@ public class RatingController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = (User) session.getAttribute("user");
+            SessionUser currentUser = (SessionUser) session.getAttribute("user");
             if (currentUser == null) {
                 response.put("success", false);
                 response.put("message", "Trebuie să fiți logat pentru a șterge un rating.");
                 return ResponseEntity.status(401).body(response);
             }
             
-            ratingService.deleteRating(ratingId, currentUser.getId());
+            ratingService.deleteRating(ratingId, currentUser.id());
             
             response.put("success", true);
             response.put("message", "Rating-ul a fost șters cu succes!");
@@ -1,19 +1,33 @@
 package com.scutelnic.faina.Controller;
 
+import com.scutelnic.faina.service.DataVersions;
+import com.scutelnic.faina.service.RideImportService;
+import com.scutelnic.faina.service.RideLiveFeed;
 import com.scutelnic.faina.service.RideService;
+import com.scutelnic.faina.service.UserService;
 import com.scutelnic.faina.dto.RideDTO;
 import com.scutelnic.faina.dto.SearchRideRequest;
 import com.scutelnic.faina.dto.AddRideRequest;
-import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.dto.LocationCount;
+import com.scutelnic.faina.dto.RideImportResult;
+import com.scutelnic.faina.dto.RideColumns;
+import com.scutelnic.faina.dto.SessionUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.servlet.http.HttpSession;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 @RestController
@@ -23,13 +37,34 @@ public class RideController {
     @Autowired
     private RideService rideService;
     
+    @Autowired
+    private RideImportService rideImportService;
+    
+    @Autowired
+    private DataVersions dataVersions;
+    
+    @Autowired
+    private RideLiveFeed rideLiveFeed;
+    
+    @Autowired
+    private UserService userService;
+    
+    /**
+     * Lista curselor active. ETag-ul vine din versiunea curselor, deci un client cu lista
+     * la zi primește 304 fără nicio interogare. Răspunsul poate fi JSON, CBOR sau Smile,
+     * după antetul Accept.
+     */
     @GetMapping
-    public ResponseEntity<List<RideDTO>> getAllRides() {
+    public ResponseEntity<List<RideDTO>> getAllRides(WebRequest webRequest) {
         try {
+            String etag = dataVersions.ridesETag();
+            if (webRequest.checkNotModified(etag)) {
+                return null; // 304, fără corp
+            }
             System.out.println("API call to get all rides");
             List<RideDTO> rides = rideService.getAllActiveRides();
             System.out.println("Returning " + rides.size() + " rides");
-            return ResponseEntity.ok(rides);
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(rides);
         } catch (Exception e) {
             System.err.println("Error in getAllRides: " + e.getMessage());
             e.printStackTrace();
@@ -37,6 +72,59 @@ public class RideController {
         }
     }
     
+    /**
+     * Aceleași curse ca GET /api/rides, pe coloane: localitățile și datele șoferilor
+     * se trimit o singură dată pe răspuns. Util mai ales cu Accept: application/cbor.
+     */
+    @GetMapping("/columns")
+    public ResponseEntity<RideColumns> getAllRideColumns(WebRequest webRequest) {
+        String etag = dataVersions.ridesETag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        RideColumns columns = RideColumns.of(rideService.getAllActiveRides());
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(columns);
+    }
+    
+    /**
+     * Flux live (SSE): ride-created, ride-deleted, seats-changed și ride-expired.
+     * from și to (opționale) filtrează după prefixul localităților, ca la căutare.
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> liveRides(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            return ResponseEntity.ok()
+                    .header("X-Accel-Buffering", "no") // proxy-ul nu trebuie să țină evenimentele în buffer
+                    .body(rideLiveFeed.subscribe(from, to));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+    
+    /**
+     * Exportă toate cursele (inclusiv cele expirate) ca NDJSON, scris pe măsură ce rândurile sunt citite.
+     * Parametrul opțional active filtrează doar cursele active sau doar cele inactive.
+     * Doar pentru utilizatorii logați; exportul nu conține datele de contact ale șoferilor.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRides(@RequestParam(required = false) Boolean active,
+                                                             HttpSession session) {
+        if (session.getAttribute("user") == null) {
+            return ResponseEntity.status(401).build();
+        }
+        StreamingResponseBody body = out -> {
+            long started = System.currentTimeMillis();
+            long count = rideService.exportRides(active, out);
+            System.out.println("Export NDJSON: " + count + " curse în " + (System.currentTimeMillis() - started) + " ms");
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rides.ndjson\"")
+                .body(body);
+    }
+    
     @GetMapping("/test")
     public ResponseEntity<Map<String, Object>> testConnection() {
         Map<String, Object> response = new HashMap<>();
@@ -89,7 +177,7 @@ public class RideController {
             response.put("results", results);
             response.put("count", results.size());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -111,7 +199,7 @@ public class RideController {
         
         try {
             // Verificăm dacă utilizatorul este logat
-            User user = (User) session.getAttribute("user");
+            SessionUser user = (SessionUser) session.getAttribute("user");
             if (user == null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
@@ -128,7 +216,7 @@ public class RideController {
             request.setPrice(BigDecimal.valueOf(price));
             request.setDescription(description);
             
-            RideDTO savedRide = rideService.addRide(request, user);
+            RideDTO savedRide = rideService.addRide(request, userService.getReference(user.id()));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -144,39 +232,149 @@ public class RideController {
         }
     }
     
+    /**
+     * Import în bloc din JSON (o listă de curse, aceleași câmpuri ca la adăugarea unei curse).
+     * Cu skipInvalid=true se salvează rândurile valide chiar dacă altele au erori.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> importRidesJson(
+            @RequestBody List<AddRideRequest> rides,
+            @RequestParam(defaultValue = "false") boolean skipInvalid,
+            HttpSession session) {
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            return importUnauthorized();
+        }
+        try {
+            return importResponse(rideImportService.importRides(rides, userService.getReference(user.id()), skipInvalid));
+        } catch (Exception e) {
+            return importFailed(e);
+        }
+    }
+    
+    /**
+     * Import în bloc din CSV cu antet: fromLocation,toLocation,travelDate,departureTime,availableSeats,price,description
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> importRidesCsv(
+            @RequestBody String csv,
+            @RequestParam(defaultValue = "false") boolean skipInvalid,
+            HttpSession session) {
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            return importUnauthorized();
+        }
+        try {
+            return importResponse(rideImportService.importCsv(csv, userService.getReference(user.id()), skipInvalid));
+        } catch (Exception e) {
+            return importFailed(e);
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> importResponse(RideImportResult result) {
+        Map<String, Object> response = new HashMap<>();
+        boolean success = result.getErrors().isEmpty() || result.getImported() > 0;
+        response.put("success", success);
+        response.put("message", result.getImported() + " din " + result.getReceived() + " curse au fost importate.");
+        response.put("result", result);
+        return success ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> importUnauthorized() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Trebuie să fiți logat pentru a importa curse.");
+        return ResponseEntity.status(401).body(response);
+    }
+    
+    private ResponseEntity<Map<String, Object>> importFailed(Exception e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "Eroare la importul curselor: " + e.getMessage());
+        return ResponseEntity.badRequest().body(response);
+    }
+    
     @GetMapping("/locations/from")
-    public ResponseEntity<List<String>> getAllFromLocations() {
-        List<String> locations = rideService.getAllFromLocations();
-        return ResponseEntity.ok(locations);
+    public ResponseEntity<List<String>> getAllFromLocations(
+            @RequestParam(required = false) String prefix,
+            WebRequest webRequest) {
+        String etag = rideService.getFromLocationsVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304, fără corp
+        }
+        List<String> locations = rideService.getFromLocations(prefix).stream()
+                .map(LocationCount::getLocation)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok().eTag(etag).body(locations);
     }
     
     @GetMapping("/locations/to")
-    public ResponseEntity<List<String>> getAllToLocations() {
-        List<String> locations = rideService.getAllToLocations();
-        return ResponseEntity.ok(locations);
+    public ResponseEntity<List<String>> getAllToLocations(
+            @RequestParam(required = false) String prefix,
+            WebRequest webRequest) {
+        String etag = rideService.getToLocationsVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<String> locations = rideService.getToLocations(prefix).stream()
+                .map(LocationCount::getLocation)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok().eTag(etag).body(locations);
+    }
+    
+    @GetMapping("/locations/from/counts")
+    public ResponseEntity<List<LocationCount>> getFromLocationCounts(
+            @RequestParam(required = false) String prefix,
+            WebRequest webRequest) {
+        String etag = rideService.getFromLocationsVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(rideService.getFromLocations(prefix));
+    }
+    
+    @GetMapping("/locations/to/counts")
+    public ResponseEntity<List<LocationCount>> getToLocationCounts(
+            @RequestParam(required = false) String prefix,
+            WebRequest webRequest) {
+        String etag = rideService.getToLocationsVersion();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(rideService.getToLocations(prefix));
     }
     
     @GetMapping("/my-rides")
-    public ResponseEntity<List<RideDTO>> getMyRides(HttpSession session) {
+    public ResponseEntity<List<RideDTO>> getMyRides(HttpSession session, WebRequest webRequest) {
         try {
             // Verificăm dacă utilizatorul este logat
-            User user = (User) session.getAttribute("user");
+            SessionUser user = (SessionUser) session.getAttribute("user");
             if (user == null) {
                 return ResponseEntity.status(401).build();
             }
             
-            List<RideDTO> rides = rideService.getRidesByUser(user);
-            return ResponseEntity.ok(rides);
+            String etag = dataVersions.userRidesETag(user.id());
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            List<RideDTO> rides = rideService.getRidesByUserId(user.id());
+            // Răspuns personal: nu trebuie păstrat în cache-uri partajate
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).body(rides);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<RideDTO>> getRidesByUserId(@PathVariable Long userId) {
+    public ResponseEntity<List<RideDTO>> getRidesByUserId(@PathVariable Long userId, WebRequest webRequest) {
         try {
+            String etag = dataVersions.userRidesETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<RideDTO> rides = rideService.getRidesByUserId(userId);
-            return ResponseEntity.ok(rides);
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(rides);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -186,7 +384,7 @@ public class RideController {
     public ResponseEntity<Map<String, Object>> deleteRide(@PathVariable Long id, HttpSession session) {
         try {
             // Verificăm dacă utilizatorul este logat
-            User user = (User) session.getAttribute("user");
+            SessionUser user = (SessionUser) session.getAttribute("user");
             if (user == null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
@@ -195,7 +393,7 @@ public class RideController {
             }
             
             // Ștergem cursa
-            rideService.deleteRide(id, user);
+            rideService.deleteRide(id, user.id());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
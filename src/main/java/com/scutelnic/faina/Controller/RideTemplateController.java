@@ -0,0 +1,127 @@
+package com.scutelnic.faina.Controller;
+
+import com.scutelnic.faina.dto.RideTemplateDTO;
+import com.scutelnic.faina.dto.SessionUser;
+import com.scutelnic.faina.service.RideTemplateService;
+import com.scutelnic.faina.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ride-templates")
+public class RideTemplateController {
+    
+    @Autowired
+    private RideTemplateService rideTemplateService;
+    
+    @Autowired
+    private UserService userService;
+    
+    /**
+     * Creează o cursă recurentă. weekdays: 1 = luni, ..., 7 = duminică; endDate este opțională.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createTemplate(
+            @RequestParam String fromLocation,
+            @RequestParam String toLocation,
+            @RequestParam String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam String departureTime,
+            @RequestParam List<Integer> weekdays,
+            @RequestParam int availableSeats,
+            @RequestParam double price,
+            @RequestParam(required = false) String description,
+            HttpSession session) {
+        
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a adăuga o cursă.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            RideTemplateDTO template = rideTemplateService.createTemplate(
+                    fromLocation, toLocation, LocalTime.parse(departureTime), weekdays,
+                    LocalDate.parse(startDate), endDate == null || endDate.isBlank() ? null : LocalDate.parse(endDate),
+                    availableSeats, BigDecimal.valueOf(price), description, userService.getReference(user.id()));
+            response.put("success", true);
+            response.put("message", "Cursa recurentă a fost adăugată cu succes!");
+            response.put("template", template);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la adăugarea cursei recurente: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/my")
+    public ResponseEntity<List<RideTemplateDTO>> getMyTemplates(HttpSession session) {
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(rideTemplateService.getTemplatesForUser(user.id()));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> deactivateTemplate(@PathVariable Long id, HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a opri o cursă recurentă.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            rideTemplateService.deactivateTemplate(id, user.id());
+            response.put("success", true);
+            response.put("message", "Cursa recurentă a fost oprită.");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la oprirea cursei recurente: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Anulează cursa recurentă într-o singură zi (de exemplu o zi liberă).
+     */
+    @PostMapping("/{id}/occurrences/{date}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelOccurrence(
+            @PathVariable Long id,
+            @PathVariable String date,
+            HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a anula o cursă.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            rideTemplateService.cancelOccurrence(id, LocalDate.parse(date), user.id());
+            response.put("success", true);
+            response.put("message", "Cursa din " + date + " a fost anulată.");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la anularea cursei: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
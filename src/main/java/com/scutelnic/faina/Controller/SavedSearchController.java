@@ -0,0 +1,90 @@
+package com.scutelnic.faina.Controller;
+
+import com.scutelnic.faina.dto.SavedSearchDTO;
+import com.scutelnic.faina.dto.SessionUser;
+import com.scutelnic.faina.service.SavedSearchService;
+import com.scutelnic.faina.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/saved-searches")
+public class SavedSearchController {
+    
+    @Autowired
+    private SavedSearchService savedSearchService;
+    
+    @Autowired
+    private UserService userService;
+    
+    /**
+     * Salvează o căutare. Fără travelDate, utilizatorul este anunțat pentru orice zi.
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createSearch(
+            @RequestParam String fromLocation,
+            @RequestParam String toLocation,
+            @RequestParam(required = false) String travelDate,
+            @RequestParam(defaultValue = "1") int passengers,
+            HttpSession session) {
+        
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a salva o căutare.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            SavedSearchDTO search = savedSearchService.createSearch(fromLocation, toLocation,
+                    travelDate == null || travelDate.isBlank() ? null : LocalDate.parse(travelDate), passengers, userService.getReference(user.id()));
+            response.put("success", true);
+            response.put("message", "Căutarea a fost salvată. Veți fi anunțat când apare o cursă potrivită.");
+            response.put("search", search);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la salvarea căutării: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/my")
+    public ResponseEntity<List<SavedSearchDTO>> getMySearches(HttpSession session) {
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(savedSearchService.getSearchesForUser(user.id()));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> deleteSearch(@PathVariable Long id, HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a șterge o căutare.");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        try {
+            savedSearchService.deleteSearch(id, user.id());
+            response.put("success", true);
+            response.put("message", "Căutarea a fost ștearsă.");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Eroare la ștergerea căutării: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
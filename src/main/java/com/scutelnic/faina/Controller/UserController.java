@@ -1,15 +1,24 @@
 package com.scutelnic.faina.Controller;
 
 import com.scutelnic.faina.service.UserService;
+import com.scutelnic.faina.dto.AdminUserPage;
+import com.scutelnic.faina.dto.PublicProfile;
+import com.scutelnic.faina.dto.SessionUser;
 import com.scutelnic.faina.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.servlet.http.HttpSession;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,15 +27,120 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Id-urile administratorilor, separate prin virgulă; fără configurare nimeni nu are acces la lista utilizatorilor
+    @Value("${admin.user-ids:}")
+    private Set<Long> adminUserIds;
+    
+    /**
+     * Lista utilizatorilor pentru administrare, pe pagini cu cursor (createdAt, id), cei mai noi primii.
+     * Filtre opționale: active și email (începutul adresei); fields alege coloanele ("id,email,createdAt").
+     * Doar pentru administratori (admin.user-ids).
+     */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<Map<String, Object>> getUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String fields,
+            HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a vedea utilizatorii");
+            return ResponseEntity.status(401).body(response);
+        }
+        if (!isAdmin(user)) {
+            response.put("success", false);
+            response.put("message", "Doar administratorii pot vedea utilizatorii");
+            return ResponseEntity.status(403).body(response);
+        }
+        try {
+            AdminUserPage page = userService.getUsersPage(active, email, userService.adminColumns(fields), cursor, size);
+            response.put("success", true);
+            response.put("fields", page.getFields());
+            response.put("users", page.getUsers());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasNext", page.isHasNext());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * Exportul complet al utilizatorilor filtrați, ca CSV sau NDJSON (format=csv|ndjson), scris pe măsură
+     * ce rândurile sunt citite. Aceleași filtre și coloane ca lista de mai sus; doar pentru administratori.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String fields,
+            HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        SessionUser user = (SessionUser) session.getAttribute("user");
+        if (user == null) {
+            response.put("success", false);
+            response.put("message", "Trebuie să fiți logat pentru a exporta utilizatorii");
+            return jsonError(401, response);
+        }
+        if (!isAdmin(user)) {
+            response.put("success", false);
+            response.put("message", "Doar administratorii pot exporta utilizatorii");
+            return jsonError(403, response);
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        List<String> columns;
+        try {
+            if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+                throw new IllegalArgumentException("Format necunoscut: " + format + " (csv sau ndjson)");
+            }
+            // Coloanele sunt validate înainte de a începe răspunsul, ca o eroare să fie un 400 obișnuit
+            columns = userService.adminColumns(fields);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return jsonError(400, response);
+        }
+        StreamingResponseBody body = out -> {
+            long started = System.currentTimeMillis();
+            long count = userService.exportUsers(active, email, columns, csv, out);
+            System.out.println("Export utilizatori (" + (csv ? "CSV" : "NDJSON") + "): " + count + " rânduri în "
+                    + (System.currentTimeMillis() - started) + " ms");
+        };
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"users." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+    
+    private boolean isAdmin(SessionUser user) {
+        return adminUserIds.contains(user.id());
+    }
+    
+    // Răspunsul de export este declarat ca flux, deci și erorile sunt scrise prin el
+    private ResponseEntity<StreamingResponseBody> jsonError(int status, Map<String, Object> response) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, response));
     }
     
+    /**
+     * Profilul public (nume, imagine, rating, număr de curse, data înscrierii), servit din cache.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return userService.getUserById(id)
+    public ResponseEntity<PublicProfile> getUserById(@PathVariable Long id) {
+        return userService.getPublicProfile(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -79,7 +193,7 @@ public class UserController {
         
         try {
             // Verificăm dacă utilizatorul este logat
-            User currentUser = (User) session.getAttribute("user");
+            SessionUser currentUser = (SessionUser) session.getAttribute("user");
             if (currentUser == null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
@@ -88,7 +202,7 @@ public class UserController {
             }
             
             User updatedUser = userService.updateProfile(
-                currentUser.getId(),
+                currentUser.id(),
                 firstName,
                 lastName,
                 email,
@@ -99,7 +213,7 @@ public class UserController {
             );
             
             // Actualizăm sesiunea cu datele noi
-            session.setAttribute("user", updatedUser);
+            session.setAttribute("user", SessionUser.of(updatedUser));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
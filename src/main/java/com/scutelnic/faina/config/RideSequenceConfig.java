@@ -0,0 +1,47 @@
+package com.scutelnic.faina.config;
+
+import com.scutelnic.faina.entity.Ride;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Aliniază secvența rides_seq la id-urile existente. Cursele create înainte de trecerea de la
+ * IDENTITY la secvență au id-uri din AUTO_INCREMENT, iar tabela creată de Hibernate pentru
+ * secvență (MySQL nu are secvențe) pornește de la 1.
+ */
+@Configuration
+public class RideSequenceConfig {
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Schema trebuie să fie actualizată de Hibernate înainte de aliniere
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @PostConstruct
+    public void alignRideSequence() throws Exception {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+        
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM rides", Long.class);
+        // Optimizatorul pooled dă id-uri din intervalul (next_val - allocationSize, next_val]
+        long nextValue = maxId + Ride.ID_ALLOCATION_SIZE;
+        int updated = jdbcTemplate.update("UPDATE rides_seq SET next_val = ? WHERE next_val < ?", nextValue, nextValue);
+        if (updated > 0) {
+            System.out.println("Secvența rides_seq a fost aliniată la " + nextValue);
+        }
+    }
+}
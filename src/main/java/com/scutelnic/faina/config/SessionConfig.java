@@ -2,10 +2,16 @@ package com.scutelnic.faina.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
 import org.springframework.session.web.http.CookieSerializer;
 import org.springframework.session.web.http.DefaultCookieSerializer;
 
+/**
+ * Sesiunile HTTP trec prin Spring Session, cu depozitul TieredSessionRepository
+ * (memorie + tabela app_sessions), în locul sesiunilor Tomcat.
+ */
 @Configuration
+@EnableSpringHttpSession
 public class SessionConfig {
 
     @Bean
@@ -16,6 +22,7 @@ public class SessionConfig {
         serializer.setDomainNamePattern("^.+?\\.(\\w+\\.[a-z]+)$");
         serializer.setCookieMaxAge(1800); // 30 minutes
         serializer.setUseHttpOnlyCookie(true);
+        serializer.setSameSite("Strict");
         serializer.setUseSecureCookie(false); // Set to true in production with HTTPS
         return serializer;
     }
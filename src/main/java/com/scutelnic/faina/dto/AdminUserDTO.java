@@ -0,0 +1,47 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Un rând din lista de utilizatori pentru administrare (fără parolă). COLUMNS definește coloanele
+ * care pot fi cerute prin parametrul fields, în ordinea implicită.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminUserDTO {
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String phone;
+    private String profileImage;
+    private LocalDateTime createdAt;
+    private Boolean isActive;
+    private Double averageRating;
+    private Long totalRatings;
+
+    public static final Map<String, Function<AdminUserDTO, Object>> COLUMNS = columns();
+
+    private static Map<String, Function<AdminUserDTO, Object>> columns() {
+        Map<String, Function<AdminUserDTO, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", AdminUserDTO::getId);
+        columns.put("email", AdminUserDTO::getEmail);
+        columns.put("firstName", AdminUserDTO::getFirstName);
+        columns.put("lastName", AdminUserDTO::getLastName);
+        columns.put("phone", AdminUserDTO::getPhone);
+        columns.put("profileImage", AdminUserDTO::getProfileImage);
+        columns.put("createdAt", AdminUserDTO::getCreatedAt);
+        columns.put("isActive", AdminUserDTO::getIsActive);
+        columns.put("averageRating", AdminUserDTO::getAverageRating);
+        columns.put("totalRatings", AdminUserDTO::getTotalRatings);
+        return columns;
+    }
+}
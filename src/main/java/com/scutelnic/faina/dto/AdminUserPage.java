@@ -0,0 +1,17 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminUserPage {
+    private List<String> fields;
+    private List<Map<String, Object>> users; // doar coloanele din fields
+    private String nextCursor; // cursorul ultimului utilizator din pagină
+    private boolean hasNext;
+}
@@ -0,0 +1,20 @@
+package com.scutelnic.faina.dto;
+
+import com.scutelnic.faina.entity.BookingStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDTO {
+    private Long id;
+    private Long rideId;
+    private Long passengerId;
+    private Integer seats;
+    private BookingStatus status;
+    private LocalDateTime holdExpiresAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxMessageDTO {
+    private Long id;
+    private String message;
+    private Long rideId;
+    private Long savedSearchId;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationCount {
+    private String location;
+    private int activeRides;
+}
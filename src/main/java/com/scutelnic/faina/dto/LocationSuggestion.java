@@ -0,0 +1,16 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationSuggestion {
+    private String name;
+    private String district;
+    private String type; // city sau village, la fel ca în autocomplete.js
+    private String fullAddress;
+    private int relevance;
+}
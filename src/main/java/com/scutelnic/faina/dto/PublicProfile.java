@@ -0,0 +1,55 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Profilul public al unui utilizator, așa cum îl văd ceilalți: fără email, telefon sau parolă.
+ * stars[0] este numărul de rating-uri de 1 stea, ..., stars[4] cel de 5 stele;
+ * rideCount numără toate cursele oferite, inclusiv cele expirate.
+ */
+@Data
+@NoArgsConstructor
+public class PublicProfile {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String profileImage;
+    private LocalDateTime memberSince;
+    private Double averageRating;
+    private Long totalRatings;
+    private long[] stars;
+    private Long rideCount;
+
+    public PublicProfile(Long id, String firstName, String lastName, String profileImage, LocalDateTime memberSince,
+                         Long ratingSum, Long totalRatings, Long stars1, Long stars2, Long stars3, Long stars4,
+                         Long stars5, Long rideCount) {
+        RatingStats stats = new RatingStats(ratingSum, totalRatings);
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.profileImage = profileImage;
+        this.memberSince = memberSince;
+        this.averageRating = stats.average();
+        this.totalRatings = stats.count();
+        this.stars = new long[] {value(stars1), value(stars2), value(stars3), value(stars4), value(stars5)};
+        this.rideCount = rideCount;
+    }
+
+    /**
+     * Memoria aproximativă ocupată în cache, în octeți (obiectul, tabloul și textele).
+     */
+    public int estimatedSize() {
+        return 160 + 2 * (length(firstName) + length(lastName) + length(profileImage));
+    }
+
+    private static long value(Long number) {
+        return number != null ? number : 0L;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.scutelnic.faina.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Mixin Jackson pentru RideDTO fără datele de contact ale șoferului, folosit unde cursele
+ * ajung la oricine: exportul NDJSON și fluxul live.
+ */
+@JsonIgnoreProperties({"driverEmail", "driverPhone"})
+public abstract class PublicRideMixin {
+}
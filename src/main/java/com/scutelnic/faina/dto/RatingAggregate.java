@@ -0,0 +1,19 @@
+package com.scutelnic.faina.dto;
+
+/**
+ * Statisticile de rating salvate pe utilizator, alături de cele calculate din tabela ratings
+ * (histograma este comparată direct în SQL).
+ * Folosit de reconcilierea periodică pentru a găsi diferențele.
+ */
+public record RatingAggregate(Long userId, Long storedSum, Long storedCount, Long actualSum, Long actualCount,
+                              Boolean histogramMatches) {
+    
+    public boolean drifted() {
+        return value(storedSum) != value(actualSum) || value(storedCount) != value(actualCount)
+                || !Boolean.TRUE.equals(histogramMatches);
+    }
+    
+    private static long value(Long number) {
+        return number != null ? number : 0L;
+    }
+}
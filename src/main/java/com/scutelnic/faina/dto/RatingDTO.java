@@ -0,0 +1,19 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingDTO {
+    private Long id;
+    private Integer rating;
+    private String comment;
+    private LocalDateTime createdAt;
+    private Long raterId;
+    private String raterName;
+    private String raterProfileImage;
+}
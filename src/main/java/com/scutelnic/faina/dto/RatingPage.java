@@ -0,0 +1,17 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingPage {
+    private List<RatingDTO> ratings;
+    private String nextCursor; // cursorul ultimului rating din pagină (pentru "Mai multe")
+    private boolean hasNext;
+    private Double averageRating;
+    private Long totalRatings;
+}
@@ -0,0 +1,16 @@
+package com.scutelnic.faina.dto;
+
+/**
+ * Suma și numărul rating-urilor primite de un utilizator, așa cum sunt salvate pe rândul lui.
+ */
+public record RatingStats(Long ratingSum, Long totalRatings) {
+    
+    public long count() {
+        return totalRatings != null ? totalRatings : 0L;
+    }
+    
+    public double average() {
+        long count = count();
+        return count > 0 ? Math.round((ratingSum != null ? ratingSum : 0L) * 10.0 / count) / 10.0 : 0.0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rezumatul rating-urilor unui utilizator, citit din statisticile salvate pe rândul lui.
+ * stars[0] este numărul de rating-uri de 1 stea, ..., stars[4] cel de 5 stele.
+ */
+@Data
+@NoArgsConstructor
+public class RatingSummary {
+    private Long userId;
+    private Double averageRating;
+    private Long totalRatings;
+    private long[] stars;
+    private List<RatingDTO> recentComments = new ArrayList<>();
+
+    public RatingSummary(Long userId, Long ratingSum, Long totalRatings,
+                         Long stars1, Long stars2, Long stars3, Long stars4, Long stars5) {
+        RatingStats stats = new RatingStats(ratingSum, totalRatings);
+        this.userId = userId;
+        this.averageRating = stats.average();
+        this.totalRatings = stats.count();
+        this.stars = new long[] {value(stars1), value(stars2), value(stars3), value(stars4), value(stars5)};
+    }
+
+    private static long value(Long number) {
+        return number != null ? number : 0L;
+    }
+}
@@ -0,0 +1,97 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lista de curse pe coloane: câte un tablou pentru fiecare câmp din RideDTO, în aceeași ordine.
+ * Textele care se repetă (localități, date despre șofer, descrieri) sunt trimise o singură dată
+ * în strings; coloanele de text conțin indici în acest dicționar (null are și el un indice).
+ * Momentele sunt secunde de la 1970-01-01T00:00, ora locală, fără fus orar; travelDate este
+ * numărul zilei (epoch day).
+ */
+@Data
+@NoArgsConstructor
+public class RideColumns {
+    private int size;
+    private List<String> strings = new ArrayList<>();
+    private Long[] id; // null pentru ocurențele curselor recurente încă nematerializate
+    private int[] fromLocation;
+    private int[] toLocation;
+    private long[] departureTime;
+    private long[] travelDate;
+    private int[] availableSeats;
+    private BigDecimal[] price;
+    private int[] description;
+    private long[] userId;
+    private int[] driverName;
+    private int[] driverPhone;
+    private int[] driverEmail;
+    private int[] driverProfileImage;
+    private long[] createdAt;
+    private boolean[] isActive;
+    private Long[] templateId;
+
+    public static RideColumns of(List<RideDTO> rides) {
+        int size = rides.size();
+        RideColumns columns = new RideColumns();
+        columns.size = size;
+        columns.id = new Long[size];
+        columns.fromLocation = new int[size];
+        columns.toLocation = new int[size];
+        columns.departureTime = new long[size];
+        columns.travelDate = new long[size];
+        columns.availableSeats = new int[size];
+        columns.price = new BigDecimal[size];
+        columns.description = new int[size];
+        columns.userId = new long[size];
+        columns.driverName = new int[size];
+        columns.driverPhone = new int[size];
+        columns.driverEmail = new int[size];
+        columns.driverProfileImage = new int[size];
+        columns.createdAt = new long[size];
+        columns.isActive = new boolean[size];
+        columns.templateId = new Long[size];
+
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            RideDTO ride = rides.get(i);
+            columns.id[i] = ride.getId();
+            columns.fromLocation[i] = columns.intern(index, ride.getFromLocation());
+            columns.toLocation[i] = columns.intern(index, ride.getToLocation());
+            columns.departureTime[i] = seconds(ride.getDepartureTime());
+            columns.travelDate[i] = ride.getTravelDate() != null ? ride.getTravelDate().toLocalDate().toEpochDay() : 0L;
+            columns.availableSeats[i] = ride.getAvailableSeats() != null ? ride.getAvailableSeats() : 0;
+            columns.price[i] = ride.getPrice();
+            columns.description[i] = columns.intern(index, ride.getDescription());
+            columns.userId[i] = ride.getUserId() != null ? ride.getUserId() : 0L;
+            columns.driverName[i] = columns.intern(index, ride.getDriverName());
+            columns.driverPhone[i] = columns.intern(index, ride.getDriverPhone());
+            columns.driverEmail[i] = columns.intern(index, ride.getDriverEmail());
+            columns.driverProfileImage[i] = columns.intern(index, ride.getDriverProfileImage());
+            columns.createdAt[i] = seconds(ride.getCreatedAt());
+            columns.isActive[i] = Boolean.TRUE.equals(ride.getIsActive());
+            columns.templateId[i] = ride.getTemplateId();
+        }
+        return columns;
+    }
+
+    private int intern(Map<String, Integer> index, String value) {
+        return index.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+}
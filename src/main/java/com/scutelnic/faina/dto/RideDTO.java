@@ -25,4 +25,5 @@ public class RideDTO {
     private String driverProfileImage;
     private LocalDateTime createdAt;
     private Boolean isActive;
+    private Long templateId;
 }
@@ -0,0 +1,36 @@
+package com.scutelnic.faina.dto;
+
+/**
+ * Eveniment trimis abonaților fluxului live de curse (SSE).
+ * ride este completat doar pentru ride-created; availableSeats doar pentru seats-changed.
+ */
+public record RideEvent(String type, Long rideId, String fromLocation, String toLocation,
+                        Integer availableSeats, RideDTO ride) {
+    
+    public static final String CREATED = "ride-created";
+    public static final String DELETED = "ride-deleted";
+    public static final String SEATS_CHANGED = "seats-changed";
+    public static final String EXPIRED = "ride-expired";
+    
+    // Mai multe evenimente într-un singur mesaj (import, expirare), ca tablou JSON
+    public static final String BATCH = "rides-batch";
+    
+    // Evenimente pierdute (abonat prea lent sau lot prea mare): clientul recitește lista
+    public static final String RESYNC = "resync";
+    
+    public static RideEvent created(RideDTO ride) {
+        return new RideEvent(CREATED, ride.getId(), ride.getFromLocation(), ride.getToLocation(), ride.getAvailableSeats(), ride);
+    }
+    
+    public static RideEvent deleted(Long rideId, String fromLocation, String toLocation) {
+        return new RideEvent(DELETED, rideId, fromLocation, toLocation, null, null);
+    }
+    
+    public static RideEvent seatsChanged(RideDTO ride) {
+        return new RideEvent(SEATS_CHANGED, ride.getId(), ride.getFromLocation(), ride.getToLocation(), ride.getAvailableSeats(), null);
+    }
+    
+    public static RideEvent expired(RideRef ride) {
+        return new RideEvent(EXPIRED, ride.id(), ride.fromLocation(), ride.toLocation(), null, null);
+    }
+}
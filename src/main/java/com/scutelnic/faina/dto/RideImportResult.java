@@ -0,0 +1,16 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideImportResult {
+    private int received;
+    private int imported;
+    private List<RideImportError> errors;
+    private long durationMs;
+}
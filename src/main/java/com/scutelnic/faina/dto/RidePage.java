@@ -0,0 +1,18 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RidePage {
+    private List<RideDTO> rides;
+    private String nextCursor;     // cursorul ultimei curse din pagină (pentru "Următor")
+    private String previousCursor; // cursorul primei curse din pagină (pentru "Anterior")
+    private boolean hasNext;
+    private boolean hasPrevious;
+    private long totalRides;
+}
@@ -0,0 +1,7 @@
+package com.scutelnic.faina.dto;
+
+/**
+ * Referință minimă la o cursă (id și rută), folosită la invalidarea cache-urilor.
+ */
+public record RideRef(Long id, String fromLocation, String toLocation) {
+}
@@ -0,0 +1,29 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideTemplateDTO {
+    private Long id;
+    private String fromLocation;
+    private String toLocation;
+    private LocalTime departureTime;
+    private List<Integer> weekdays; // 1 = luni, ..., 7 = duminică
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer availableSeats;
+    private BigDecimal price;
+    private String description;
+    private Long userId;
+    private LocalDateTime createdAt;
+    private Boolean isActive;
+}
@@ -0,0 +1,19 @@
+package com.scutelnic.faina.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchDTO {
+    private Long id;
+    private String fromLocation;
+    private String toLocation;
+    private LocalDate travelDate;
+    private Integer minSeats;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.scutelnic.faina.dto;
+
+import com.scutelnic.faina.entity.User;
+
+import java.io.Serializable;
+
+/**
+ * Utilizatorul autentificat, așa cum este păstrat în sesiune: doar id-ul, numele afișat și imaginea.
+ * Parola, telefonul și statisticile de rating nu mai sunt copiate în fiecare sesiune; cine are nevoie
+ * de ele citește utilizatorul din baza de date după id.
+ */
+public record SessionUser(Long id, String displayName, String profileImage) implements Serializable {
+    
+    public static SessionUser of(User user) {
+        return new SessionUser(user.getId(), user.getFirstName(), user.getProfileImage());
+    }
+}
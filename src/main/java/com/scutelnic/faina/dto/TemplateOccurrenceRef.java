@@ -0,0 +1,9 @@
+package com.scutelnic.faina.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ocurență a unei curse recurente care are deja un rând în tabela rides.
+ */
+public record TemplateOccurrenceRef(Long templateId, LocalDateTime travelDate) {
+}
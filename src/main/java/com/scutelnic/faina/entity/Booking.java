@@ -0,0 +1,48 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_status_hold", columnList = "status, hold_expires_at"),
+    @Index(name = "idx_bookings_passenger", columnList = "passenger_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Booking {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ride_id", nullable = false)
+    private Ride ride;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "passenger_id", nullable = false)
+    private User passenger;
+    
+    @Column(nullable = false)
+    private Integer seats;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BookingStatus status;
+    
+    @Column(nullable = false)
+    private LocalDateTime holdExpiresAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.scutelnic.faina.entity;
+
+public enum BookingStatus {
+    HELD,      // Locuri rezervate temporar, în așteptarea confirmării
+    CONFIRMED, // Rezervare confirmată de pasager
+    CANCELLED, // Anulată de pasager sau de șofer; locurile au fost eliberate
+    EXPIRED    // Rezervarea temporară nu a fost confirmată la timp
+}
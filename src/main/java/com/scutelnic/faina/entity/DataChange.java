@@ -0,0 +1,40 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * O modificare a datelor servite din memorie, anunțată tuturor nodurilor (vezi DataVersions).
+ * Entitatea există pentru schemă; citirile și scrierile se fac cu JdbcTemplate în DataChangeLog.
+ * Id-ul este și versiunea datelor afectate, comună tuturor nodurilor.
+ */
+@Entity
+@Table(name = "data_changes", indexes = {
+    @Index(name = "idx_data_changes_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // RIDES, EXPIRY, RATINGS, PROFILE, RATER (vezi DataVersions.Kind)
+    @Column(nullable = false, length = 16)
+    private String kind;
+    
+    // Șoferul, utilizatorul evaluat, cel al profilului sau evaluatorul; null pentru expirări
+    private Long userId;
+    
+    // Nodul care a făcut modificarea; nu își reaplică propriile modificări
+    @Column(nullable = false)
+    private Long nodeId;
+    
+    // Milisecunde epoch
+    @Column(nullable = false)
+    private Long createdAt;
+}
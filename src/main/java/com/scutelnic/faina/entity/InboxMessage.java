@@ -0,0 +1,55 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Mesaj din inbox-ul utilizatorului (de exemplu, o cursă nouă care se potrivește cu o căutare salvată).
+ * rideId și savedSearchId nu sunt chei străine: mesajul rămâne și după ștergerea cursei.
+ */
+@Entity
+@Table(name = "inbox_messages", indexes = {
+    @Index(name = "idx_inbox_messages_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_inbox_messages_user_read", columnList = "user_id, is_read")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxMessage {
+    
+    // Id-uri din secvență, ca mesajele livrate în lot să fie inserate cu JDBC batching
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inbox_messages_seq")
+    @SequenceGenerator(name = "inbox_messages_seq", sequenceName = "inbox_messages_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false, length = 500)
+    private String message;
+    
+    @Column
+    private Long rideId;
+    
+    @Column
+    private Long savedSearchId;
+    
+    @Column(nullable = false)
+    private Boolean isRead;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (isRead == null) {
+            isRead = false;
+        }
+    }
+}
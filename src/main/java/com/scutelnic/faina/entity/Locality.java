@@ -0,0 +1,43 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(name = "localities")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Locality {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name; // Numele afișat, așa cum a fost introdus prima dată
+    
+    @Column(nullable = false, unique = true)
+    private String normalizedName; // Fără diacritice, litere mici (vezi LocationNormalizer)
+    
+    // Cuvintele din numele normalizat, pentru căutarea după prefix ("voda" -> "Ștefan Vodă")
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "locality_tokens",
+                     joinColumns = @JoinColumn(name = "locality_id"),
+                     indexes = @Index(name = "idx_locality_tokens_token", columnList = "token"))
+    @Column(name = "token", nullable = false, length = 100)
+    private Set<String> tokens = new HashSet<>();
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -9,7 +9,12 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ratings")
+@Table(name = "ratings", indexes = {
+    @Index(name = "idx_ratings_rated_created", columnList = "rated_user_id, created_at, id")
+}, uniqueConstraints = {
+    // Un singur rating de la același utilizator, deci o singură diferență aplicată statisticilor
+    @UniqueConstraint(name = "uk_ratings_rater_rated", columnNames = {"rater_id", "rated_user_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,12 +24,12 @@ public class Rating {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "rater_id", nullable = false)
     @JsonIgnore
     private User rater; // User who gives the rating
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "rated_user_id", nullable = false)
     @JsonIgnore
     private User ratedUser; // User who receives the rating
@@ -8,14 +8,25 @@ import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "rides")
+@Table(name = "rides", indexes = {
+    @Index(name = "idx_rides_active_created", columnList = "is_active, created_at, id"),
+    @Index(name = "idx_rides_active_travel_date", columnList = "is_active, travel_date"),
+    @Index(name = "idx_rides_route_travel_date", columnList = "from_locality_id, to_locality_id, travel_date")
+}, uniqueConstraints = {
+    // O singură cursă concretă pentru fiecare zi a unui șablon recurent
+    @UniqueConstraint(name = "uk_rides_template_travel_date", columnNames = {"template_id", "travel_date"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Ride {
     
+    // Secvență cu alocare pe blocuri: Hibernate poate grupa INSERT-urile (IDENTITY dezactivează batching-ul)
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rides_seq")
+    @SequenceGenerator(name = "rides_seq", sequenceName = "rides_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false)
@@ -24,6 +35,15 @@ public class Ride {
     @Column(nullable = false)
     private String toLocation;
     
+    // Referințe către dicționarul normalizat de localități, folosite la căutare
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_locality_id")
+    private Locality fromLocality;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "to_locality_id")
+    private Locality toLocality;
+    
     @Column(nullable = false)
     private LocalDateTime departureTime;
     
@@ -43,6 +63,11 @@ public class Ride {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
+    // Șablonul recurent din care provine cursa; setat doar pentru ocurențele materializate
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "template_id")
+    private RideTemplate template;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
@@ -0,0 +1,88 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Cursă recurentă: aceeași rută și oră, în anumite zile ale săptămânii, între startDate și endDate.
+ * Ocurențele nu sunt salvate în tabela rides decât când se schimbă ceva la ele (rezervare, anulare).
+ */
+@Entity
+@Table(name = "ride_templates", indexes = {
+    @Index(name = "idx_ride_templates_active_end", columnList = "is_active, end_date"),
+    @Index(name = "idx_ride_templates_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideTemplate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String fromLocation;
+    
+    @Column(nullable = false)
+    private String toLocation;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_locality_id")
+    private Locality fromLocality;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "to_locality_id")
+    private Locality toLocality;
+    
+    @Column(nullable = false)
+    private LocalTime departureTime;
+    
+    // Zilele în care circulă: bitul 0 = luni, ..., bitul 6 = duminică
+    @Column(nullable = false)
+    private Integer weekdayMask;
+    
+    @Column(nullable = false)
+    private LocalDate startDate;
+    
+    // null = fără dată de sfârșit
+    @Column
+    private LocalDate endDate;
+    
+    @Column(nullable = false)
+    private Integer availableSeats;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+    
+    @Column(length = 1000)
+    private String description;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private Boolean isActive;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        isActive = true;
+    }
+    
+    public boolean runsOn(LocalDate date) {
+        return !date.isBefore(startDate)
+                && (endDate == null || !date.isAfter(endDate))
+                && (weekdayMask & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Căutare salvată de un pasager: este anunțat în inbox când apare o cursă nouă pe ruta,
+ * în ziua (sau în orice zi, dacă travelDate este null) și cu locurile cerute.
+ */
+@Entity
+@Table(name = "saved_searches", indexes = {
+    @Index(name = "idx_saved_searches_active_date", columnList = "is_active, travel_date"),
+    @Index(name = "idx_saved_searches_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private String fromLocation;
+    
+    @Column(nullable = false)
+    private String toLocation;
+    
+    // null = orice zi
+    @Column
+    private LocalDate travelDate;
+    
+    @Column(nullable = false)
+    private Integer minSeats;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private Boolean isActive;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        isActive = true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.scutelnic.faina.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Sesiunea HTTP, așa cum este păstrată în baza de date (nivelul durabil al TieredSessionRepository).
+ * Entitatea există pentru schemă (tabela și indexul sunt create de Hibernate); citirile și scrierile
+ * se fac cu JdbcTemplate în SessionJdbcTier. Momentele sunt milisecunde epoch.
+ */
+@Entity
+@Table(name = "app_sessions", indexes = {
+    @Index(name = "idx_app_sessions_expiry", columnList = "expiry_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredSession {
+    
+    @Id
+    @Column(name = "session_id", length = 64)
+    private String sessionId;
+    
+    @Column(nullable = false)
+    private Long creationTime;
+    
+    @Column(nullable = false)
+    private Long lastAccessTime;
+    
+    @Column(nullable = false)
+    private Long maxInactiveSeconds; // BIGINT, ca expiry_time să fie calculat în SQL fără depășire
+    
+    @Column(nullable = false)
+    private Long expiryTime;
+    
+    // Atributele sesiunii serializate (în mod normal doar SessionUser)
+    @Lob
+    @Column(length = 65535)
+    private byte[] attributes;
+}
@@ -1,5 +1,6 @@
 package com.scutelnic.faina.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,7 +8,10 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Lista de administrare: cei mai noi primii, cu cursor (createdAt, id)
+    @Index(name = "idx_users_created", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +24,8 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
     
+    // Se poate primi la creare, dar nu apare niciodată în răspunsurile JSON
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
     
@@ -41,12 +47,33 @@ public class User {
     @Column(nullable = false)
     private Boolean isActive;
     
-    @Column
+    // Statisticile de rating se modifică doar prin UPDATE-uri atomice (UserRepository.applyRatingDelta),
+    // niciodată la salvarea entității, ca o copie veche a utilizatorului să nu le suprascrie
+    @Column(updatable = false)
     private Double averageRating;
     
-    @Column
+    @Column(updatable = false)
     private Long totalRatings;
     
+    @Column(updatable = false)
+    private Long ratingSum;
+    
+    // Histograma rating-urilor primite: câte rating-uri de 1, 2, ..., 5 stele
+    @Column(updatable = false)
+    private Long stars1;
+    
+    @Column(updatable = false)
+    private Long stars2;
+    
+    @Column(updatable = false)
+    private Long stars3;
+    
+    @Column(updatable = false)
+    private Long stars4;
+    
+    @Column(updatable = false)
+    private Long stars5;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,52 @@
+package com.scutelnic.faina.repository;
+
+import com.scutelnic.faina.dto.BookingDTO;
+import com.scutelnic.faina.entity.Booking;
+import com.scutelnic.faina.entity.BookingStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingRepository extends JpaRepository<Booking, Long> {
+    
+    @Query("SELECT new com.scutelnic.faina.dto.BookingDTO(b.id, b.ride.id, b.passenger.id, b.seats, b.status, b.holdExpiresAt, b.createdAt) " +
+           "FROM Booking b WHERE b.id = :id")
+    Optional<BookingDTO> findDTOById(@Param("id") Long id);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.BookingDTO(b.id, b.ride.id, b.passenger.id, b.seats, b.status, b.holdExpiresAt, b.createdAt) " +
+           "FROM Booking b WHERE b.passenger.id = :passengerId ORDER BY b.createdAt DESC")
+    List<BookingDTO> findByPassengerId(@Param("passengerId") Long passengerId);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.BookingDTO(b.id, b.ride.id, b.passenger.id, b.seats, b.status, b.holdExpiresAt, b.createdAt) " +
+           "FROM Booking b WHERE b.status = com.scutelnic.faina.entity.BookingStatus.HELD AND b.holdExpiresAt < :now " +
+           "AND b.id > :afterId ORDER BY b.id")
+    List<BookingDTO> findExpiredHolds(@Param("now") LocalDateTime now, @Param("afterId") Long afterId, Pageable pageable);
+    
+    // Tranziție condiționată de stare: întoarce 1 doar pentru cererea care a schimbat efectiv starea
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to WHERE b.id = :id AND b.status IN :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") Collection<BookingStatus> from,
+                   @Param("to") BookingStatus to);
+    
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.scutelnic.faina.entity.BookingStatus.CONFIRMED " +
+           "WHERE b.id = :id AND b.status = com.scutelnic.faina.entity.BookingStatus.HELD AND b.holdExpiresAt >= :now")
+    int confirmHeld(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.BookingDTO(b.id, b.ride.id, b.passenger.id, b.seats, b.status, b.holdExpiresAt, b.createdAt) " +
+           "FROM Booking b WHERE b.ride.id = :rideId AND b.status IN :statuses ORDER BY b.id")
+    List<BookingDTO> findByRideIdAndStatusIn(@Param("rideId") Long rideId,
+                                             @Param("statuses") Collection<BookingStatus> statuses);
+    
+    boolean existsByRideId(Long rideId);
+}
@@ -0,0 +1,34 @@
+package com.scutelnic.faina.repository;
+
+import com.scutelnic.faina.dto.InboxMessageDTO;
+import com.scutelnic.faina.entity.InboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface InboxMessageRepository extends JpaRepository<InboxMessage, Long> {
+    
+    @Query("SELECT new com.scutelnic.faina.dto.InboxMessageDTO(m.id, m.message, m.rideId, m.savedSearchId, " +
+           "m.isRead, m.createdAt) FROM InboxMessage m WHERE m.user.id = :userId ORDER BY m.createdAt DESC, m.id DESC")
+    List<InboxMessageDTO> findLatestByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT COUNT(m) FROM InboxMessage m WHERE m.user.id = :userId AND m.isRead = false")
+    long countUnread(@Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE InboxMessage m SET m.isRead = true WHERE m.id = :id AND m.user.id = :userId")
+    int markRead(@Param("id") Long id, @Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE InboxMessage m SET m.isRead = true WHERE m.user.id = :userId AND m.isRead = false")
+    int markAllRead(@Param("userId") Long userId);
+}
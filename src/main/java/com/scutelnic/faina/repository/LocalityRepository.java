@@ -0,0 +1,21 @@
+package com.scutelnic.faina.repository;
+
+import com.scutelnic.faina.entity.Locality;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LocalityRepository extends JpaRepository<Locality, Long> {
+    
+    Optional<Locality> findByNormalizedName(String normalizedName);
+    
+    // Potrivire după prefix pe numele complet sau pe oricare cuvânt (LIKE 'x%' poate folosi indexul)
+    @Query("SELECT DISTINCT l.id FROM Locality l LEFT JOIN l.tokens t " +
+           "WHERE l.normalizedName LIKE :prefix OR t LIKE :prefix")
+    List<Long> findIdsByPrefix(@Param("prefix") String prefix);
+}
@@ -1,25 +1,43 @@
 package com.scutelnic.faina.repository;
 
+import com.scutelnic.faina.dto.RatingAggregate;
+import com.scutelnic.faina.dto.RatingDTO;
+import com.scutelnic.faina.dto.RatingSummary;
 import com.scutelnic.faina.entity.Rating;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RatingRepository extends JpaRepository<Rating, Long> {
     
-    // Find all ratings for a specific user
-    @Query("SELECT r FROM Rating r WHERE r.ratedUser.id = :ratedUserId ORDER BY r.createdAt DESC")
-    List<Rating> findByRatedUserIdOrderByCreatedAtDesc(@Param("ratedUserId") Long ratedUserId);
+    // Paginare keyset pe (createdAt, id): doar coloanele afișate, fără entitățile User
+    @Query("SELECT new com.scutelnic.faina.dto.RatingDTO(r.id, r.rating, r.comment, r.createdAt, u.id, " +
+           "CONCAT(u.firstName, ' ', u.lastName), u.profileImage) FROM Rating r JOIN r.rater u " +
+           "WHERE r.ratedUser.id = :ratedUserId " +
+           "AND (r.createdAt < :cursorCreatedAt OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RatingDTO> findPageByRatedUserId(@Param("ratedUserId") Long ratedUserId,
+                                          @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
     
     // Find rating given by a specific user to another specific user
     @Query("SELECT r FROM Rating r WHERE r.rater.id = :raterId AND r.ratedUser.id = :ratedUserId")
     Optional<Rating> findByRaterIdAndRatedUserId(@Param("raterId") Long raterId, @Param("ratedUserId") Long ratedUserId);
     
+    // Utilizatorii cărora evaluatorul le-a dat rating (pentru RatedUsersCache)
+    @Query("SELECT r.ratedUser.id FROM Rating r WHERE r.rater.id = :raterId")
+    List<Long> findRatedUserIdsByRaterId(@Param("raterId") Long raterId);
+    
     // Check if a user has already rated another user
     @Query("SELECT COUNT(r) > 0 FROM Rating r WHERE r.rater.id = :raterId AND r.ratedUser.id = :ratedUserId")
     boolean existsByRaterIdAndRatedUserId(@Param("raterId") Long raterId, @Param("ratedUserId") Long ratedUserId);
@@ -31,4 +49,48 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     // Get total number of ratings for a user
     @Query("SELECT COUNT(r) FROM Rating r WHERE r.ratedUser.id = :userId")
     Long getTotalRatingsByUserId(@Param("userId") Long userId);
+    
+    // Get the sum of all ratings received by a user
+    @Query("SELECT COALESCE(SUM(r.rating), 0L) FROM Rating r WHERE r.ratedUser.id = :userId")
+    Long getRatingSumByUserId(@Param("userId") Long userId);
+    
+    // Citire blocantă: vede ultima valoare salvată (și sub REPEATABLE READ) și ține rândul până la commit
+    @Query(value = "SELECT rating FROM ratings WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockRatingValue(@Param("id") Long id);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Rating r SET r.rating = :newRating, r.comment = :comment WHERE r.id = :id")
+    int updateRatingValue(@Param("id") Long id, @Param("newRating") Integer newRating, @Param("comment") String comment);
+    
+    @Modifying
+    @Query("DELETE FROM Rating r WHERE r.id = :id")
+    int deleteRatingById(@Param("id") Long id);
+    
+    // Statisticile salvate și cele reale, pentru reconciliere; ultimul câmp spune dacă histograma salvată este corectă
+    @Query("SELECT new com.scutelnic.faina.dto.RatingAggregate(u.id, u.ratingSum, u.totalRatings, " +
+           "COALESCE(SUM(r.rating), 0L), COUNT(r.id), CASE WHEN " +
+           "COALESCE(u.stars1, 0) = SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END) AND " +
+           "COALESCE(u.stars2, 0) = SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END) AND " +
+           "COALESCE(u.stars3, 0) = SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END) AND " +
+           "COALESCE(u.stars4, 0) = SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END) AND " +
+           "COALESCE(u.stars5, 0) = SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END) " +
+           "THEN true ELSE false END) " +
+           "FROM User u LEFT JOIN Rating r ON r.ratedUser.id = u.id " +
+           "WHERE u.id IN :userIds GROUP BY u.id, u.ratingSum, u.totalRatings, u.stars1, u.stars2, u.stars3, u.stars4, u.stars5")
+    List<RatingAggregate> findRatingAggregates(@Param("userIds") Collection<Long> userIds);
+    
+    // Rezumatul calculat din tabela ratings (numărul și histograma), pentru reconcilierea unui utilizator
+    @Query("SELECT new com.scutelnic.faina.dto.RatingSummary(u.id, COALESCE(SUM(r.rating), 0L), COUNT(r.id), " +
+           "SUM(CASE WHEN r.rating = 1 THEN 1L ELSE 0L END), SUM(CASE WHEN r.rating = 2 THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN r.rating = 3 THEN 1L ELSE 0L END), SUM(CASE WHEN r.rating = 4 THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN r.rating = 5 THEN 1L ELSE 0L END)) " +
+           "FROM User u LEFT JOIN Rating r ON r.ratedUser.id = u.id WHERE u.id = :userId GROUP BY u.id")
+    Optional<RatingSummary> computeRatingSummary(@Param("userId") Long userId);
+    
+    // Ultimele comentarii primite (folosește indexul pe rated_user_id, created_at, id)
+    @Query("SELECT new com.scutelnic.faina.dto.RatingDTO(r.id, r.rating, r.comment, r.createdAt, u.id, " +
+           "CONCAT(u.firstName, ' ', u.lastName), u.profileImage) FROM Rating r JOIN r.rater u " +
+           "WHERE r.ratedUser.id = :ratedUserId AND r.comment IS NOT NULL AND r.comment <> '' " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RatingDTO> findRecentComments(@Param("ratedUserId") Long ratedUserId, Pageable pageable);
 }
@@ -1,42 +1,165 @@
 package com.scutelnic.faina.repository;
 
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.dto.RideRef;
+import com.scutelnic.faina.dto.TemplateOccurrenceRef;
 import com.scutelnic.faina.entity.Ride;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
     
+    int EXPORT_FETCH_SIZE = 500;
+    
+    // Proiecție directă în RideDTO pentru citiri: doar coloanele afișate, fără entități Ride/User
+    // în contextul de persistență și fără conversie ulterioară
+    String RIDE_DTO_SELECT = "SELECT new com.scutelnic.faina.dto.RideDTO(r.id, r.fromLocation, r.toLocation, " +
+           "r.departureTime, r.travelDate, r.availableSeats, r.price, r.description, u.id, " +
+           "CONCAT(u.firstName, ' ', u.lastName), u.phone, u.email, u.profileImage, r.createdAt, r.isActive, " +
+           "r.template.id) FROM Ride r JOIN r.user u ";
+    
+    // Entități complete, folosite doar la reîncărcarea cache-urilor din memorie
     @Query("SELECT r FROM Ride r LEFT JOIN FETCH r.user WHERE r.isActive = true ORDER BY r.createdAt DESC")
     List<Ride> findAllActiveRides();
     
-    @Query("SELECT r FROM Ride r JOIN FETCH r.user WHERE r.isActive = true AND r.fromLocation LIKE %:fromLocation% AND r.toLocation LIKE %:toLocation% AND r.travelDate >= :travelDate ORDER BY r.createdAt DESC")
-    List<Ride> searchRides(@Param("fromLocation") String fromLocation, 
-                           @Param("toLocation") String toLocation, 
-                           @Param("travelDate") LocalDateTime travelDate);
+    // Cursele active ale unui șofer, cu localitățile, la resincronizarea catalogului
+    @Query("SELECT r FROM Ride r JOIN FETCH r.user LEFT JOIN FETCH r.fromLocality LEFT JOIN FETCH r.toLocality " +
+           "WHERE r.user.id = :userId AND r.isActive = true")
+    List<Ride> findActiveRidesWithDetailsByUserId(@Param("userId") Long userId);
+    
+    @Query(RIDE_DTO_SELECT + "WHERE r.isActive = true ORDER BY r.createdAt DESC, r.id DESC")
+    List<RideDTO> findAllActiveRideDTOs();
+    
+    @Query(RIDE_DTO_SELECT + "WHERE r.id = :id")
+    Optional<RideDTO> findDTOById(@Param("id") Long id);
+    
+    // Căutare după cheile din dicționarul de localități; anyFrom/anyTo dezactivează filtrul respectiv
+    @Query(RIDE_DTO_SELECT + "WHERE r.isActive = true " +
+           "AND (:anyFrom = true OR r.fromLocality.id IN :fromLocalityIds) " +
+           "AND (:anyTo = true OR r.toLocality.id IN :toLocalityIds) " +
+           "AND r.travelDate >= :travelDate ORDER BY r.createdAt DESC")
+    List<RideDTO> searchRides(@Param("anyFrom") boolean anyFrom,
+                              @Param("fromLocalityIds") Collection<Long> fromLocalityIds,
+                              @Param("anyTo") boolean anyTo,
+                              @Param("toLocalityIds") Collection<Long> toLocalityIds,
+                              @Param("travelDate") LocalDateTime travelDate);
+    
+    // Export: rândurile sunt citite cu un cursor, câte EXPORT_FETCH_SIZE odată; active = null înseamnă toate cursele
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RIDE_DTO_SELECT + "WHERE (:active IS NULL OR r.isActive = :active) ORDER BY r.id")
+    Stream<RideDTO> streamRidesForExport(@Param("active") Boolean active);
+    
+    @Query("SELECT r.id FROM Ride r WHERE r.template.id = :templateId AND r.travelDate = :travelDate")
+    Optional<Long> findIdByTemplateAndTravelDate(@Param("templateId") Long templateId,
+                                                 @Param("travelDate") LocalDateTime travelDate);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.TemplateOccurrenceRef(r.template.id, r.travelDate) " +
+           "FROM Ride r WHERE r.template IS NOT NULL AND r.travelDate >= :from")
+    List<TemplateOccurrenceRef> findMaterializedOccurrences(@Param("from") LocalDateTime from);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.TemplateOccurrenceRef(r.template.id, r.travelDate) " +
+           "FROM Ride r WHERE r.template IS NOT NULL AND r.user.id = :userId AND r.travelDate >= :from")
+    List<TemplateOccurrenceRef> findMaterializedOccurrencesByUserId(@Param("userId") Long userId,
+                                                                   @Param("from") LocalDateTime from);
+    
+    @Query("SELECT r FROM Ride r WHERE (r.fromLocality IS NULL OR r.toLocality IS NULL) AND r.id > :afterId ORDER BY r.id")
+    List<Ride> findRidesWithoutLocality(@Param("afterId") Long afterId, Pageable pageable);
     
     @Query("SELECT r FROM Ride r JOIN FETCH r.user WHERE r.isActive = true AND r.availableSeats >= :minSeats ORDER BY r.createdAt DESC")
     List<Ride> findRidesByAvailableSeats(@Param("minSeats") Integer minSeats);
     
-    @Query("SELECT DISTINCT r.fromLocation FROM Ride r WHERE r.isActive = true ORDER BY r.fromLocation")
-    List<String> findAllFromLocations();
+    @Query(RIDE_DTO_SELECT + "WHERE r.user.id = :userId ORDER BY r.createdAt DESC")
+    List<RideDTO> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+    
+    // Cele mai noi curse active, limitate prin Pageable (LIMIT în SQL)
+    @Query(RIDE_DTO_SELECT + "WHERE r.isActive = true ORDER BY r.createdAt DESC, r.id DESC")
+    List<RideDTO> findRecentActiveRides(Pageable pageable);
+    
+    // Paginare keyset pe (createdAt, id): pagina următoare, în ordine descrescătoare.
+    // Localitățile sunt filtrate după id-urile din dicționar, ca în searchRides
+    @Query(RIDE_DTO_SELECT + "WHERE r.isActive = true " +
+           "AND (:anyFrom = true OR r.fromLocality.id IN :fromLocalityIds) " +
+           "AND (:anyTo = true OR r.toLocality.id IN :toLocalityIds) " +
+           "AND r.travelDate >= :dateFrom AND r.travelDate < :dateTo " +
+           "AND (r.createdAt < :cursorCreatedAt OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RideDTO> findActiveRidesBefore(@Param("anyFrom") boolean anyFrom,
+                                        @Param("fromLocalityIds") Collection<Long> fromLocalityIds,
+                                        @Param("anyTo") boolean anyTo,
+                                        @Param("toLocalityIds") Collection<Long> toLocalityIds,
+                                        @Param("dateFrom") LocalDateTime dateFrom,
+                                        @Param("dateTo") LocalDateTime dateTo,
+                                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                        @Param("cursorId") Long cursorId,
+                                        Pageable pageable);
+    
+    // Paginare keyset pe (createdAt, id): pagina anterioară, în ordine crescătoare
+    @Query(RIDE_DTO_SELECT + "WHERE r.isActive = true " +
+           "AND (:anyFrom = true OR r.fromLocality.id IN :fromLocalityIds) " +
+           "AND (:anyTo = true OR r.toLocality.id IN :toLocalityIds) " +
+           "AND r.travelDate >= :dateFrom AND r.travelDate < :dateTo " +
+           "AND (r.createdAt > :cursorCreatedAt OR (r.createdAt = :cursorCreatedAt AND r.id > :cursorId)) " +
+           "ORDER BY r.createdAt ASC, r.id ASC")
+    List<RideDTO> findActiveRidesAfter(@Param("anyFrom") boolean anyFrom,
+                                       @Param("fromLocalityIds") Collection<Long> fromLocalityIds,
+                                       @Param("anyTo") boolean anyTo,
+                                       @Param("toLocalityIds") Collection<Long> toLocalityIds,
+                                       @Param("dateFrom") LocalDateTime dateFrom,
+                                       @Param("dateTo") LocalDateTime dateTo,
+                                       @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
+    
+    @Query("SELECT COUNT(r) FROM Ride r WHERE r.isActive = true " +
+           "AND (:anyFrom = true OR r.fromLocality.id IN :fromLocalityIds) " +
+           "AND (:anyTo = true OR r.toLocality.id IN :toLocalityIds) " +
+           "AND r.travelDate >= :dateFrom AND r.travelDate < :dateTo")
+    long countActiveRides(@Param("anyFrom") boolean anyFrom,
+                          @Param("fromLocalityIds") Collection<Long> fromLocalityIds,
+                          @Param("anyTo") boolean anyTo,
+                          @Param("toLocalityIds") Collection<Long> toLocalityIds,
+                          @Param("dateFrom") LocalDateTime dateFrom,
+                          @Param("dateTo") LocalDateTime dateTo);
     
-    @Query("SELECT DISTINCT r.toLocation FROM Ride r WHERE r.isActive = true ORDER BY r.toLocation")
-    List<String> findAllToLocations();
+    // Cursele active expirate, parcurse în ordinea id-ului, câte un lot pe rând
+    @Query("SELECT new com.scutelnic.faina.dto.RideRef(r.id, r.fromLocation, r.toLocation) FROM Ride r " +
+           "WHERE r.isActive = true AND r.travelDate < :cutoff AND r.id > :afterId ORDER BY r.id")
+    List<RideRef> findExpiredRides(@Param("cutoff") LocalDateTime cutoff,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
     
-    @Query("SELECT r FROM Ride r JOIN FETCH r.user WHERE r.user = :user ORDER BY r.createdAt DESC")
-    List<Ride> findByUserOrderByCreatedAtDesc(@Param("user") com.scutelnic.faina.entity.User user);
+    @Query("SELECT r.user.id FROM Ride r WHERE r.id = :rideId")
+    Optional<Long> findDriverIdById(@Param("rideId") Long rideId);
     
-    @Query("SELECT r FROM Ride r JOIN FETCH r.user WHERE r.user.id = :userId ORDER BY r.createdAt DESC")
-    List<Ride> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
+    // Rezervare atomică: scade locurile doar dacă mai sunt suficiente, fără citire prealabilă
+    @Modifying
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats - :seats " +
+           "WHERE r.id = :rideId AND r.isActive = true AND r.departureTime >= :now AND r.availableSeats >= :seats")
+    int reserveSeats(@Param("rideId") Long rideId, @Param("seats") int seats, @Param("now") LocalDateTime now);
     
-    @Query("SELECT r FROM Ride r JOIN FETCH r.user WHERE r.isActive = true ORDER BY r.createdAt DESC")
-    List<Ride> findTop5RecentRides();
+    @Modifying
+    @Query("UPDATE Ride r SET r.availableSeats = r.availableSeats + :seats WHERE r.id = :rideId")
+    int releaseSeats(@Param("rideId") Long rideId, @Param("seats") int seats);
     
-    @Query("SELECT r FROM Ride r WHERE r.isActive = true AND r.travelDate < :currentDateTime")
-    List<Ride> findExpiredRides(@Param("currentDateTime") LocalDateTime currentDateTime);
+    @Modifying
+    @Transactional
+    @Query("UPDATE Ride r SET r.isActive = false WHERE r.id IN :ids AND r.isActive = true")
+    int deactivateRides(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package com.scutelnic.faina.repository;
+
+import com.scutelnic.faina.entity.RideTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RideTemplateRepository extends JpaRepository<RideTemplate, Long> {
+    
+    @Query("SELECT t FROM RideTemplate t JOIN FETCH t.user LEFT JOIN FETCH t.fromLocality LEFT JOIN FETCH t.toLocality " +
+           "WHERE t.isActive = true AND (t.endDate IS NULL OR t.endDate >= :today)")
+    List<RideTemplate> findActiveTemplates(@Param("today") LocalDate today);
+    
+    @Query("SELECT t FROM RideTemplate t JOIN FETCH t.user LEFT JOIN FETCH t.fromLocality LEFT JOIN FETCH t.toLocality " +
+           "WHERE t.user.id = :userId AND t.isActive = true AND (t.endDate IS NULL OR t.endDate >= :today)")
+    List<RideTemplate> findActiveTemplatesByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+    
+    @Query("SELECT t FROM RideTemplate t JOIN FETCH t.user LEFT JOIN FETCH t.fromLocality LEFT JOIN FETCH t.toLocality " +
+           "WHERE t.id = :id")
+    Optional<RideTemplate> findWithDetailsById(@Param("id") Long id);
+    
+    @Query("SELECT t FROM RideTemplate t WHERE t.user.id = :userId ORDER BY t.createdAt DESC")
+    List<RideTemplate> findByUserId(@Param("userId") Long userId);
+}
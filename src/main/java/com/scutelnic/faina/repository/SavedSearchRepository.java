@@ -0,0 +1,32 @@
+package com.scutelnic.faina.repository;
+
+import com.scutelnic.faina.dto.SavedSearchDTO;
+import com.scutelnic.faina.entity.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+    
+    @Query("SELECT s FROM SavedSearch s JOIN FETCH s.user " +
+           "WHERE s.isActive = true AND (s.travelDate IS NULL OR s.travelDate >= :today)")
+    List<SavedSearch> findActiveSearches(@Param("today") LocalDate today);
+    
+    @Query("SELECT s FROM SavedSearch s JOIN FETCH s.user " +
+           "WHERE s.user.id = :userId AND s.isActive = true AND (s.travelDate IS NULL OR s.travelDate >= :today)")
+    List<SavedSearch> findActiveSearchesByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.SavedSearchDTO(s.id, s.fromLocation, s.toLocation, s.travelDate, " +
+           "s.minSeats, s.createdAt) FROM SavedSearch s " +
+           "WHERE s.user.id = :userId AND s.isActive = true ORDER BY s.createdAt DESC")
+    List<SavedSearchDTO> findByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(s) FROM SavedSearch s WHERE s.user.id = :userId AND s.isActive = true " +
+           "AND (s.travelDate IS NULL OR s.travelDate >= :today)")
+    long countActiveByUserId(@Param("userId") Long userId, @Param("today") LocalDate today);
+}
@@ -1,16 +1,134 @@
 package com.scutelnic.faina.repository;
 
+import com.scutelnic.faina.dto.AdminUserDTO;
+import com.scutelnic.faina.dto.RatingStats;
+import com.scutelnic.faina.dto.PublicProfile;
+import com.scutelnic.faina.dto.RatingSummary;
 import com.scutelnic.faina.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    int EXPORT_FETCH_SIZE = 500;
+    
+    String ADMIN_USER_SELECT = "SELECT new com.scutelnic.faina.dto.AdminUserDTO(u.id, u.email, u.firstName, " +
+           "u.lastName, u.phone, u.profileImage, u.createdAt, u.isActive, u.averageRating, u.totalRatings) FROM User u ";
+    
+    // Filtrele listei de administrare; emailPrefix este deja un model LIKE ("ion%"), cu % și _ escapate
+    String ADMIN_USER_FILTER = "WHERE (:active IS NULL OR u.isActive = :active) " +
+           "AND (:emailPrefix IS NULL OR u.email LIKE :emailPrefix ESCAPE '!') ";
+    
     Optional<User> findByEmail(String email);
     
     Optional<User> findByEmailAndIsActiveTrue(String email);
     
     boolean existsByEmail(String email);
+    
+    /**
+     * Aplică atomic diferența unui rating (suma, numărul și histograma) și recalculează media din ele.
+     * addedStars / removedStars sunt valoarea adăugată și cea scoasă (0 dacă lipsește).
+     * averageRating este primul în SET: MySQL evaluează atribuirile de la stânga la dreapta,
+     * cu valorile deja modificate, deci media trebuie calculată înainte de sumă și număr.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET " +
+           "u.averageRating = CASE WHEN COALESCE(u.totalRatings, 0) + :countDelta > 0 " +
+           "THEN ROUND((COALESCE(u.ratingSum, 0) + :sumDelta) * 1.0 / (COALESCE(u.totalRatings, 0) + :countDelta), 1) " +
+           "ELSE 0.0 END, " +
+           "u.ratingSum = COALESCE(u.ratingSum, 0) + :sumDelta, " +
+           "u.totalRatings = COALESCE(u.totalRatings, 0) + :countDelta, " +
+           "u.stars1 = COALESCE(u.stars1, 0) + CASE WHEN :addedStars = 1 THEN 1 ELSE 0 END - CASE WHEN :removedStars = 1 THEN 1 ELSE 0 END, " +
+           "u.stars2 = COALESCE(u.stars2, 0) + CASE WHEN :addedStars = 2 THEN 1 ELSE 0 END - CASE WHEN :removedStars = 2 THEN 1 ELSE 0 END, " +
+           "u.stars3 = COALESCE(u.stars3, 0) + CASE WHEN :addedStars = 3 THEN 1 ELSE 0 END - CASE WHEN :removedStars = 3 THEN 1 ELSE 0 END, " +
+           "u.stars4 = COALESCE(u.stars4, 0) + CASE WHEN :addedStars = 4 THEN 1 ELSE 0 END - CASE WHEN :removedStars = 4 THEN 1 ELSE 0 END, " +
+           "u.stars5 = COALESCE(u.stars5, 0) + CASE WHEN :addedStars = 5 THEN 1 ELSE 0 END - CASE WHEN :removedStars = 5 THEN 1 ELSE 0 END " +
+           "WHERE u.id = :userId")
+    int applyRatingDelta(@Param("userId") Long userId, @Param("sumDelta") long sumDelta, @Param("countDelta") long countDelta,
+                         @Param("addedStars") int addedStars, @Param("removedStars") int removedStars);
+    
+    /**
+     * Înlocuiește hash-ul parolei doar dacă parola nu a fost schimbată între timp.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :userId AND u.password = :oldPassword")
+    int replacePassword(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.averageRating = :average, u.ratingSum = :sum, u.totalRatings = :count WHERE u.id = :userId")
+    int setRatingStats(@Param("userId") Long userId, @Param("sum") long sum, @Param("count") long count,
+                       @Param("average") double average);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.stars1 = :stars1, u.stars2 = :stars2, u.stars3 = :stars3, u.stars4 = :stars4, " +
+           "u.stars5 = :stars5 WHERE u.id = :userId")
+    int setRatingHistogram(@Param("userId") Long userId, @Param("stars1") long stars1, @Param("stars2") long stars2,
+                           @Param("stars3") long stars3, @Param("stars4") long stars4, @Param("stars5") long stars5);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
+    
+    @Query("SELECT new com.scutelnic.faina.dto.RatingStats(u.ratingSum, u.totalRatings) FROM User u WHERE u.id = :id")
+    Optional<RatingStats> findRatingStats(@Param("id") Long id);
+    
+    // Statisticile salvate, fără comentarii; un singur SELECT pentru toți utilizatorii ceruți
+    @Query("SELECT new com.scutelnic.faina.dto.RatingSummary(u.id, u.ratingSum, u.totalRatings, " +
+           "u.stars1, u.stars2, u.stars3, u.stars4, u.stars5) FROM User u WHERE u.id IN :userIds")
+    List<RatingSummary> findRatingSummaries(@Param("userIds") Collection<Long> userIds);
+    
+    // Profilul public; numărul de curse vine dintr-o subinterogare, nu din încărcarea curselor
+    @Query("SELECT new com.scutelnic.faina.dto.PublicProfile(u.id, u.firstName, u.lastName, u.profileImage, " +
+           "u.createdAt, u.ratingSum, u.totalRatings, u.stars1, u.stars2, u.stars3, u.stars4, u.stars5, " +
+           "(SELECT COUNT(r) FROM Ride r WHERE r.user.id = u.id)) " +
+           "FROM User u WHERE u.id = :userId AND u.isActive = true")
+    Optional<PublicProfile> findPublicProfile(@Param("userId") Long userId);
+    
+    /**
+     * O pagină din lista de administrare, cei mai noi primii, după cursorul (createdAt, id).
+     */
+    @Query(ADMIN_USER_SELECT + ADMIN_USER_FILTER +
+           "AND (u.createdAt < :cursorCreatedAt OR (u.createdAt = :cursorCreatedAt AND u.id < :cursorId)) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<AdminUserDTO> findAdminPage(@Param("active") Boolean active,
+                                     @Param("emailPrefix") String emailPrefix,
+                                     @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable pageable);
+    
+    // Export: rândurile sunt citite cu un cursor, câte EXPORT_FETCH_SIZE odată
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(ADMIN_USER_SELECT + ADMIN_USER_FILTER + "ORDER BY u.createdAt DESC, u.id DESC")
+    Stream<AdminUserDTO> streamForExport(@Param("active") Boolean active, @Param("emailPrefix") String emailPrefix);
+    
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Utilizatori cu rating-uri dinaintea coloanelor rating_sum și stars1..stars5
+    @Query("SELECT u.id FROM User u WHERE (u.ratingSum IS NULL OR u.stars1 IS NULL) AND u.totalRatings > 0")
+    List<Long> findIdsMissingRatingStats();
 }
@@ -0,0 +1,56 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.BookingDTO;
+import com.scutelnic.faina.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Eliberează periodic locurile rezervate temporar și neconfirmate la timp.
+ */
+@Service
+public class BookingHoldExpiryJob {
+    
+    @Value("${bookings.hold-expiry-batch-size:200}")
+    private int batchSize;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    /**
+     * Expiră toate rezervările temporare depășite, pagină cu pagină (după id), până la o pagină goală.
+     */
+    @Scheduled(fixedDelayString = "${bookings.hold-expiry-interval-ms:60000}")
+    public void run() {
+        try {
+            int expired = 0;
+            LocalDateTime now = LocalDateTime.now();
+            long lastId = 0L;
+            List<BookingDTO> batch = bookingRepository.findExpiredHolds(now, lastId, PageRequest.of(0, batchSize));
+            while (!batch.isEmpty()) {
+                for (BookingDTO booking : batch) {
+                    if (bookingService.expireHold(booking)) {
+                        expired++;
+                    }
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+                batch = bookingRepository.findExpiredHolds(now, lastId, PageRequest.of(0, batchSize));
+            }
+            if (expired > 0) {
+                System.out.println("Rezervări temporare expirate: " + expired);
+            }
+        } catch (Exception e) {
+            System.err.println("Eroare la expirarea rezervărilor: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.BookingDTO;
+import com.scutelnic.faina.dto.RideEvent;
+import com.scutelnic.faina.entity.Booking;
+import com.scutelnic.faina.entity.BookingStatus;
+import com.scutelnic.faina.repository.BookingRepository;
+import com.scutelnic.faina.repository.RideRepository;
+import com.scutelnic.faina.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Rezervarea locurilor la o cursă: rezervare temporară, confirmare, anulare și expirare.
+ * Locurile se scad cu un UPDATE condiționat (availableSeats >= locuri cerute), deci nu se pot
+ * vinde mai multe locuri decât există, iar rândul cursei este blocat doar pe durata acelui UPDATE
+ * și a inserării rezervării.
+ */
+@Service
+public class BookingService {
+    
+    private static final int MAX_SEATS_PER_BOOKING = 8;
+    
+    @Value("${bookings.hold-minutes:15}")
+    private int holdMinutes;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private RideCatalog rideCatalog;
+    
+    @Autowired
+    private RecentRidesFeed recentRidesFeed;
+    
+    @Autowired
+    private DataVersions dataVersions;
+    
+    @Autowired
+    private RideLiveFeed rideLiveFeed;
+    
+    /**
+     * Rezervă temporar locuri la o cursă. Rezervarea trebuie confirmată înainte de holdExpiresAt.
+     */
+    @Transactional
+    public BookingDTO reserve(Long rideId, Long passengerId, int seats) {
+        if (seats < 1 || seats > MAX_SEATS_PER_BOOKING) {
+            throw new IllegalArgumentException("Numărul de locuri trebuie să fie între 1 și " + MAX_SEATS_PER_BOOKING);
+        }
+        
+        Long driverId = rideRepository.findDriverIdById(rideId)
+                .orElseThrow(() -> new RuntimeException("Cursa nu a fost găsită"));
+        if (driverId.equals(passengerId)) {
+            throw new RuntimeException("Nu puteți rezerva locuri la propria cursă");
+        }
+        
+        // Locurile se verifică doar în baza de date (UPDATE condiționat), nu în catalog: catalogul
+        // unui nod poate fi în urmă față de rezervările făcute pe alte noduri. O cursă plecată deja
+        // nu mai primește rezervări, chiar dacă expirarea (cu o zi întârziere) nu a dezactivat-o încă
+        if (rideRepository.reserveSeats(rideId, seats, LocalDateTime.now(ZoneId.of("Europe/Chisinau"))) == 0) {
+            throw new RuntimeException("Cursa a plecat deja sau nu mai sunt suficiente locuri disponibile");
+        }
+        
+        Booking booking = new Booking();
+        booking.setRide(rideRepository.getReferenceById(rideId));
+        booking.setPassenger(userRepository.getReferenceById(passengerId));
+        booking.setSeats(seats);
+        booking.setStatus(BookingStatus.HELD);
+        booking.setHoldExpiresAt(LocalDateTime.now().plusMinutes(holdMinutes));
+        Booking saved = bookingRepository.save(booking);
+        
+        afterCommit(() -> seatsChanged(rideId, -seats));
+        dataVersions.ridesChanged(driverId);
+        return new BookingDTO(saved.getId(), rideId, passengerId, seats, saved.getStatus(),
+                saved.getHoldExpiresAt(), saved.getCreatedAt());
+    }
+    
+    @Transactional
+    public BookingDTO confirm(Long bookingId, Long passengerId) {
+        BookingDTO booking = bookingRepository.findDTOById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Rezervarea nu a fost găsită"));
+        if (!booking.getPassengerId().equals(passengerId)) {
+            throw new RuntimeException("Nu aveți permisiunea de a confirma această rezervare");
+        }
+        if (bookingRepository.confirmHeld(bookingId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Rezervarea nu mai poate fi confirmată");
+        }
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return booking;
+    }
+    
+    /**
+     * Anulează o rezervare (de către pasager sau de către șoferul cursei) și eliberează locurile.
+     */
+    @Transactional
+    public BookingDTO cancel(Long bookingId, Long userId) {
+        BookingDTO booking = bookingRepository.findDTOById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Rezervarea nu a fost găsită"));
+        Long driverId = rideRepository.findDriverIdById(booking.getRideId()).orElse(null);
+        if (!booking.getPassengerId().equals(userId) && !userId.equals(driverId)) {
+            throw new RuntimeException("Nu aveți permisiunea de a anula această rezervare");
+        }
+        
+        int changed = bookingRepository.transition(bookingId,
+                EnumSet.of(BookingStatus.HELD, BookingStatus.CONFIRMED), BookingStatus.CANCELLED);
+        if (changed == 0) {
+            throw new RuntimeException("Rezervarea este deja anulată sau expirată");
+        }
+        release(booking, driverId);
+        booking.setStatus(BookingStatus.CANCELLED);
+        return booking;
+    }
+    
+    /**
+     * Marchează o rezervare temporară neconfirmată ca expirată și eliberează locurile.
+     * Apelată de BookingHoldExpiryJob, câte o tranzacție pentru fiecare rezervare.
+     */
+    @Transactional
+    public boolean expireHold(BookingDTO booking) {
+        int changed = bookingRepository.transition(booking.getId(),
+                EnumSet.of(BookingStatus.HELD), BookingStatus.EXPIRED);
+        if (changed == 0) {
+            return false; // confirmată sau anulată între timp
+        }
+        release(booking, rideRepository.findDriverIdById(booking.getRideId()).orElse(null));
+        return true;
+    }
+    
+    public List<BookingDTO> getBookingsForPassenger(Long passengerId) {
+        return bookingRepository.findByPassengerId(passengerId);
+    }
+    
+    private void release(BookingDTO booking, Long driverId) {
+        rideRepository.releaseSeats(booking.getRideId(), booking.getSeats());
+        afterCommit(() -> seatsChanged(booking.getRideId(), booking.getSeats()));
+        dataVersions.ridesChanged(driverId);
+    }
+    
+    private void seatsChanged(Long rideId, int delta) {
+        rideCatalog.adjustSeats(rideId, delta);
+        recentRidesFeed.adjustSeats(rideId, delta);
+        rideCatalog.find(rideId).map(RideEvent::seatsChanged).ifPresent(rideLiveFeed::publish);
+    }
+    
+    // Cache-urile din memorie se actualizează doar după ce modificarea a fost salvată
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.scutelnic.faina.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Jurnalul modificărilor comun tuturor nodurilor: tabela data_changes (vezi DataChange),
+ * accesată cu JdbcTemplate. Folosit doar de DataVersions.
+ */
+@Service
+public class DataChangeLog {
+    
+    public record Row(long id, String kind, Long userId, long nodeId, long createdAt) {}
+    
+    private static final String SELECT = "SELECT id, kind, user_id, node_id, created_at FROM data_changes ";
+    
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getLong("id"),
+            rs.getString("kind"),
+            (Long) rs.getObject("user_id", Long.class),
+            rs.getLong("node_id"),
+            rs.getLong("created_at"));
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Adaugă o modificare și întoarce id-ul ei (noua versiune).
+     */
+    public long insert(String kind, Long userId, long nodeId, long nowMillis) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO data_changes (kind, user_id, node_id, created_at) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, kind);
+            statement.setObject(2, userId);
+            statement.setLong(3, nodeId);
+            statement.setLong(4, nowMillis);
+            return statement;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+    
+    public long maxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM data_changes", Long.class);
+        return max != null ? max : 0L;
+    }
+    
+    public List<Row> readAfter(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT + "WHERE id > ? ORDER BY id LIMIT ?", ROW_MAPPER, afterId, limit);
+    }
+    
+    public List<Row> readIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.query(SELECT + "WHERE id IN (" + placeholders + ") ORDER BY id", ROW_MAPPER, ids.toArray());
+    }
+    
+    /**
+     * Șterge modificările mai vechi decât momentul dat, dar păstrează rândul cu id-ul cel mai mare:
+     * MAX(id) nu scade niciodată, deci un nod pornit mai târziu nu reia versiuni deja folosite.
+     */
+    public int deleteOlderThan(long createdBefore, long keepId) {
+        return jdbcTemplate.update("DELETE FROM data_changes WHERE created_at < ? AND id < ?", createdBefore, keepId);
+    }
+}
@@ -0,0 +1,306 @@
+package com.scutelnic.faina.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versiunile curselor și rating-urilor servite cu ETag, comune tuturor nodurilor.
+ * Fiecare modificare este scrisă în jurnalul data_changes (vezi DataChangeLog), în aceeași
+ * tranzacție cu datele; id-ul rândului devine versiunea listelor afectate. Fiecare nod citește
+ * periodic rândurile noi, anunță modificările celorlalte noduri (RemoteChanges), ca cache-urile
+ * din memorie să se actualizeze, și abia apoi își mută versiunile. Același ETag înseamnă deci
+ * aceleași date pe orice nod; controller-ele îl compară înainte de a rula interogarea.
+ */
+@Service
+public class DataVersions {
+    
+    public enum Kind { RIDES, EXPIRY, RATINGS, PROFILE, RATER, SEARCHES }
+    
+    /**
+     * O modificare din jurnal: șoferul (RIDES), utilizatorul evaluat (RATINGS), cel al profilului (PROFILE)
+     * evaluatorul care a adăugat ori a șters un rating (RATER) sau utilizatorul ale cărui căutări salvate s-au schimbat (SEARCHES).
+     */
+    public record Change(long id, Kind kind, Long userId) {}
+    
+    /**
+     * Modificările făcute de alte noduri, publicate după fiecare citire a jurnalului.
+     */
+    public record RemoteChanges(List<Change> changes) {}
+    
+    private static final int POLL_BATCH = 1000;
+    
+    // Id-uri lipsă (tranzacții încă deschise sau anulate) urmărite cel mult atât
+    private static final int MAX_GAPS = 10000;
+    
+    private final long nodeId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    
+    @Autowired
+    private DataChangeLog changeLog;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${changes.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+    
+    @Value("${changes.retention-ms:3600000}")
+    private long retentionMs;
+    
+    private final AtomicLong rides = new AtomicLong();
+    private final Map<Long, Long> ridesByDriver = new ConcurrentHashMap<>();
+    
+    // Expirarea dezactivează curse fără să știm șoferii; intră în ETag-ul fiecărui șofer
+    private final AtomicLong expiries = new AtomicLong();
+    
+    private final Map<Long, Long> ratingsByUser = new ConcurrentHashMap<>();
+    
+    // Numele utilizatorilor apar în listele de rating-uri ale altora (raterName)
+    private final AtomicLong profiles = new AtomicLong();
+    
+    // Ultimul id din jurnal la pornire: versiunea minimă a oricărei liste (-1 = necitit)
+    private volatile long baseline = -1;
+    
+    // Modificări care nu au putut fi scrise în jurnal: ETag-urile acestui nod devin unice
+    private final AtomicLong unlogged = new AtomicLong();
+    
+    // Starea citirii jurnalului, folosită doar sub monitorul obiectului
+    private long lastSeen;
+    private final Map<Long, Long> gaps = new HashMap<>();
+    
+    public void ridesChanged(Long driverId) {
+        record(Kind.RIDES, driverId);
+    }
+    
+    public void ridesExpired() {
+        record(Kind.EXPIRY, null);
+    }
+    
+    public void ratingsChanged(Long ratedUserId) {
+        record(Kind.RATINGS, ratedUserId);
+    }
+    
+    public void profileChanged(Long userId) {
+        record(Kind.PROFILE, userId);
+    }
+    
+    /**
+     * Mulțimea utilizatorilor evaluați de raterId s-a schimbat (vezi RatedUsersCache); nu intră în niciun ETag.
+     */
+    public void raterChanged(Long raterId) {
+        record(Kind.RATER, raterId);
+    }
+    
+    /**
+     * Căutările salvate ale utilizatorului s-au schimbat (vezi SavedSearchIndex); nu intră în niciun ETag.
+     */
+    public void searchesChanged(Long userId) {
+        record(Kind.SEARCHES, userId);
+    }
+    
+    /**
+     * Citește poziția curentă a jurnalului, dacă nu a fost citită. Apelată înainte de încărcarea
+     * unui cache din baza de date: modificările salvate după aceea sunt reaplicate de poll().
+     */
+    public void start() {
+        if (baseline < 0) {
+            synchronized (this) {
+                if (baseline < 0) {
+                    long max = changeLog.maxId();
+                    lastSeen = max;
+                    baseline = max;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Versiunea profilului public al unui utilizator: profil, curse sau rating-uri primite.
+     */
+    public long profileVersion(Long userId) {
+        return Math.max(version(ridesByDriver, userId), version(ratingsByUser, userId));
+    }
+    
+    /**
+     * Lista tuturor curselor active; include ziua curentă, pentru că ocurențele
+     * curselor recurente depind de dată.
+     */
+    public String ridesETag() {
+        return "rides-" + version(rides) + "-" + LocalDate.now() + suffix();
+    }
+    
+    /**
+     * Listele de localități (plecare sau sosire) se schimbă doar odată cu lista curselor active.
+     */
+    public String locationsETag(String direction) {
+        return "locations-" + direction + "-" + version(rides) + suffix();
+    }
+    
+    public String userRidesETag(Long userId) {
+        return "rides-u" + userId + "-" + version(ridesByDriver, userId) + "-" + version(expiries) + suffix();
+    }
+    
+    public String userRatingsETag(Long userId) {
+        return "ratings-u" + userId + "-" + version(ratingsByUser, userId) + "-" + version(profiles) + suffix();
+    }
+    
+    /**
+     * Citește modificările noi din jurnal, inclusiv id-urile care lipseau la citirea anterioară
+     * (tranzacții salvate mai târziu decât cele cu id mai mare).
+     */
+    @Scheduled(fixedDelayString = "${changes.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        start();
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(missingSince -> now - missingSince > gapTimeoutMs);
+        List<DataChangeLog.Row> rows = new ArrayList<>(changeLog.readIds(gaps.keySet()));
+        List<DataChangeLog.Row> batch;
+        long readUpTo = lastSeen;
+        do {
+            batch = changeLog.readAfter(readUpTo, POLL_BATCH);
+            rows.addAll(batch);
+            if (!batch.isEmpty()) {
+                readUpTo = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == POLL_BATCH);
+        
+        List<Change> changes = new ArrayList<>();
+        List<Change> remote = new ArrayList<>();
+        for (DataChangeLog.Row row : rows) {
+            if (row.id() > lastSeen) {
+                for (long missing = lastSeen + 1; missing < row.id() && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                lastSeen = row.id();
+            } else if (gaps.remove(row.id()) == null) {
+                continue;
+            }
+            Change change = new Change(row.id(), Kind.valueOf(row.kind()), row.userId());
+            changes.add(change);
+            if (row.nodeId() != nodeId) {
+                remote.add(change);
+            }
+        }
+        
+        if (!remote.isEmpty()) {
+            try {
+                eventPublisher.publishEvent(new RemoteChanges(remote));
+            } catch (RuntimeException e) {
+                System.err.println("Modificările altor noduri nu au putut fi aplicate: " + e.getMessage());
+            }
+        }
+        changes.forEach(this::apply);
+    }
+    
+    /**
+     * Șterge din jurnal modificările mai vechi decât changes.retention-ms (păstrând ultima).
+     */
+    @Scheduled(cron = "${changes.cleanup-cron:0 */10 * * * *}")
+    public int prune() {
+        int deleted = changeLog.deleteOlderThan(System.currentTimeMillis() - retentionMs, changeLog.maxId());
+        if (deleted > 0) {
+            System.out.println("Modificări vechi șterse din jurnal: " + deleted);
+        }
+        return deleted;
+    }
+    
+    /**
+     * Scrie modificarea în jurnal. Într-o tranzacție rândul este salvat odată cu datele, iar versiunea
+     * locală se mută după commit; nu trebuie apelată din afterCommit, când tranzacția s-a încheiat.
+     * În afara unei tranzacții scrierea are propria tranzacție (pe conexiunea cererii, dacă există).
+     */
+    private void record(Kind kind, Long userId) {
+        start();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            long id = insert(kind, userId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyLocal(id, kind, userId);
+                }
+            });
+        } else {
+            Long id = new TransactionTemplate(transactionManager).execute(status -> insert(kind, userId));
+            applyLocal(id, kind, userId);
+        }
+    }
+    
+    private long insert(Kind kind, Long userId) {
+        try {
+            return changeLog.insert(kind.name(), userId, nodeId, System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            System.err.println("Modificarea nu a putut fi scrisă în jurnal: " + e.getMessage());
+            return -1L;
+        }
+    }
+    
+    private void applyLocal(long id, Kind kind, Long userId) {
+        if (id < 0) {
+            // Celelalte noduri nu află de modificare, dar acest nod nu mai servește ETag-urile vechi
+            unlogged.incrementAndGet();
+        } else {
+            apply(new Change(id, kind, userId));
+        }
+    }
+    
+    private void apply(Change change) {
+        long id = change.id();
+        switch (change.kind()) {
+            case RIDES -> {
+                rides.accumulateAndGet(id, Math::max);
+                bump(ridesByDriver, change.userId(), id);
+            }
+            case EXPIRY -> {
+                rides.accumulateAndGet(id, Math::max);
+                expiries.accumulateAndGet(id, Math::max);
+            }
+            case RATINGS -> bump(ratingsByUser, change.userId(), id);
+            case PROFILE -> {
+                profiles.accumulateAndGet(id, Math::max);
+                rides.accumulateAndGet(id, Math::max);
+                bump(ridesByDriver, change.userId(), id);
+            }
+            case RATER, SEARCHES -> { }
+        }
+    }
+    
+    private static void bump(Map<Long, Long> versions, Long userId, long id) {
+        if (userId != null) {
+            versions.merge(userId, id, Math::max);
+        }
+    }
+    
+    private long version(AtomicLong version) {
+        start();
+        return Math.max(baseline, version.get());
+    }
+    
+    private long version(Map<Long, Long> versions, Long id) {
+        start();
+        return Math.max(baseline, versions.getOrDefault(id, 0L));
+    }
+    
+    private String suffix() {
+        long count = unlogged.get();
+        return count == 0 ? "" : "-n" + Long.toHexString(nodeId) + "." + count;
+    }
+}
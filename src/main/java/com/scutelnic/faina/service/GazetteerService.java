@@ -0,0 +1,140 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.LocationSuggestion;
+import com.scutelnic.faina.util.LocalityTrie;
+import com.scutelnic.faina.util.LocationNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sugestii de localități servite local, din gazetteer-ul inclus în aplicație
+ * (data/localities-md.csv), fără apeluri către Nominatim.
+ */
+@Service
+public class GazetteerService {
+    
+    private static final String GAZETTEER_PATH = "data/localities-md.csv";
+    private static final int MAX_LIMIT = 15;
+    
+    private List<Entry> entries = new ArrayList<>();
+    private LocalityTrie trie = LocalityTrie.builder().build();
+    
+    @PostConstruct
+    public void load() {
+        long start = System.nanoTime();
+        List<Entry> loaded = new ArrayList<>();
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(GAZETTEER_PATH).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(";", -1);
+                if (parts.length < 4) {
+                    System.err.println("Linie invalidă în gazetteer: " + line);
+                    continue;
+                }
+                loaded.add(new Entry(parts[0].trim(), parts[1].trim(), parts[2].trim(),
+                        Integer.parseInt(parts[3].trim()), LocationNormalizer.normalize(parts[0])));
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Eroare la încărcarea gazetteer-ului: " + e.getMessage());
+            return;
+        }
+        
+        // Rangul static: orașele înaintea satelor, apoi după populație
+        loaded.sort(Comparator.comparing((Entry entry) -> !"city".equals(entry.type()))
+                .thenComparing(Comparator.comparingInt(Entry::population).reversed()));
+        
+        // Fără limită pe nod: relevanța depinde de prefix (potrivire exactă, început de nume),
+        // deci o localitate cu rang static mic poate ajunge prima; tăiem abia după sortare
+        LocalityTrie.Builder builder = LocalityTrie.builder();
+        for (int id = 0; id < loaded.size(); id++) {
+            String key = loaded.get(id).key();
+            // Indexăm fiecare cuvânt al numelui, ca "voda" să găsească "Ștefan Vodă"
+            builder.add(key, id);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                builder.add(key.substring(i + 1), id);
+            }
+        }
+        
+        this.entries = loaded;
+        this.trie = builder.build();
+        
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+        System.out.println("Gazetteer încărcat: " + loaded.size() + " localități, "
+                + trie.nodeCount() + " noduri în trie, " + elapsedMicros + " µs");
+    }
+    
+    /**
+     * Returnează localitățile care se potrivesc cu textul introdus, sortate după relevanță.
+     * Toate potrivirile sunt punctate, apoi sunt păstrate primele limit.
+     */
+    public List<LocationSuggestion> suggest(String query, int limit) {
+        List<LocationSuggestion> suggestions = new ArrayList<>();
+        String prefix = LocationNormalizer.normalize(query);
+        if (prefix.isEmpty()) {
+            return suggestions;
+        }
+        
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        for (int id : trie.lookup(prefix)) {
+            Entry entry = entries.get(id);
+            suggestions.add(new LocationSuggestion(entry.name(), entry.district(), entry.type(),
+                    formatFullAddress(entry), calculateRelevance(entry, prefix)));
+        }
+        // Sortare stabilă: la relevanță egală rămâne ordinea din trie (oraș, apoi populație)
+        suggestions.sort(Comparator.comparingInt(LocationSuggestion::getRelevance).reversed());
+        return suggestions.size() > max ? new ArrayList<>(suggestions.subList(0, max)) : suggestions;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    // Aceleași ponderi ca fostul calculateRelevance din autocomplete.js (varianta Nominatim)
+    private int calculateRelevance(Entry entry, String prefix) {
+        int relevance = 10; // potrivire pe numele localității
+        if (entry.key().equals(prefix)) {
+            relevance += 5; // potrivire exactă
+        } else if (entry.key().startsWith(prefix)) {
+            relevance += 3; // numele începe cu textul introdus
+        }
+        if ("city".equals(entry.type())) {
+            relevance += 2;
+        }
+        return relevance;
+    }
+    
+    private String formatFullAddress(Entry entry) {
+        String district = entry.district();
+        if (district.isEmpty()) {
+            return entry.name() + ", Moldova";
+        }
+        if ("Chișinău".equals(district)) {
+            return entry.name() + ", municipiul Chișinău, Moldova";
+        }
+        if ("Găgăuzia".equals(district)) {
+            return entry.name() + ", UTA Găgăuzia, Moldova";
+        }
+        if ("Stînga Nistrului".equals(district)) {
+            return entry.name() + ", Stînga Nistrului, Moldova";
+        }
+        return entry.name() + ", raionul " + district + ", Moldova";
+    }
+    
+    private record Entry(String name, String district, String type, int population, String key) {
+    }
+}
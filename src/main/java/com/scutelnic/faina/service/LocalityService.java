@@ -0,0 +1,67 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.entity.Locality;
+import com.scutelnic.faina.repository.LocalityRepository;
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class LocalityService {
+    
+    @Autowired
+    private LocalityRepository localityRepository;
+    
+    /**
+     * Găsește localitatea după cheia normalizată sau o creează dacă nu există.
+     */
+    public Locality resolveOrCreate(String name) {
+        String key = LocationNormalizer.normalize(name);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Numele localității nu poate fi gol");
+        }
+        
+        return localityRepository.findByNormalizedName(key).orElseGet(() -> {
+            Locality locality = new Locality();
+            locality.setName(name.trim());
+            locality.setNormalizedName(key);
+            locality.setTokens(new HashSet<>(LocationNormalizer.tokens(key)));
+            try {
+                return localityRepository.save(locality);
+            } catch (DataIntegrityViolationException e) {
+                // Altă cerere a creat aceeași localitate între timp
+                return localityRepository.findByNormalizedName(key).orElseThrow(() -> e);
+            }
+        });
+    }
+    
+    /**
+     * Returnează id-urile localităților care se potrivesc cu textul căutat
+     * (cheia completă sau un cuvânt care începe cu textul respectiv).
+     */
+    public List<Long> findMatchingIds(String query) {
+        String key = LocationNormalizer.normalize(query);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        return localityRepository.findIdsByPrefix(key + "%");
+    }
+    
+    /**
+     * Returnează cheile normalizate pentru localitățile date, indexate după id.
+     */
+    public Map<Long, String> findKeys(Collection<Long> ids) {
+        Map<Long, String> keys = new HashMap<>();
+        for (Locality locality : localityRepository.findAllById(ids)) {
+            keys.put(locality.getId(), locality.getNormalizedName());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,101 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.LocationCount;
+import com.scutelnic.faina.entity.Ride;
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Listele de localități de plecare / sosire ale curselor active, cu numărul de curse pentru fiecare.
+ * Sunt păstrate sortate după numele normalizat și actualizate incremental de RideService.
+ * ETag-ul vine din DataVersions, deci este același pe toate nodurile pentru aceleași curse,
+ * iar endpoint-urile pot răspunde cu 304 oricare nod primește cererea.
+ */
+@Service
+public class LocationListCache {
+    
+    private static final char SEPARATOR = '\u0000';
+    
+    @Autowired
+    private DataVersions dataVersions;
+    
+    private final Direction from = new Direction();
+    private final Direction to = new Direction();
+    private volatile boolean ready = false;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public synchronized void reload(List<Ride> activeRides) {
+        from.counts.clear();
+        to.counts.clear();
+        for (Ride ride : activeRides) {
+            from.adjust(ride.getFromLocation(), 1);
+            to.adjust(ride.getToLocation(), 1);
+        }
+        ready = true;
+    }
+    
+    public void rideAdded(String fromLocation, String toLocation) {
+        from.adjust(fromLocation, 1);
+        to.adjust(toLocation, 1);
+    }
+    
+    public void rideRemoved(String fromLocation, String toLocation) {
+        from.adjust(fromLocation, -1);
+        to.adjust(toLocation, -1);
+    }
+    
+    public List<LocationCount> findFromLocations(String prefix) {
+        return from.find(prefix);
+    }
+    
+    public List<LocationCount> findToLocations(String prefix) {
+        return to.find(prefix);
+    }
+    
+    public String fromETag() {
+        return dataVersions.locationsETag("from");
+    }
+    
+    public String toETag() {
+        return dataVersions.locationsETag("to");
+    }
+    
+    private static final class Direction {
+        // Cheie: numele normalizat + separator + numele afișat, deci ordinea este cea alfabetică fără diacritice
+        private final ConcurrentSkipListMap<String, Integer> counts = new ConcurrentSkipListMap<>();
+        
+        private void adjust(String location, int delta) {
+            if (location == null || location.isEmpty()) {
+                return;
+            }
+            String key = LocationNormalizer.normalize(location) + SEPARATOR + location;
+            counts.compute(key, (k, current) -> {
+                int updated = (current != null ? current : 0) + delta;
+                return updated > 0 ? updated : null;
+            });
+        }
+        
+        private List<LocationCount> find(String prefix) {
+            String normalizedPrefix = LocationNormalizer.normalize(prefix);
+            NavigableMap<String, Integer> range = normalizedPrefix.isEmpty()
+                    ? counts
+                    : counts.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false);
+            List<LocationCount> result = new ArrayList<>(range.size());
+            for (Map.Entry<String, Integer> entry : range.entrySet()) {
+                String display = entry.getKey().substring(entry.getKey().indexOf(SEPARATOR) + 1);
+                result.add(new LocationCount(display, entry.getValue()));
+            }
+            return result;
+        }
+    }
+}
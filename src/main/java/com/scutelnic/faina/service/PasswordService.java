@@ -0,0 +1,228 @@
+package com.scutelnic.faina.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash-ul parolelor: PBKDF2-HMAC-SHA256 cu sare aleatoare, salvat ca
+ * "pbkdf2-sha256$iterații$sare$hash" (Base64). Numărul de iterații se poate mări oricând
+ * (passwords.iterations); hash-urile mai slabe și parolele vechi, salvate în clar, sunt
+ * refăcute la următoarea autentificare reușită.
+ *
+ * Calculul rulează doar pe un executor dedicat, cu passwords.threads fire, ca un val de
+ * autentificări să nu ocupe procesorul de care au nevoie celelalte cereri. Cel mult
+ * passwords.max-pending operații sunt admise în același timp; restul sunt respinse imediat
+ * cu IllegalStateException (controller-ul răspunde cu 503).
+ */
+@Service
+public class PasswordService {
+
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    @Value("${passwords.iterations:310000}")
+    private int iterations;
+
+    @Value("${passwords.threads:2}")
+    private int threads;
+
+    @Value("${passwords.max-pending:32}")
+    private int maxPending;
+
+    @Value("${passwords.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private ThreadPoolExecutor executor;
+    private Semaphore admission;
+    private String dummyHash;
+    private Timer duration;
+    private Counter rejected;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // Coada are loc pentru toate operațiile admise, deci executorul nu respinge niciodată
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxPending), runnable -> {
+                    Thread thread = new Thread(runnable, "password-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        admission = new Semaphore(maxPending);
+        dummyHash = hashNow("parola-inexistenta");
+        duration = Timer.builder("passwords.hash.duration")
+                .description("Durata unei operații de hash sau verificare a parolei, inclusiv așteptarea")
+                .register(meterRegistry);
+        rejected = Counter.builder("passwords.rejected")
+                .description("Operații cu parole respinse pentru că erau prea multe în curs")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hash pentru o parolă nouă (înregistrare, schimbarea parolei).
+     */
+    public String hash(String rawPassword) {
+        return run(() -> hashNow(rawPassword));
+    }
+
+    /**
+     * Verifică parola. Dacă este corectă, dar hash-ul salvat este vechi, rezultatul conține
+     * și hash-ul nou, calculat în aceeași operație.
+     */
+    public Check check(String rawPassword, String storedPassword) {
+        return run(() -> {
+            boolean matches = matchesNow(rawPassword, storedPassword);
+            String rehash = matches && needsRehash(storedPassword) ? hashNow(rawPassword) : null;
+            return new Check(matches, rehash);
+        });
+    }
+
+    /**
+     * Aceeași muncă și pentru un email inexistent, ca timpul de răspuns să nu arate
+     * dacă adresa are cont.
+     */
+    public void checkAgainstDummy(String rawPassword) {
+        check(rawPassword, dummyHash);
+    }
+
+    public static boolean isHashed(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith(PREFIX);
+    }
+
+    public boolean needsRehash(String storedPassword) {
+        if (storedPassword == null || !storedPassword.startsWith(PREFIX)) {
+            return true;
+        }
+        String[] parts = storedPassword.split("\\$");
+        return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+    }
+
+    public int getPending() {
+        return maxPending - admission.availablePermits();
+    }
+
+    private <T> T run(Callable<T> task) {
+        if (!admission.tryAcquire()) {
+            rejected.increment();
+            throw new IllegalStateException("Prea multe autentificări în curs, încercați din nou peste câteva secunde");
+        }
+        long start = System.nanoTime();
+        // Locul în coadă se eliberează doar când operația s-a terminat: PBKDF2 nu poate fi întrerupt,
+        // deci o cerere expirată ocupă în continuare un fir sau un loc în coadă
+        FutureTask<T> future = new FutureTask<>(() -> {
+            try {
+                return task.call();
+            } finally {
+                admission.release();
+            }
+        });
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            rejected.increment();
+            throw new IllegalStateException("Prea multe autentificări în curs, încercați din nou peste câteva secunde");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            throw new IllegalStateException("Verificarea parolei a durat prea mult, încercați din nou");
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificarea parolei a fost întreruptă");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Eroare la verificarea parolei: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // O operație încă în coadă este scoasă de acolo (și locul ei eliberat aici); una pornită își eliberează singură locul
+    private void abandon(FutureTask<?> future) {
+        if (executor.remove(future)) {
+            admission.release();
+        }
+        future.cancel(true);
+    }
+
+    private String hashNow(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(pbkdf2(rawPassword, salt, iterations));
+    }
+
+    static boolean matchesNow(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!storedPassword.startsWith(PREFIX)) {
+            // Parolă veche, salvată în clar înainte de introducerea hash-ului
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = storedPassword.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] expected = decoder.decode(parts[3]);
+        return MessageDigest.isEqual(expected, pbkdf2(rawPassword, decoder.decode(parts[2]), Integer.parseInt(parts[1])));
+    }
+
+    private static byte[] pbkdf2(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 nu este disponibil", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Rezultatul verificării; rehash este null dacă hash-ul salvat nu trebuie înlocuit.
+     */
+    public record Check(boolean matches, String rehash) {
+    }
+}
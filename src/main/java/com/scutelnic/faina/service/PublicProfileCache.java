@@ -0,0 +1,136 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.PublicProfile;
+import com.scutelnic.faina.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache read-through pentru profilurile publice (GET /api/users/{id}). Mărimea este limitată în
+ * octeți estimați (profiles.cache.max-bytes), nu în număr de intrări; la depășire sunt scoase
+ * profilurile folosite cel mai demult. Un profil este scos explicit la modificarea profilului,
+ * la ștergerea utilizatorului și la orice schimbare de rating; la fiecare citire este comparat cu
+ * versiunea profilului din DataVersions, comună tuturor nodurilor, deci și modificările făcute pe
+ * alt nod îl invalidează. Orice profil este recitit după cel mult profiles.cache.ttl-ms.
+ * Metrici: profiles.cache.requests (result=hit|miss), profiles.cache.evictions,
+ * profiles.cache.hit.ratio, profiles.cache.size și profiles.cache.bytes.
+ */
+@Service
+public class PublicProfileCache {
+
+    @Value("${profiles.cache.max-bytes:2097152}")
+    private long maxBytes;
+
+    @Value("${profiles.cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Entry> profiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    // Crește la fiecare invalidare; un profil citit în timpul unei invalidări nu este păstrat
+    private long modifications;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = Counter.builder("profiles.cache.requests").tag("result", "hit")
+                .description("Cereri de profil public servite din cache sau citite din baza de date")
+                .register(meterRegistry);
+        misses = Counter.builder("profiles.cache.requests").tag("result", "miss")
+                .description("Cereri de profil public servite din cache sau citite din baza de date")
+                .register(meterRegistry);
+        evictions = Counter.builder("profiles.cache.evictions")
+                .description("Profiluri scoase din cache pentru a rămâne sub limita de memorie")
+                .register(meterRegistry);
+        Gauge.builder("profiles.cache.hit.ratio", this, cache -> {
+                    double total = cache.hits.count() + cache.misses.count();
+                    return total > 0 ? cache.hits.count() / total : 0.0;
+                })
+                .description("Proporția cererilor de profil servite din cache")
+                .register(meterRegistry);
+        Gauge.builder("profiles.cache.size", this, PublicProfileCache::size)
+                .description("Profiluri publice din cache")
+                .register(meterRegistry);
+        Gauge.builder("profiles.cache.bytes", this, PublicProfileCache::getBytes)
+                .description("Memoria estimată a profilurilor din cache, în octeți")
+                .register(meterRegistry);
+    }
+
+    public Optional<PublicProfile> get(Long userId) {
+        long started;
+        long version = dataVersions.profileVersion(userId);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry cached = profiles.get(userId);
+            if (cached != null && cached.version() == version && now - cached.loadedAt() < ttlMs) {
+                hits.increment();
+                return Optional.of(cached.profile());
+            }
+            started = modifications;
+        }
+        misses.increment();
+        // Citirea se face în afara blocării, ca celelalte profiluri să fie servite între timp
+        Optional<PublicProfile> loaded = userRepository.findPublicProfile(userId);
+        loaded.ifPresent(profile -> store(userId, new Entry(profile, version, now), started));
+        return loaded;
+    }
+
+    public synchronized void invalidate(Long userId) {
+        modifications++;
+        Entry removed = profiles.remove(userId);
+        if (removed != null) {
+            bytes -= removed.profile().estimatedSize();
+        }
+    }
+
+    public synchronized int size() {
+        return profiles.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private synchronized void store(Long userId, Entry entry, long started) {
+        if (modifications != started) {
+            return;
+        }
+        Entry previous = profiles.put(userId, entry);
+        if (previous != null) {
+            bytes -= previous.profile().estimatedSize();
+        }
+        bytes += entry.profile().estimatedSize();
+        Iterator<Entry> eldest = profiles.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.profile().estimatedSize();
+            evictions.increment();
+        }
+    }
+
+    private record Entry(PublicProfile profile, long version, long loadedAt) {
+    }
+}
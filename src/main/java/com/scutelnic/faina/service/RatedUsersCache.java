@@ -0,0 +1,136 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.repository.RatingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pentru fiecare evaluator, mulțimea utilizatorilor cărora le-a dat rating, ca tablou sortat de long
+ * (8 octeți pe utilizator evaluat, căutare binară). Mulțimea se încarcă din baza de date la prima
+ * întrebare și apoi este actualizată după fiecare rating adăugat sau șters, deci verificările
+ * ulterioare nu mai rulează SQL. Ratingurile adăugate sau șterse pe alte noduri scot mulțimea
+ * evaluatorului (DataVersions.RemoteChanges), iar orice mulțime este recitită după cel mult ttl-ms.
+ * Se păstrează cel mult max-raters evaluatori (cei folosiți recent).
+ */
+@Service
+public class RatedUsersCache {
+    
+    @Value("${ratings.rated-cache.max-raters:10000}")
+    private int maxRaters;
+    
+    @Value("${ratings.rated-cache.ttl-ms:300000}")
+    private long ttlMs;
+    
+    @Autowired
+    private RatingRepository ratingRepository;
+    
+    private final Map<Long, Entry> ratedByRater = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxRaters;
+        }
+    };
+    
+    // Crește la fiecare modificare; o mulțime citită în timpul unei modificări nu este păstrată
+    private long modifications;
+    
+    public boolean hasRated(Long raterId, Long ratedUserId) {
+        return Arrays.binarySearch(ratedSet(raterId), ratedUserId) >= 0;
+    }
+    
+    /**
+     * Utilizatorii din listă cărora evaluatorul le-a dat deja rating, în ordinea din listă.
+     */
+    public List<Long> filterRated(Long raterId, Collection<Long> userIds) {
+        long[] rated = ratedSet(raterId);
+        return userIds.stream()
+                .filter(id -> id != null && Arrays.binarySearch(rated, id) >= 0)
+                .toList();
+    }
+    
+    public synchronized void added(Long raterId, Long ratedUserId) {
+        modifications++;
+        Entry entry = ratedByRater.get(raterId);
+        if (entry == null) {
+            return;
+        }
+        long[] rated = entry.rated();
+        int position = Arrays.binarySearch(rated, ratedUserId);
+        if (position < 0) {
+            int insertAt = -position - 1;
+            long[] updated = new long[rated.length + 1];
+            System.arraycopy(rated, 0, updated, 0, insertAt);
+            updated[insertAt] = ratedUserId;
+            System.arraycopy(rated, insertAt, updated, insertAt + 1, rated.length - insertAt);
+            ratedByRater.put(raterId, new Entry(updated, entry.loadedAt()));
+        }
+    }
+    
+    public synchronized void removed(Long raterId, Long ratedUserId) {
+        modifications++;
+        Entry entry = ratedByRater.get(raterId);
+        if (entry == null) {
+            return;
+        }
+        long[] rated = entry.rated();
+        int position = Arrays.binarySearch(rated, ratedUserId);
+        if (position >= 0) {
+            long[] updated = new long[rated.length - 1];
+            System.arraycopy(rated, 0, updated, 0, position);
+            System.arraycopy(rated, position + 1, updated, position, rated.length - position - 1);
+            ratedByRater.put(raterId, new Entry(updated, entry.loadedAt()));
+        }
+    }
+    
+    public synchronized void invalidate(Long raterId) {
+        modifications++;
+        ratedByRater.remove(raterId);
+    }
+    
+    @EventListener
+    public void onRemoteChanges(DataVersions.RemoteChanges remote) {
+        for (DataVersions.Change change : remote.changes()) {
+            if (change.kind() == DataVersions.Kind.RATER && change.userId() != null) {
+                invalidate(change.userId());
+            }
+        }
+    }
+    
+    public synchronized int size() {
+        return ratedByRater.size();
+    }
+    
+    private long[] ratedSet(Long raterId) {
+        long started;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = ratedByRater.get(raterId);
+            if (entry != null && now - entry.loadedAt() < ttlMs) {
+                return entry.rated();
+            }
+            started = modifications;
+        }
+        // Încărcarea se face în afara blocării, ca ceilalți evaluatori să nu aștepte după SQL
+        long[] loaded = ratingRepository.findRatedUserIdsByRaterId(raterId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        synchronized (this) {
+            if (modifications == started) {
+                ratedByRater.put(raterId, new Entry(loaded, now));
+            }
+        }
+        return loaded;
+    }
+    
+    private record Entry(long[] rated, long loadedAt) {
+    }
+}
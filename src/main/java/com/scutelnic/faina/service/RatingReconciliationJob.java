@@ -0,0 +1,87 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.RatingAggregate;
+import com.scutelnic.faina.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Compară periodic suma, numărul și histograma rating-urilor salvate pe utilizator cu tabela ratings
+ * și repară diferențele. Metrica ratings.reconcile.repaired numără utilizatorii reparați;
+ * în mod normal rămâne 0.
+ */
+@Service
+public class RatingReconciliationJob {
+    
+    @Value("${ratings.reconcile.batch-size:1000}")
+    private int batchSize;
+    
+    @Autowired
+    private RatingService ratingService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter repaired;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        repaired = Counter.builder("ratings.reconcile.repaired")
+                .description("Utilizatori cu statistici de rating reparate de reconciliere")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Completează rating_sum și histograma pentru utilizatorii evaluați înainte de apariția coloanelor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> userIds = userRepository.findIdsMissingRatingStats();
+        for (Long userId : userIds) {
+            ratingService.reconcileUser(userId);
+        }
+        if (!userIds.isEmpty()) {
+            System.out.println("Statistici de rating completate pentru " + userIds.size() + " utilizatori");
+        }
+    }
+    
+    @Scheduled(cron = "${ratings.reconcile.cron:0 30 3 * * *}", zone = "Europe/Chisinau")
+    public int run() {
+        int checked = 0;
+        int fixed = 0;
+        long lastId = 0L;
+        try {
+            List<Long> userIds = userRepository.findIdsAfter(lastId, PageRequest.of(0, batchSize));
+            while (!userIds.isEmpty()) {
+                for (RatingAggregate aggregate : ratingService.findRatingAggregates(userIds)) {
+                    // Verificarea finală se face sub blocarea rândului, deci o scriere în curs nu este raportată greșit
+                    if (aggregate.drifted() && ratingService.reconcileUser(aggregate.userId())) {
+                        fixed++;
+                    }
+                }
+                checked += userIds.size();
+                lastId = userIds.get(userIds.size() - 1);
+                userIds = userRepository.findIdsAfter(lastId, PageRequest.of(0, batchSize));
+            }
+        } catch (Exception e) {
+            System.err.println("Eroare la reconcilierea rating-urilor: " + e.getMessage());
+            e.printStackTrace();
+        }
+        repaired.increment(fixed);
+        System.out.println("Reconciliere rating-uri: " + checked + " utilizatori verificați, " + fixed + " reparați");
+        return fixed;
+    }
+}
@@ -1,13 +1,25 @@
 package com.scutelnic.faina.service;
 
+import com.scutelnic.faina.dto.RatingAggregate;
+import com.scutelnic.faina.dto.RatingDTO;
+import com.scutelnic.faina.dto.RatingPage;
+import com.scutelnic.faina.dto.RatingStats;
+import com.scutelnic.faina.dto.RatingSummary;
 import com.scutelnic.faina.entity.Rating;
 import com.scutelnic.faina.entity.User;
 import com.scutelnic.faina.repository.RatingRepository;
 import com.scutelnic.faina.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,12 +27,26 @@ import java.util.Optional;
 @Transactional
 public class RatingService {
     
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_SUMMARY_COMMENTS = 10;
+    private static final int MAX_SUMMARY_BATCH = 100;
+    
     @Autowired
     private RatingRepository ratingRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DataVersions dataVersions;
+    
+    @Autowired
+    private RatedUsersCache ratedUsersCache;
+    
+    @Autowired
+    private PublicProfileCache publicProfileCache;
+    
     /**
      * Add or update a rating for a user
      */
@@ -53,10 +79,7 @@ public class RatingService {
         Rating savedRating;
         if (existingRating.isPresent()) {
             // Update existing rating
-            Rating ratingToUpdate = existingRating.get();
-            ratingToUpdate.setRating(rating);
-            ratingToUpdate.setComment(comment);
-            savedRating = ratingRepository.save(ratingToUpdate);
+            savedRating = changeRating(existingRating.get(), rating, comment);
             System.out.println("✅ Updated existing rating: " + savedRating.getId());
         } else {
             // Create new rating
@@ -66,35 +89,114 @@ public class RatingService {
             newRating.setRating(rating);
             newRating.setComment(comment);
             savedRating = ratingRepository.save(newRating);
+            applyRatingChange(ratedUserId, rating, 0);
+            afterCommit(() -> ratedUsersCache.added(raterId, ratedUserId));
+            dataVersions.raterChanged(raterId);
             System.out.println("✅ Created new rating: " + savedRating.getId());
         }
         
-        // Update user's rating statistics
-        updateUserRatingStats(ratedUserId);
-        
         return savedRating;
     }
     
     /**
-     * Get all ratings for a specific user
+     * Update an existing rating owned by the given rater
      */
-    public List<Rating> getUserRatings(Long userId) {
-        return ratingRepository.findByRatedUserIdOrderByCreatedAtDesc(userId);
+    public Rating updateRating(Long ratingId, Long raterId, Integer rating, String comment) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        Rating existing = ratingRepository.findById(ratingId)
+                .orElseThrow(() -> new RuntimeException("Rating-ul nu a fost găsit."));
+        if (!existing.getRater().getId().equals(raterId)) {
+            throw new SecurityException("Nu aveți permisiunea să actualizați acest rating.");
+        }
+        return changeRating(existing, rating, comment);
+    }
+    
+    /**
+     * Returnează o pagină de rating-uri primite, cele mai noi primele, folosind un cursor (createdAt, id).
+     * Media și numărul total vin din statisticile salvate pe utilizator, nu din AVG/COUNT.
+     */
+    @Transactional(readOnly = true)
+    public RatingPage getUserRatingsPage(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        LocalDateTime cursorCreatedAt = MAX_DATE;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.lastIndexOf('_');
+            if (separator > 0) {
+                try {
+                    cursorCreatedAt = LocalDateTime.parse(cursor.substring(0, separator));
+                    cursorId = Long.parseLong(cursor.substring(separator + 1));
+                } catch (RuntimeException e) {
+                    System.err.println("Cursor invalid, se afișează prima pagină: " + cursor);
+                }
+            }
+        }
+        
+        List<RatingDTO> ratings = ratingRepository.findPageByRatedUserId(userId, cursorCreatedAt, cursorId,
+                PageRequest.of(0, pageSize + 1));
+        boolean hasMore = ratings.size() > pageSize;
+        List<RatingDTO> pageRatings = new ArrayList<>(hasMore ? ratings.subList(0, pageSize) : ratings);
+        RatingStats stats = userRepository.findRatingStats(userId).orElse(new RatingStats(0L, 0L));
+        
+        RatingPage page = new RatingPage();
+        page.setRatings(pageRatings);
+        page.setHasNext(hasMore);
+        page.setAverageRating(stats.average());
+        page.setTotalRatings(stats.count());
+        if (hasMore) {
+            RatingDTO last = pageRatings.get(pageRatings.size() - 1);
+            page.setNextCursor(last.getCreatedAt() + "_" + last.getId());
+        }
+        return page;
     }
     
     /**
      * Get average rating for a user
      */
     public Double getAverageRating(Long userId) {
-        Double avgRating = ratingRepository.getAverageRatingByUserId(userId);
-        return avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : 0.0;
+        return userRepository.findRatingStats(userId).map(RatingStats::average).orElse(0.0);
     }
     
     /**
      * Get total number of ratings for a user
      */
     public Long getTotalRatings(Long userId) {
-        return ratingRepository.getTotalRatingsByUserId(userId);
+        return userRepository.findRatingStats(userId).map(RatingStats::count).orElse(0L);
+    }
+    
+    /**
+     * Rezumatul rating-urilor unui utilizator (media, numărul, histograma) și ultimele comentarii.
+     * Statisticile sunt citite de pe rândul utilizatorului, unde sunt actualizate la fiecare rating.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RatingSummary> getRatingSummary(Long userId, int comments) {
+        List<RatingSummary> summaries = userRepository.findRatingSummaries(List.of(userId));
+        if (summaries.isEmpty()) {
+            return Optional.empty();
+        }
+        RatingSummary summary = summaries.get(0);
+        int limit = Math.max(0, Math.min(comments, MAX_SUMMARY_COMMENTS));
+        if (limit > 0 && summary.getTotalRatings() > 0) {
+            summary.setRecentComments(ratingRepository.findRecentComments(userId, PageRequest.of(0, limit)));
+        }
+        return Optional.of(summary);
+    }
+    
+    /**
+     * Rezumatele (fără comentarii) pentru mai mulți utilizatori, cu un singur SELECT.
+     * Utilizatorii inexistenți lipsesc din rezultat.
+     */
+    @Transactional(readOnly = true)
+    public List<RatingSummary> getRatingSummaries(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        if (userIds.size() > MAX_SUMMARY_BATCH) {
+            throw new IllegalArgumentException("Se pot cere cel mult " + MAX_SUMMARY_BATCH + " utilizatori odată");
+        }
+        return userRepository.findRatingSummaries(userIds);
     }
     
     /**
@@ -102,11 +204,21 @@ public class RatingService {
      */
     public boolean hasUserRated(Long raterId, Long ratedUserId) {
         System.out.println("🔍 RatingService.hasUserRated called with: raterId=" + raterId + ", ratedUserId=" + ratedUserId);
-        boolean exists = ratingRepository.existsByRaterIdAndRatedUserId(raterId, ratedUserId);
+        boolean exists = ratedUsersCache.hasRated(raterId, ratedUserId);
         System.out.println("🔍 Rating exists: " + exists);
         return exists;
     }
     
+    /**
+     * Utilizatorii din listă cărora evaluatorul le-a dat deja rating (fără SQL după prima încărcare)
+     */
+    public List<Long> getRatedUserIds(Long raterId, Collection<Long> userIds) {
+        if (userIds.size() > MAX_SUMMARY_BATCH) {
+            throw new IllegalArgumentException("Se pot cere cel mult " + MAX_SUMMARY_BATCH + " utilizatori odată");
+        }
+        return ratedUsersCache.filterRated(raterId, userIds);
+    }
+    
     /**
      * Get existing rating if user has already rated
      */
@@ -121,37 +233,100 @@ public class RatingService {
         Optional<Rating> rating = ratingRepository.findById(ratingId);
         if (rating.isPresent() && rating.get().getRater().getId().equals(raterId)) {
             Long ratedUserId = rating.get().getRatedUser().getId();
-            ratingRepository.deleteById(ratingId);
+            // Valoarea scăzută din statistici este cea blocată, nu cea citită mai sus (poate fi modificată între timp)
+            Integer value = ratingRepository.lockRatingValue(ratingId).orElse(null);
             
-            // Update user's rating statistics
-            updateUserRatingStats(ratedUserId);
+            // Scădem din statistici doar dacă ștergerea a avut loc (nu și la o ștergere dublă)
+            if (value != null && ratingRepository.deleteRatingById(ratingId) == 1) {
+                applyRatingChange(ratedUserId, 0, value);
+                afterCommit(() -> ratedUsersCache.removed(raterId, ratedUserId));
+                dataVersions.raterChanged(raterId);
+            }
         } else {
             throw new RuntimeException("Rating not found or user not authorized to delete it");
         }
     }
     
     /**
-     * Update user's rating statistics
+     * Recalculează statisticile și histograma unui utilizator din tabela ratings. Rândul utilizatorului
+     * este blocat înainte de citire, deci o modificare de rating concurentă este fie inclusă, fie aplicată după.
+     *
+     * @return true dacă statisticile salvate erau greșite
      */
-    public void updateUserRatingStats(Long userId) {
-        try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-            
-            Double avgRating = getAverageRating(userId);
-            Long totalRatings = getTotalRatings(userId);
-            
-            System.out.println("📊 Updating user stats for ID " + userId + ": avg=" + avgRating + ", total=" + totalRatings);
-            
-            user.setAverageRating(avgRating);
-            user.setTotalRatings(totalRatings);
-            
-            userRepository.save(user);
-            System.out.println("✅ User stats updated successfully");
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error updating user rating stats: " + e.getMessage());
-            e.printStackTrace();
+    public boolean reconcileUser(Long userId) {
+        userRepository.lockById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        RatingStats stored = userRepository.findRatingStats(userId).orElseThrow();
+        RatingSummary storedSummary = userRepository.findRatingSummaries(List.of(userId)).get(0);
+        RatingSummary actual = ratingRepository.computeRatingSummary(userId).orElseThrow();
+        long[] stars = actual.getStars();
+        long sum = 0;
+        for (int i = 0; i < stars.length; i++) {
+            sum += (i + 1) * stars[i];
+        }
+        long count = actual.getTotalRatings();
+        if ((stored.ratingSum() != null ? stored.ratingSum() : 0L) == sum && stored.count() == count
+                && Arrays.equals(storedSummary.getStars(), stars)) {
+            return false;
+        }
+        
+        System.out.println("📊 Reconciling rating stats for user " + userId + ": stored sum=" + stored.ratingSum()
+                + ", count=" + stored.totalRatings() + ", stars=" + Arrays.toString(storedSummary.getStars())
+                + "; actual sum=" + sum + ", count=" + count + ", stars=" + Arrays.toString(stars));
+        userRepository.setRatingStats(userId, sum, count, new RatingStats(sum, count).average());
+        userRepository.setRatingHistogram(userId, stars[0], stars[1], stars[2], stars[3], stars[4]);
+        ratingsChanged(userId);
+        return true;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RatingAggregate> findRatingAggregates(Collection<Long> userIds) {
+        return ratingRepository.findRatingAggregates(userIds);
+    }
+    
+    /**
+     * Schimbă valoarea unui rating existent și aplică diferența (nou - vechi) statisticilor.
+     * Rândul este blocat înainte de a citi valoarea veche, deci o altă modificare sau ștergere
+     * a aceluiași rating așteaptă commit-ul acestei tranzacții și vede apoi valoarea nouă.
+     */
+    private Rating changeRating(Rating existing, Integer rating, String comment) {
+        Long ratingId = existing.getId();
+        Long ratedUserId = existing.getRatedUser().getId();
+        Integer oldRating = ratingRepository.lockRatingValue(ratingId)
+                .orElseThrow(() -> new RuntimeException("Rating-ul nu a fost găsit."));
+        ratingRepository.updateRatingValue(ratingId, rating, comment);
+        applyRatingChange(ratedUserId, rating, oldRating);
+        return ratingRepository.findById(ratingId).orElseThrow();
+    }
+    
+    /**
+     * Aplică statisticilor un rating adăugat și/sau unul scos (0 = lipsă): suma, numărul și histograma.
+     */
+    private void applyRatingChange(Long userId, int addedStars, int removedStars) {
+        if (addedStars != removedStars) {
+            long countDelta = (addedStars > 0 ? 1 : 0) - (removedStars > 0 ? 1 : 0);
+            userRepository.applyRatingDelta(userId, addedStars - removedStars, countDelta, addedStars, removedStars);
+        }
+        // Comentariul poate fi schimbat și fără diferență de valoare
+        ratingsChanged(userId);
+    }
+    
+    // Modificarea intră în jurnal în aceeași tranzacție; profilul public se invalidează după commit
+    private void ratingsChanged(Long userId) {
+        dataVersions.ratingsChanged(userId);
+        afterCommit(() -> publicProfileCache.invalidate(userId));
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 }
@@ -0,0 +1,135 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.entity.User;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fluxul de curse recente afișat pe pagina principală.
+ * Un buffer circular de dimensiune fixă (cea mai nouă cursă la head), modificat doar
+ * sub lock; cititorii primesc o copie imuabilă publicată prin volatile, fără blocare.
+ */
+@Service
+public class RecentRidesFeed {
+    
+    // Păstrăm mai multe decât afișăm, ca ștergerile să nu golească imediat fluxul
+    public static final int CAPACITY = 20;
+    public static final int HOME_SIZE = 5;
+    
+    private final RideDTO[] ring = new RideDTO[CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    private volatile boolean warm = false;
+    private volatile List<RideDTO> view = List.of();
+    
+    public boolean isWarm() {
+        return warm;
+    }
+    
+    /**
+     * Primele "limit" curse, de la cea mai nouă. Nu blochează și nu rulează interogări.
+     */
+    public List<RideDTO> latest(int limit) {
+        List<RideDTO> current = view;
+        return current.size() > limit ? current.subList(0, limit) : current;
+    }
+    
+    /**
+     * Reîncarcă fluxul dintr-o listă deja ordonată de la cea mai nouă cursă.
+     */
+    public synchronized void reset(List<RideDTO> newestFirst) {
+        head = 0;
+        size = 0;
+        int count = Math.min(newestFirst.size(), CAPACITY);
+        for (int i = 0; i < count; i++) {
+            ring[i] = newestFirst.get(i);
+        }
+        for (int i = count; i < CAPACITY; i++) {
+            ring[i] = null;
+        }
+        size = count;
+        warm = true;
+        publish();
+    }
+    
+    public synchronized void push(RideDTO ride) {
+        head = (head - 1 + CAPACITY) % CAPACITY;
+        ring[head] = ride;
+        size = Math.min(size + 1, CAPACITY);
+        publish();
+    }
+    
+    public void remove(Long rideId) {
+        removeAll(List.of(rideId));
+    }
+    
+    public synchronized void removeAll(Collection<Long> rideIds) {
+        List<RideDTO> kept = new ArrayList<>(size);
+        for (RideDTO ride : view) {
+            if (!rideIds.contains(ride.getId())) {
+                kept.add(ride);
+            }
+        }
+        if (kept.size() == size) {
+            return;
+        }
+        boolean wasFull = size == CAPACITY;
+        reset(kept);
+        // Dacă fluxul era plin, pot exista curse mai vechi care nu mai încap în el: reîncărcăm la următoarea citire
+        if (wasFull && kept.size() < HOME_SIZE) {
+            warm = false;
+        }
+    }
+    
+    /**
+     * Actualizează numele și poza șoferului în cursele deja afișate.
+     */
+    public void updateDriver(User user) {
+        replace(ride -> user.getId().equals(ride.getUserId()), ride -> new RideDTO(
+                ride.getId(), ride.getFromLocation(), ride.getToLocation(),
+                ride.getDepartureTime(), ride.getTravelDate(), ride.getAvailableSeats(),
+                ride.getPrice(), ride.getDescription(), ride.getUserId(),
+                user.getFirstName() + " " + user.getLastName(), user.getPhone(),
+                user.getEmail(), user.getProfileImage(), ride.getCreatedAt(), ride.getIsActive(),
+                ride.getTemplateId()));
+    }
+    
+    public void adjustSeats(Long rideId, int delta) {
+        replace(ride -> rideId.equals(ride.getId()), ride -> new RideDTO(
+                ride.getId(), ride.getFromLocation(), ride.getToLocation(),
+                ride.getDepartureTime(), ride.getTravelDate(), ride.getAvailableSeats() + delta,
+                ride.getPrice(), ride.getDescription(), ride.getUserId(),
+                ride.getDriverName(), ride.getDriverPhone(), ride.getDriverEmail(),
+                ride.getDriverProfileImage(), ride.getCreatedAt(), ride.getIsActive(),
+                ride.getTemplateId()));
+    }
+    
+    // Înlocuiește intrările potrivite cu copii modificate; snapshot-ul publicat rămâne neschimbat
+    private synchronized void replace(Predicate<RideDTO> matches, UnaryOperator<RideDTO> update) {
+        boolean changed = false;
+        for (int i = 0; i < CAPACITY; i++) {
+            RideDTO ride = ring[i];
+            if (ride != null && matches.test(ride)) {
+                ring[i] = update.apply(ride);
+                changed = true;
+            }
+        }
+        if (changed) {
+            publish();
+        }
+    }
+    
+    private void publish() {
+        List<RideDTO> snapshot = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            snapshot.add(ring[(head + i) % CAPACITY]);
+        }
+        view = List.copyOf(snapshot);
+    }
+}
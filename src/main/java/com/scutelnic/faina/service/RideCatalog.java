@@ -0,0 +1,567 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.dto.RideRef;
+import com.scutelnic.faina.entity.Ride;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalogul în memorie al curselor active, stocat pe coloane (struct-of-arrays).
+ * Fiecare cursă ocupă un slot; fiecare rută (localitate plecare, localitate sosire) are
+ * un index de sloturi sortat după ora plecării, deci o căutare este o căutare binară
+ * plus parcurgerea câtorva intrări. Textul căutat este rezolvat la id-uri de localități printr-un
+ * index sortat al cuvintelor din numele normalizate, iar rutele sunt găsite după aceste id-uri,
+ * fără a parcurge toate rutele sau toate localitățile. Catalogul este ținut la zi de RideService
+ * la adăugare, ștergere și expirare, inclusiv pentru modificările făcute de alte noduri.
+ */
+@Service
+public class RideCatalog {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Coloanele catalogului, indexate după slot
+    private long[] rideIds = new long[INITIAL_CAPACITY];
+    private long[] fromLocalityIds = new long[INITIAL_CAPACITY];
+    private long[] toLocalityIds = new long[INITIAL_CAPACITY];
+    private int[] fromNames = new int[INITIAL_CAPACITY];
+    private int[] toNames = new int[INITIAL_CAPACITY];
+    private long[] departures = new long[INITIAL_CAPACITY];  // secunde, ora locală
+    private long[] travelDates = new long[INITIAL_CAPACITY]; // secunde, ora locală
+    private long[] createdAts = new long[INITIAL_CAPACITY];  // microsecunde, ora locală
+    private int[] seats = new int[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private long[] driverIds = new long[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private long[] templateIds = new long[INITIAL_CAPACITY]; // 0 = cursă fără șablon recurent
+    private int highWater = 0;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, Integer> slotByRideId = new HashMap<>();
+
+    // Cursele fiecărui șofer, pentru resincronizarea după modificările altor noduri
+    private final Map<Long, Set<Long>> rideIdsByDriver = new HashMap<>();
+
+    // Index pe rută: sloturi sortate după ora plecării
+    private final Map<RouteKey, int[]> routes = new HashMap<>();
+
+    // Rutele existente după localitatea de plecare și după cea de sosire
+    private final Map<Long, Set<RouteKey>> routesByFrom = new HashMap<>();
+    private final Map<Long, Set<RouteKey>> routesByTo = new HashMap<>();
+
+    // Dicționar de nume afișate (fromLocation / toLocation)
+    private final Map<String, Integer> nameKeys = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // Cheile normalizate ale localităților și datele șoferilor, necesare la căutare și la DTO
+    private final Map<Long, String> localityKeys = new HashMap<>();
+
+    // Fiecare cuvânt din cheia unei localități, împreună cu restul cheii ("stefan voda", "voda"),
+    // sortat: localitățile care se potrivesc cu un prefix sunt un interval din această hartă
+    private final TreeMap<String, Set<Long>> localityIdsByWord = new TreeMap<>();
+    private final Map<Long, DriverCard> drivers = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Reîncarcă tot catalogul din lista de curse active.
+     */
+    public void reload(List<Ride> rides, Map<Long, String> localities) {
+        lock.writeLock().lock();
+        try {
+            highWater = 0;
+            freeSlots.clear();
+            slotByRideId.clear();
+            rideIdsByDriver.clear();
+            routes.clear();
+            routesByFrom.clear();
+            routesByTo.clear();
+            nameKeys.clear();
+            names.clear();
+            localityKeys.clear();
+            localityIdsByWord.clear();
+            localities.forEach(this::indexLocality);
+            drivers.clear();
+
+            for (Ride ride : rides) {
+                insert(ride);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Ride ride) {
+        lock.writeLock().lock();
+        try {
+            if (ride.getFromLocality() != null) {
+                indexLocality(ride.getFromLocality().getId(), ride.getFromLocality().getNormalizedName());
+            }
+            if (ride.getToLocality() != null) {
+                indexLocality(ride.getToLocality().getId(), ride.getToLocality().getNormalizedName());
+            }
+            insert(ride);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long rideId) {
+        lock.writeLock().lock();
+        try {
+            delete(rideId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> rideIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long rideId : rideIds) {
+                delete(rideId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplică o modificare a numărului de locuri libere (rezervare sau eliberare).
+     */
+    public void adjustSeats(Long rideId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByRideId.get(rideId);
+            if (slot != null) {
+                seats[slot] += delta;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Locurile libere ale curselor unui șofer aflate în catalog, după id-ul cursei.
+     */
+    public Map<Long, Integer> seatsByDriver(Long driverId) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> result = new HashMap<>();
+            for (Long rideId : rideIdsByDriver.getOrDefault(driverId, Set.of())) {
+                result.put(rideId, seats[slotByRideId.get(rideId)]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Cursele din catalog cu data călătoriei înainte de cutoff (expirate, dar poate încă active în catalog).
+     */
+    public List<RideRef> findTravellingBefore(LocalDateTime cutoff) {
+        long limit = toEpochSecond(cutoff);
+        lock.readLock().lock();
+        try {
+            List<RideRef> result = new ArrayList<>();
+            for (int slot : slotByRideId.values()) {
+                if (travelDates[slot] < limit) {
+                    result.add(new RideRef(rideIds[slot], names.get(fromNames[slot]), names.get(toNames[slot])));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Cursa activă din catalog, dacă există.
+     */
+    public Optional<RideDTO> find(Long rideId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotByRideId.get(rideId);
+            return slot != null ? Optional.of(toDTO(slot)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Actualizează datele afișate ale șoferului după modificarea profilului.
+     */
+    public void updateDriver(User user) {
+        lock.writeLock().lock();
+        try {
+            if (drivers.containsKey(user.getId())) {
+                drivers.put(user.getId(), DriverCard.of(user));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<RideDTO> findAllActive() {
+        lock.readLock().lock();
+        try {
+            List<Integer> slots = new ArrayList<>(slotByRideId.values());
+            return toNewestFirstDTOs(slots);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caută cursele pe rutele care se potrivesc cu textul introdus, cu plecare
+     * din ziua travelDate încolo și cu cel puțin minSeats locuri libere.
+     */
+    public List<RideDTO> search(String fromLocation, String toLocation, LocalDate travelDate, Integer minSeats) {
+        String fromKey = LocationNormalizer.normalize(fromLocation);
+        String toKey = LocationNormalizer.normalize(toLocation);
+        long minDeparture = toEpochSecond(travelDate.atStartOfDay());
+        int requiredSeats = minSeats != null ? minSeats : 0;
+
+        lock.readLock().lock();
+        try {
+            Set<Long> fromIds = fromKey.isEmpty() ? null : matchLocalities(fromKey);
+            Set<Long> toIds = toKey.isEmpty() ? null : matchLocalities(toKey);
+
+            List<Integer> found = new ArrayList<>();
+            for (RouteKey key : candidateRoutes(fromIds, toIds)) {
+                if ((fromIds != null && !fromIds.contains(key.from()))
+                        || (toIds != null && !toIds.contains(key.to()))) {
+                    continue;
+                }
+                int[] slots = routes.get(key);
+                for (int i = firstDepartureAtOrAfter(slots, minDeparture); i < slots.length; i++) {
+                    if (seats[slots[i]] >= requiredSeats) {
+                        found.add(slots[i]);
+                    }
+                }
+            }
+            return toNewestFirstDTOs(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<RideDTO> findRecent(int limit) {
+        lock.readLock().lock();
+        try {
+            // Selecție parțială: păstrăm doar cele mai noi "limit" sloturi
+            int[] best = new int[limit];
+            int count = 0;
+            for (int slot : slotByRideId.values()) {
+                int position = count;
+                while (position > 0 && isNewer(slot, best[position - 1])) {
+                    position--;
+                }
+                if (position < limit) {
+                    int moved = Math.min(count, limit - 1) - position;
+                    System.arraycopy(best, position, best, position + 1, moved);
+                    best[position] = slot;
+                    count = Math.min(count + 1, limit);
+                }
+            }
+            List<RideDTO> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(toDTO(best[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Operații interne, apelate sub write lock ---
+
+    private void insert(Ride ride) {
+        if (ride.getId() == null || slotByRideId.containsKey(ride.getId())) {
+            return;
+        }
+        int slot = freeSlots.isEmpty() ? highWater++ : freeSlots.pop();
+        ensureCapacity(slot + 1);
+
+        long fromId = ride.getFromLocality() != null ? ride.getFromLocality().getId() : 0L;
+        long toId = ride.getToLocality() != null ? ride.getToLocality().getId() : 0L;
+        User user = ride.getUser();
+        long driverId = user != null && user.getId() != null ? user.getId() : 0L;
+
+        rideIds[slot] = ride.getId();
+        fromLocalityIds[slot] = fromId;
+        toLocalityIds[slot] = toId;
+        fromNames[slot] = nameKey(ride.getFromLocation());
+        toNames[slot] = nameKey(ride.getToLocation());
+        departures[slot] = toEpochSecond(ride.getDepartureTime());
+        travelDates[slot] = toEpochSecond(ride.getTravelDate());
+        createdAts[slot] = toEpochMicros(ride.getCreatedAt());
+        seats[slot] = ride.getAvailableSeats();
+        priceCents[slot] = ride.getPrice().movePointRight(2).longValue();
+        driverIds[slot] = driverId;
+        descriptions[slot] = ride.getDescription();
+        templateIds[slot] = ride.getTemplate() != null ? ride.getTemplate().getId() : 0L;
+
+        if (driverId != 0L) {
+            drivers.put(driverId, DriverCard.of(user));
+        }
+        slotByRideId.put(ride.getId(), slot);
+        rideIdsByDriver.computeIfAbsent(driverId, id -> new HashSet<>()).add(ride.getId());
+
+        RouteKey route = new RouteKey(fromId, toId);
+        int[] routeSlots = routes.get(route);
+        if (routeSlots == null) {
+            routeSlots = new int[0];
+            routesByFrom.computeIfAbsent(fromId, id -> new HashSet<>()).add(route);
+            routesByTo.computeIfAbsent(toId, id -> new HashSet<>()).add(route);
+        }
+        int position = firstDepartureAtOrAfter(routeSlots, departures[slot]);
+        int[] updated = new int[routeSlots.length + 1];
+        System.arraycopy(routeSlots, 0, updated, 0, position);
+        updated[position] = slot;
+        System.arraycopy(routeSlots, position, updated, position + 1, routeSlots.length - position);
+        routes.put(route, updated);
+    }
+
+    private void delete(Long rideId) {
+        Integer slot = slotByRideId.remove(rideId);
+        if (slot == null) {
+            return;
+        }
+        Set<Long> driverRides = rideIdsByDriver.get(driverIds[slot]);
+        if (driverRides != null) {
+            driverRides.remove(rideId);
+            if (driverRides.isEmpty()) {
+                // Ultima cursă a șoferului: datele lui nu mai sunt necesare
+                rideIdsByDriver.remove(driverIds[slot]);
+                drivers.remove(driverIds[slot]);
+            }
+        }
+
+        RouteKey route = new RouteKey(fromLocalityIds[slot], toLocalityIds[slot]);
+        int[] routeSlots = routes.get(route);
+        if (routeSlots != null) {
+            int[] updated = new int[routeSlots.length - 1];
+            int next = 0;
+            for (int routeSlot : routeSlots) {
+                if (routeSlot != slot) {
+                    updated[next++] = routeSlot;
+                }
+            }
+            if (updated.length == 0) {
+                routes.remove(route);
+                removeFromIndex(routesByFrom, route.from(), route);
+                removeFromIndex(routesByTo, route.to(), route);
+            } else {
+                routes.put(route, updated);
+            }
+        }
+
+        descriptions[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void indexLocality(Long localityId, String key) {
+        String previous = localityKeys.put(localityId, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            for (String word : wordSuffixes(previous)) {
+                removeFromIndex(localityIdsByWord, word, localityId);
+            }
+        }
+        for (String word : wordSuffixes(key)) {
+            localityIdsByWord.computeIfAbsent(word, w -> new HashSet<>()).add(localityId);
+        }
+    }
+
+    // Cheia întreagă și restul cheii de la fiecare început de cuvânt
+    private static List<String> wordSuffixes(String key) {
+        List<String> suffixes = new ArrayList<>();
+        suffixes.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            if (i + 1 < key.length()) {
+                suffixes.add(key.substring(i + 1));
+            }
+        }
+        return suffixes;
+    }
+
+    private static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+        Set<V> values = index.get(key);
+        if (values != null && values.remove(value) && values.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private int nameKey(String name) {
+        Integer key = nameKeys.get(name);
+        if (key == null) {
+            key = names.size();
+            names.add(name);
+            nameKeys.put(name, key);
+        }
+        return key;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= rideIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, rideIds.length * 2);
+        rideIds = Arrays.copyOf(rideIds, capacity);
+        fromLocalityIds = Arrays.copyOf(fromLocalityIds, capacity);
+        toLocalityIds = Arrays.copyOf(toLocalityIds, capacity);
+        fromNames = Arrays.copyOf(fromNames, capacity);
+        toNames = Arrays.copyOf(toNames, capacity);
+        departures = Arrays.copyOf(departures, capacity);
+        travelDates = Arrays.copyOf(travelDates, capacity);
+        createdAts = Arrays.copyOf(createdAts, capacity);
+        seats = Arrays.copyOf(seats, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        driverIds = Arrays.copyOf(driverIds, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        templateIds = Arrays.copyOf(templateIds, capacity);
+    }
+
+    // --- Citire, apelate sub read lock ---
+
+    // Localitățile al căror nume (sau un cuvânt din nume) începe cu prefixul
+    private Set<Long> matchLocalities(String prefix) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> matched : localityIdsByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            ids.addAll(matched);
+        }
+        return ids;
+    }
+
+    // Rutele care pot conține rezultate: cele ale localităților găsite, din partea cu mai puține rute
+    private Collection<RouteKey> candidateRoutes(Set<Long> fromIds, Set<Long> toIds) {
+        if (fromIds == null && toIds == null) {
+            return routes.keySet();
+        }
+        List<RouteKey> fromRoutes = fromIds == null ? null : routesOf(routesByFrom, fromIds);
+        List<RouteKey> toRoutes = toIds == null ? null : routesOf(routesByTo, toIds);
+        if (fromRoutes == null) {
+            return toRoutes;
+        }
+        if (toRoutes == null) {
+            return fromRoutes;
+        }
+        return fromRoutes.size() <= toRoutes.size() ? fromRoutes : toRoutes;
+    }
+
+    private static List<RouteKey> routesOf(Map<Long, Set<RouteKey>> index, Set<Long> localityIds) {
+        List<RouteKey> result = new ArrayList<>();
+        for (Long localityId : localityIds) {
+            result.addAll(index.getOrDefault(localityId, Set.of()));
+        }
+        return result;
+    }
+
+    private int firstDepartureAtOrAfter(int[] routeSlots, long departure) {
+        int low = 0;
+        int high = routeSlots.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[routeSlots[mid]] < departure) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean isNewer(int slot, int other) {
+        if (createdAts[slot] != createdAts[other]) {
+            return createdAts[slot] > createdAts[other];
+        }
+        return rideIds[slot] > rideIds[other];
+    }
+
+    private List<RideDTO> toNewestFirstDTOs(List<Integer> slots) {
+        slots.sort((a, b) -> isNewer(a, b) ? -1 : (isNewer(b, a) ? 1 : 0));
+        List<RideDTO> result = new ArrayList<>(slots.size());
+        for (int slot : slots) {
+            result.add(toDTO(slot));
+        }
+        return result;
+    }
+
+    private RideDTO toDTO(int slot) {
+        DriverCard driver = drivers.get(driverIds[slot]);
+        return new RideDTO(
+            rideIds[slot],
+            names.get(fromNames[slot]),
+            names.get(toNames[slot]),
+            fromEpochSecond(departures[slot]),
+            fromEpochSecond(travelDates[slot]),
+            seats[slot],
+            BigDecimal.valueOf(priceCents[slot], 2),
+            descriptions[slot],
+            driver != null ? driverIds[slot] : 0L,
+            driver != null ? driver.name() : "Utilizator necunoscut",
+            driver != null ? driver.phone() : "N/A",
+            driver != null ? driver.email() : "N/A",
+            driver != null ? driver.profileImage() : null,
+            fromEpochMicros(createdAts[slot]),
+            true,
+            templateIds[slot] != 0L ? templateIds[slot] : null
+        );
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L),
+                (int) Math.floorMod(epochMicros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private record RouteKey(long from, long to) {
+    }
+
+    private record DriverCard(String name, String phone, String email, String profileImage) {
+        static DriverCard of(User user) {
+            return new DriverCard(user.getFirstName() + " " + user.getLastName(),
+                    user.getPhone(), user.getEmail(), user.getProfileImage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.scutelnic.faina.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rulează periodic expirarea curselor, după ora Moldovei, și publică metrici:
+ * rides.expiry.rows (curse dezactivate) și rides.expiry.duration (durata unei rulări).
+ */
+@Service
+public class RideExpiryJob {
+    
+    @Autowired
+    private RideService rideService;
+    
+    @Autowired
+    private RideTemplateService rideTemplateService;
+    
+    @Autowired
+    private SavedSearchService savedSearchService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Counter expiredRows;
+    private Timer duration;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        expiredRows = Counter.builder("rides.expiry.rows")
+                .description("Curse marcate ca inactive de job-ul de expirare")
+                .register(meterRegistry);
+        duration = Timer.builder("rides.expiry.duration")
+                .description("Durata unei rulări a job-ului de expirare")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${rides.expiry.cron:0 */15 * * * *}", zone = "Europe/Chisinau")
+    public void run() {
+        long start = System.nanoTime();
+        try {
+            int expired = rideService.cleanupExpiredRides();
+            expiredRows.increment(expired);
+            rideTemplateService.pruneMaterialized();
+            savedSearchService.pruneExpired();
+        } catch (Exception e) {
+            System.err.println("Eroare la expirarea curselor: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
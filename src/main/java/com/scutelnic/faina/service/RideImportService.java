@@ -0,0 +1,221 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.AddRideRequest;
+import com.scutelnic.faina.dto.RideImportError;
+import com.scutelnic.faina.dto.RideImportResult;
+import com.scutelnic.faina.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Import de curse în bloc (JSON sau CSV) pentru partenerii care publică multe curse odată.
+ * Toate rândurile sunt validate înainte de salvare; erorile sunt raportate pe rând.
+ */
+@Service
+public class RideImportService {
+    
+    private static final int MAX_SEATS = 8;
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+    private static final String[] CSV_COLUMNS = {
+        "fromLocation", "toLocation", "travelDate", "departureTime", "availableSeats", "price", "description"
+    };
+    
+    @Value("${rides.import.max-rows:10000}")
+    private int maxRows;
+    
+    @Autowired
+    private RideService rideService;
+    
+    /**
+     * Importă cursele date. Dacă skipInvalid este false și există rânduri invalide, nu se salvează nimic.
+     */
+    public RideImportResult importRides(List<AddRideRequest> rows, User user, boolean skipInvalid) {
+        long started = System.currentTimeMillis();
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("Un import poate conține cel mult " + maxRows + " curse");
+        }
+        
+        List<RideImportError> errors = new ArrayList<>();
+        List<AddRideRequest> valid = new ArrayList<>(rows.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows.size(); i++) {
+            String error = validate(rows.get(i), now);
+            if (error != null) {
+                errors.add(new RideImportError(i + 1, error));
+            } else {
+                valid.add(rows.get(i));
+            }
+        }
+        
+        int imported = 0;
+        if (!valid.isEmpty() && (errors.isEmpty() || skipInvalid)) {
+            imported = rideService.addRides(valid, user);
+        }
+        
+        long duration = System.currentTimeMillis() - started;
+        System.out.println("Import curse: " + imported + " salvate, " + errors.size() + " erori, " + duration + " ms");
+        return new RideImportResult(rows.size(), imported, errors, duration);
+    }
+    
+    /**
+     * Importă curse dintr-un CSV cu antet. Coloanele pot fi în orice ordine;
+     * description este opțională și poate conține rânduri noi, între ghilimele.
+     * Rândurile care nu pot fi citite sunt raportate ca erori.
+     */
+    public RideImportResult importCsv(String csv, User user, boolean skipInvalid) {
+        List<List<String>> records = parseCsv(csv.replace("\uFEFF", ""));
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("Fișierul CSV este gol");
+        }
+        
+        Map<String, Integer> header = new HashMap<>();
+        List<String> headerCells = records.get(0);
+        for (int i = 0; i < headerCells.size(); i++) {
+            header.put(headerCells.get(i).trim(), i);
+        }
+        for (int i = 0; i < CSV_COLUMNS.length - 1; i++) {
+            if (!header.containsKey(CSV_COLUMNS[i])) {
+                throw new IllegalArgumentException("Lipsește coloana " + CSV_COLUMNS[i] + " din antetul CSV");
+            }
+        }
+        
+        List<AddRideRequest> rows = new ArrayList<>();
+        List<RideImportError> parseErrors = new ArrayList<>();
+        for (int record = 1; record < records.size(); record++) {
+            List<String> cells = records.get(record);
+            AddRideRequest request = new AddRideRequest();
+            try {
+                request.setFromLocation(cell(cells, header, "fromLocation"));
+                request.setToLocation(cell(cells, header, "toLocation"));
+                String travelDate = cell(cells, header, "travelDate");
+                String departureTime = cell(cells, header, "departureTime");
+                String availableSeats = cell(cells, header, "availableSeats");
+                String price = cell(cells, header, "price");
+                request.setTravelDate(travelDate == null ? null : LocalDate.parse(travelDate));
+                request.setDepartureTime(departureTime == null ? null : LocalTime.parse(departureTime));
+                request.setAvailableSeats(availableSeats == null ? null : Integer.valueOf(availableSeats));
+                request.setPrice(price == null ? null : new BigDecimal(price));
+                request.setDescription(cell(cells, header, "description"));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                parseErrors.add(new RideImportError(rows.size() + 1, "Valoare invalidă: " + e.getMessage()));
+                request = null;
+            }
+            // Păstrăm numerotarea rândurilor: un rând ilizibil ocupă un loc gol care va fi raportat ca invalid
+            rows.add(request == null ? new AddRideRequest() : request);
+        }
+        
+        RideImportResult result = importRides(rows, user, skipInvalid);
+        if (!parseErrors.isEmpty()) {
+            // Erorile de citire înlocuiesc mesajele generice de validare pentru aceleași rânduri
+            List<RideImportError> errors = new ArrayList<>(parseErrors);
+            result.getErrors().stream()
+                    .filter(e -> parseErrors.stream().noneMatch(p -> p.getRow() == e.getRow()))
+                    .forEach(errors::add);
+            errors.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+            result.setErrors(errors);
+        }
+        return result;
+    }
+    
+    private String validate(AddRideRequest row, LocalDateTime now) {
+        if (row == null) {
+            return "Rând gol";
+        }
+        if (isBlank(row.getFromLocation()) || isBlank(row.getToLocation())) {
+            return "Locația de plecare și destinația sunt obligatorii";
+        }
+        if (row.getFromLocation().trim().equalsIgnoreCase(row.getToLocation().trim())) {
+            return "Locația de plecare și destinația trebuie să fie diferite";
+        }
+        if (row.getTravelDate() == null || row.getDepartureTime() == null) {
+            return "Data și ora plecării sunt obligatorii";
+        }
+        if (LocalDateTime.of(row.getTravelDate(), row.getDepartureTime()).isBefore(now)) {
+            return "Data plecării este în trecut";
+        }
+        if (row.getAvailableSeats() == null || row.getAvailableSeats() < 1 || row.getAvailableSeats() > MAX_SEATS) {
+            return "Numărul de locuri trebuie să fie între 1 și " + MAX_SEATS;
+        }
+        if (row.getPrice() == null || row.getPrice().signum() <= 0) {
+            return "Prețul trebuie să fie pozitiv";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Descrierea poate avea cel mult " + MAX_DESCRIPTION_LENGTH + " caractere";
+        }
+        return null;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    private static String cell(List<String> cells, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= cells.size()) {
+            return null;
+        }
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    // Rândurile CSV: câmpuri separate prin virgulă, ghilimele duble pentru câmpuri cu virgule,
+    // ghilimele sau rânduri noi; rândurile goale sunt sărite
+    private static List<List<String>> parseCsv(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    // CRLF în interiorul unui câmp devine un singur rând nou
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                endRecord(records, cells, current);
+                cells = new ArrayList<>();
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Fișierul CSV conține ghilimele neînchise");
+        }
+        endRecord(records, cells, current);
+        return records;
+    }
+    
+    private static void endRecord(List<List<String>> records, List<String> cells, StringBuilder current) {
+        cells.add(current.toString());
+        current.setLength(0);
+        if (cells.size() > 1 || !cells.get(0).isBlank()) {
+            records.add(cells);
+        }
+    }
+}
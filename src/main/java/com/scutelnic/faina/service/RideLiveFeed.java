@@ -0,0 +1,265 @@
+package com.scutelnic.faina.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.scutelnic.faina.dto.PublicRideMixin;
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.dto.RideEvent;
+import com.scutelnic.faina.util.LocationNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Flux live (Server-Sent Events) cu cursele create, șterse, expirate și cu locurile modificate.
+ * Conexiunile inactive nu țin fire de execuție: SseEmitter folosește cererile asincrone ale
+ * servlet-ului. Fiecare abonat are o coadă limitată; publicarea doar adaugă în coadă, iar
+ * trimiterea se face pe fire virtuale, câte unul doar cât timp abonatul are evenimente de primit.
+ * Operațiile în bloc (import, expirare) publică un singur mesaj rides-batch pentru tot lotul.
+ * Unui abonat care nu ține pasul (coada plină) i se renunță la evenimentele din coadă și i se
+ * trimite resync, ca să recitească lista; la fel când lotul lui ar fi prea mare. Conexiunea rămâne deschisă.
+ * Fiecare eveniment este serializat o singură dată, indiferent de numărul abonaților, fără datele
+ * de contact ale șoferului (fluxul este deschis și vizitatorilor nelogați).
+ */
+@Service
+public class RideLiveFeed {
+
+    // Peste atâtea evenimente într-un lot, abonatul primește resync în loc de lot
+    private static final int MAX_BATCH_EVENTS = 256;
+
+    private static final Set<DataWithMediaType> RESYNC = SseEmitter.event().name(RideEvent.RESYNC).data("{}").build();
+
+    @Value("${rides.live.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${rides.live.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${rides.live.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter eventWriter;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void init() {
+        eventWriter = objectMapper.copy().addMixIn(RideDTO.class, PublicRideMixin.class).writerFor(RideEvent.class);
+    }
+
+    /**
+     * Abonează un client, opțional doar la cursele ale căror localități încep cu prefixele date.
+     */
+    public SseEmitter subscribe(String fromLocation, String toLocation) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Prea mulți abonați la fluxul live");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, LocationNormalizer.normalize(fromLocation),
+                LocationNormalizer.normalize(toLocation), new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscriber.close());
+        emitter.onError(e -> subscriber.close());
+        subscribers.add(subscriber);
+        // Primul mesaj trimite antetele imediat, ca browserul să considere conexiunea deschisă
+        subscriber.enqueue(SseEmitter.event().comment("conectat").reconnectTime(5000).build());
+        return emitter;
+    }
+
+    public void publish(RideEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String fromKey = LocationNormalizer.normalize(event.fromLocation());
+        String toKey = LocationNormalizer.normalize(event.toLocation());
+        Set<DataWithMediaType> message = null;
+        for (Subscriber subscriber : subscribers) {
+            if (!matches(fromKey, subscriber.fromPrefix()) || !matches(toKey, subscriber.toPrefix())) {
+                continue;
+            }
+            if (message == null) {
+                try {
+                    message = SseEmitter.event().name(event.type()).data(eventWriter.writeValueAsString(event)).build();
+                } catch (JsonProcessingException e) {
+                    System.err.println("Eveniment live invalid: " + e.getMessage());
+                    return;
+                }
+            }
+            subscriber.enqueue(message);
+        }
+    }
+
+    /**
+     * Publică un lot de evenimente: fiecare abonat primește un singur mesaj cu evenimentele
+     * care îl privesc. Abonații cu aceleași filtre folosesc același mesaj.
+     */
+    public void publishAll(List<RideEvent> events) {
+        if (events.size() == 1) {
+            publish(events.get(0));
+        }
+        if (events.size() <= 1 || subscribers.isEmpty()) {
+            return;
+        }
+        List<String> fromKeys = new ArrayList<>(events.size());
+        List<String> toKeys = new ArrayList<>(events.size());
+        String[] json = new String[events.size()];
+        for (RideEvent event : events) {
+            fromKeys.add(LocationNormalizer.normalize(event.fromLocation()));
+            toKeys.add(LocationNormalizer.normalize(event.toLocation()));
+        }
+        Map<String, Set<DataWithMediaType>> messages = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            Set<DataWithMediaType> message = messages.computeIfAbsent(subscriber.fromPrefix() + "\n" + subscriber.toPrefix(), key -> {
+                StringBuilder data = new StringBuilder("[");
+                int matched = 0;
+                for (int i = 0; i < events.size(); i++) {
+                    if (!matches(fromKeys.get(i), subscriber.fromPrefix()) || !matches(toKeys.get(i), subscriber.toPrefix())) {
+                        continue;
+                    }
+                    if (++matched > MAX_BATCH_EVENTS) {
+                        return RESYNC;
+                    }
+                    if (json[i] == null) {
+                        try {
+                            json[i] = eventWriter.writeValueAsString(events.get(i));
+                        } catch (JsonProcessingException e) {
+                            System.err.println("Eveniment live invalid: " + e.getMessage());
+                            continue;
+                        }
+                    }
+                    data.append(data.length() > 1 ? "," : "").append(json[i]);
+                }
+                return matched == 0 ? Set.of() : SseEmitter.event().name(RideEvent.BATCH).data(data.append(']').toString()).build();
+            });
+            if (!message.isEmpty()) {
+                subscriber.enqueue(message);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Comentariu periodic, ca proxy-urile să nu închidă conexiunile fără trafic
+     * și ca abonații deconectați să fie descoperiți.
+     */
+    @Scheduled(fixedDelayString = "${rides.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Subscriber subscriber : subscribers) {
+            // Un abonat care are deja mesaje de primit nu are nevoie de ping
+            if (subscriber.isIdle()) {
+                subscriber.enqueue(ping);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        senders.shutdownNow();
+    }
+
+    private static boolean matches(String localityKey, String prefix) {
+        return prefix.isEmpty() || localityKey.startsWith(prefix) || localityKey.contains(" " + prefix);
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final String fromPrefix;
+        private final String toPrefix;
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, String fromPrefix, String toPrefix,
+                           BlockingQueue<Set<DataWithMediaType>> queue) {
+            this.emitter = emitter;
+            this.fromPrefix = fromPrefix;
+            this.toPrefix = toPrefix;
+            this.queue = queue;
+        }
+
+        String fromPrefix() {
+            return fromPrefix;
+        }
+
+        String toPrefix() {
+            return toPrefix;
+        }
+
+        boolean isIdle() {
+            return queue.isEmpty() && !sending.get();
+        }
+
+        void enqueue(Set<DataWithMediaType> message) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                // Evenimentele din coadă nu mai contează: clientul recitește lista la resync
+                System.out.println("Abonat live prea lent, evenimentele în așteptare înlocuite cu resync");
+                queue.clear();
+                queue.offer(RESYNC);
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<DataWithMediaType> message;
+                while (!closed && (message = queue.poll()) != null) {
+                    try {
+                        emitter.send(message);
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                    }
+                }
+                sending.set(false);
+                // Un eveniment adăugat după ultimul poll, dar înainte de reset, ar rămâne netrimis
+            } while (!closed && !queue.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // conexiunea este deja închisă
+            }
+        }
+    }
+}
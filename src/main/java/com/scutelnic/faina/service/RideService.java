@@ -1,17 +1,49 @@
 package com.scutelnic.faina.service;
 
+import com.scutelnic.faina.entity.BookingStatus;
+import com.scutelnic.faina.entity.Locality;
 import com.scutelnic.faina.entity.Ride;
 import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.repository.BookingRepository;
 import com.scutelnic.faina.repository.RideRepository;
+import com.scutelnic.faina.dto.BookingDTO;
+import com.scutelnic.faina.dto.PublicRideMixin;
 import com.scutelnic.faina.dto.RideDTO;
 import com.scutelnic.faina.dto.SearchRideRequest;
 import com.scutelnic.faina.dto.AddRideRequest;
+import com.scutelnic.faina.dto.RidePage;
+import com.scutelnic.faina.dto.LocationCount;
+import com.scutelnic.faina.dto.RideRef;
+import com.scutelnic.faina.dto.RideEvent;
+import com.scutelnic.faina.util.LocationNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import java.time.ZoneId;
@@ -19,9 +51,50 @@ import java.time.ZoneId;
 @Service
 public class RideService {
     
+    // Limite folosite în locul parametrilor null în interogările paginate
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int MAX_PAGE_SIZE = 50;
+    
+    private static final int LOCALITY_BACKFILL_BATCH = 500;
+    private static final Set<BookingStatus> ACTIVE_BOOKINGS = EnumSet.of(BookingStatus.HELD, BookingStatus.CONFIRMED);
+    
+    @Value("${rides.expiry.batch-size:500}")
+    private int expiryBatchSize;
+    
     @Autowired
     private RideRepository rideRepository;
     
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private LocalityService localityService;
+    
+    @Autowired
+    private RideCatalog rideCatalog;
+    
+    @Autowired
+    private RecentRidesFeed recentRidesFeed;
+    
+    @Autowired
+    private LocationListCache locationListCache;
+    
+    @Autowired
+    private RideTemplateService rideTemplateService;
+    
+    @Autowired
+    private DataVersions dataVersions;
+    
+    @Autowired
+    private RideLiveFeed rideLiveFeed;
+    
+    @Autowired
+    private SavedSearchService savedSearchService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     public List<RideDTO> getAllActiveRides() {
         try {
             System.out.println("Fetching all active rides from database...");
@@ -29,15 +102,18 @@ public class RideService {
             // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
             // cleanupExpiredRides() va fi apelată periodic sau când este necesar
             
-            List<Ride> rides = rideRepository.findAllActiveRides();
-            System.out.println("Found " + rides.size() + " active rides in database");
+            // Cursele recurente sunt extinse doar pentru următoarele zile (orizontul șabloanelor)
+            LocalDate today = LocalDate.now();
+            List<RideDTO> occurrences = rideTemplateService.expand("", "", today,
+                    today.plusDays(rideTemplateService.getHorizonDays()), null);
             
-            List<RideDTO> rideDTOs = rides.stream()
-                       .map(this::convertToDTO)
-                       .collect(Collectors.toList());
+            if (rideCatalog.isReady()) {
+                return withOccurrences(rideCatalog.findAllActive(), occurrences);
+            }
             
-            System.out.println("Converted " + rideDTOs.size() + " rides to DTOs");
-            return rideDTOs;
+            List<RideDTO> rideDTOs = rideRepository.findAllActiveRideDTOs();
+            System.out.println("Found " + rideDTOs.size() + " active rides in database");
+            return withOccurrences(rideDTOs, occurrences);
         } catch (Exception e) {
             System.err.println("Error fetching rides: " + e.getMessage());
             e.printStackTrace();
@@ -45,16 +121,102 @@ public class RideService {
         }
     }
     
+    /**
+     * Returnează o pagină de curse active folosind un cursor (createdAt, id).
+     * Filtrele se aplică în SQL, iar baza de date întoarce doar size + 1 rânduri.
+     * Totalul se calculează o singură dată (la prima pagină) și este transmis mai departe
+     * prin knownTotal, astfel încât navigarea între pagini nu mai rulează COUNT.
+     */
+    public RidePage getActiveRidesPage(String from, String to, LocalDate date,
+                                       String cursor, boolean backwards, int size, Long knownTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Textul introdus este rezolvat în id-uri din dicționarul de localități, ca în searchRides
+        boolean anyFrom = LocationNormalizer.normalize(from).isEmpty();
+        boolean anyTo = LocationNormalizer.normalize(to).isEmpty();
+        List<Long> fromIds = anyFrom ? List.of(-1L) : localityService.findMatchingIds(from);
+        List<Long> toIds = anyTo ? List.of(-1L) : localityService.findMatchingIds(to);
+        LocalDateTime dateFrom = date != null ? date.atStartOfDay() : MIN_DATE;
+        LocalDateTime dateTo = date != null ? date.plusDays(1).atStartOfDay() : MAX_DATE;
+        
+        LocalDateTime cursorCreatedAt = MAX_DATE;
+        long cursorId = Long.MAX_VALUE;
+        boolean hasCursor = false;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.lastIndexOf('_');
+            if (separator > 0) {
+                try {
+                    cursorCreatedAt = LocalDateTime.parse(cursor.substring(0, separator));
+                    cursorId = Long.parseLong(cursor.substring(separator + 1));
+                    hasCursor = true;
+                } catch (RuntimeException e) {
+                    System.err.println("Cursor invalid, se afișează prima pagină: " + cursor);
+                }
+            }
+        }
+        boolean reverse = backwards && hasCursor;
+        
+        if (fromIds.isEmpty() || toIds.isEmpty()) {
+            RidePage empty = new RidePage();
+            empty.setRides(new ArrayList<>());
+            empty.setTotalRides(0);
+            return empty;
+        }
+        
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<RideDTO> rides = reverse
+                ? rideRepository.findActiveRidesAfter(anyFrom, fromIds, anyTo, toIds, dateFrom, dateTo, cursorCreatedAt, cursorId, limit)
+                : rideRepository.findActiveRidesBefore(anyFrom, fromIds, anyTo, toIds, dateFrom, dateTo, cursorCreatedAt, cursorId, limit);
+        
+        boolean hasMore = rides.size() > pageSize;
+        List<RideDTO> rideDTOs = new ArrayList<>(hasMore ? rides.subList(0, pageSize) : rides);
+        if (reverse) {
+            Collections.reverse(rideDTOs);
+        }
+        
+        long totalRides = knownTotal != null && knownTotal >= 0
+                ? knownTotal
+                : rideRepository.countActiveRides(anyFrom, fromIds, anyTo, toIds, dateFrom, dateTo);
+        
+        RidePage page = new RidePage();
+        page.setRides(rideDTOs);
+        page.setHasNext(reverse || hasMore);
+        page.setHasPrevious(reverse ? hasMore : hasCursor);
+        page.setTotalRides(totalRides);
+        if (!rideDTOs.isEmpty()) {
+            page.setPreviousCursor(encodeCursor(rideDTOs.get(0)));
+            page.setNextCursor(encodeCursor(rideDTOs.get(rideDTOs.size() - 1)));
+        }
+        return page;
+    }
+    
+    private String encodeCursor(RideDTO ride) {
+        return ride.getCreatedAt() + "_" + ride.getId();
+    }
+    
     public List<RideDTO> searchRides(SearchRideRequest request) {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
         
+        List<RideDTO> occurrences = rideTemplateService.expand(request.getFromLocation(), request.getToLocation(),
+                request.getTravelDate(), request.getTravelDate().plusDays(rideTemplateService.getHorizonDays()),
+                request.getPassengers());
+        
+        if (rideCatalog.isReady()) {
+            return withOccurrences(rideCatalog.search(request.getFromLocation(), request.getToLocation(),
+                    request.getTravelDate(), request.getPassengers()), occurrences);
+        }
+        
         LocalDateTime travelDateTime = request.getTravelDate().atStartOfDay();
         
-        List<Ride> rides = rideRepository.searchRides(
-            request.getFromLocation(),
-            request.getToLocation(),
-            travelDateTime
-        );
+        // Rezolvăm textul introdus în chei din dicționarul de localități, apoi căutăm după chei
+        boolean anyFrom = LocationNormalizer.normalize(request.getFromLocation()).isEmpty();
+        boolean anyTo = LocationNormalizer.normalize(request.getToLocation()).isEmpty();
+        List<Long> fromIds = anyFrom ? List.of(-1L) : localityService.findMatchingIds(request.getFromLocation());
+        List<Long> toIds = anyTo ? List.of(-1L) : localityService.findMatchingIds(request.getToLocation());
+        if (fromIds.isEmpty() || toIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<RideDTO> rides = rideRepository.searchRides(anyFrom, fromIds, anyTo, toIds, travelDateTime);
         
         // Filtrare suplimentară pentru locuri disponibile
         if (request.getPassengers() != null && request.getPassengers() > 0) {
@@ -63,9 +225,19 @@ public class RideService {
                         .collect(Collectors.toList());
         }
         
-        return rides.stream()
-                   .map(this::convertToDTO)
-                   .collect(Collectors.toList());
+        return withOccurrences(rides, occurrences);
+    }
+    
+    // Adaugă ocurențele curselor recurente, păstrând ordinea "cele mai noi primele" după createdAt
+    private List<RideDTO> withOccurrences(List<RideDTO> rides, List<RideDTO> occurrences) {
+        if (occurrences.isEmpty()) {
+            return rides;
+        }
+        List<RideDTO> merged = new ArrayList<>(rides.size() + occurrences.size());
+        merged.addAll(rides);
+        merged.addAll(occurrences);
+        merged.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+        return merged;
     }
     
     public RideDTO addRide(AddRideRequest request, User user) {
@@ -74,6 +246,8 @@ public class RideService {
         Ride ride = new Ride();
         ride.setFromLocation(request.getFromLocation());
         ride.setToLocation(request.getToLocation());
+        ride.setFromLocality(localityService.resolveOrCreate(request.getFromLocation()));
+        ride.setToLocality(localityService.resolveOrCreate(request.getToLocation()));
         ride.setTravelDate(request.getTravelDate().atStartOfDay());
         ride.setDepartureTime(LocalDateTime.of(request.getTravelDate(), request.getDepartureTime()));
         ride.setAvailableSeats(request.getAvailableSeats());
@@ -82,111 +256,386 @@ public class RideService {
         ride.setUser(user);
         
         Ride savedRide = rideRepository.save(ride);
-        return convertToDTO(savedRide);
+        rideCatalog.add(savedRide);
+        RideDTO savedDTO = convertToDTO(savedRide);
+        recentRidesFeed.push(savedDTO);
+        locationListCache.rideAdded(savedRide.getFromLocation(), savedRide.getToLocation());
+        dataVersions.ridesChanged(user.getId());
+        rideLiveFeed.publish(RideEvent.created(savedDTO));
+        savedSearchService.rideAdded(savedDTO);
+        return savedDTO;
+    }
+    
+    /**
+     * Salvează mai multe curse deja validate într-o singură tranzacție. Cu id-uri din secvență
+     * și hibernate.jdbc.batch_size, INSERT-urile sunt trimise în loturi.
+     */
+    public int addRides(List<AddRideRequest> requests, User user) {
+        // Localitățile se rezolvă o singură dată pentru fiecare nume distinct
+        Map<String, Locality> localities = new HashMap<>();
+        List<Ride> rides = new ArrayList<>(requests.size());
+        for (AddRideRequest request : requests) {
+            Ride ride = new Ride();
+            ride.setFromLocation(request.getFromLocation());
+            ride.setToLocation(request.getToLocation());
+            ride.setFromLocality(localities.computeIfAbsent(request.getFromLocation(), localityService::resolveOrCreate));
+            ride.setToLocality(localities.computeIfAbsent(request.getToLocation(), localityService::resolveOrCreate));
+            ride.setTravelDate(request.getTravelDate().atStartOfDay());
+            ride.setDepartureTime(LocalDateTime.of(request.getTravelDate(), request.getDepartureTime()));
+            ride.setAvailableSeats(request.getAvailableSeats());
+            ride.setPrice(request.getPrice());
+            ride.setDescription(request.getDescription());
+            ride.setUser(user);
+            rides.add(ride);
+        }
+        
+        List<Ride> savedRides = rideRepository.saveAll(rides);
+        List<RideEvent> events = new ArrayList<>(savedRides.size());
+        for (Ride savedRide : savedRides) {
+            rideCatalog.add(savedRide);
+            RideDTO savedDTO = convertToDTO(savedRide);
+            recentRidesFeed.push(savedDTO);
+            locationListCache.rideAdded(savedRide.getFromLocation(), savedRide.getToLocation());
+            events.add(RideEvent.created(savedDTO));
+            savedSearchService.rideAdded(savedDTO);
+        }
+        rideLiveFeed.publishAll(events);
+        dataVersions.ridesChanged(user.getId());
+        return savedRides.size();
     }
     
     public RideDTO getRideById(Long id) {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
         
-        Ride ride = rideRepository.findById(id)
+        return rideRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Cursa nu a fost găsită"));
-        return convertToDTO(ride);
     }
     
-    public List<String> getAllFromLocations() {
+    public List<LocationCount> getFromLocations(String prefix) {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
-        return rideRepository.findAllFromLocations();
+        if (!locationListCache.isReady()) {
+            locationListCache.reload(rideRepository.findAllActiveRides());
+        }
+        return locationListCache.findFromLocations(prefix);
     }
     
-    public List<String> getAllToLocations() {
+    public List<LocationCount> getToLocations(String prefix) {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
-        return rideRepository.findAllToLocations();
+        if (!locationListCache.isReady()) {
+            locationListCache.reload(rideRepository.findAllActiveRides());
+        }
+        return locationListCache.findToLocations(prefix);
     }
     
-    public List<RideDTO> getRidesByUser(User user) {
-        // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
-        
-        List<Ride> rides = rideRepository.findByUserOrderByCreatedAtDesc(user);
-        return rides.stream()
-                   .map(this::convertToDTO)
-                   .collect(Collectors.toList());
+    public String getFromLocationsVersion() {
+        return locationListCache.fromETag();
+    }
+    
+    public String getToLocationsVersion() {
+        return locationListCache.toETag();
     }
     
     public List<RideDTO> getRidesByUserId(Long userId) {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
         
-        List<Ride> rides = rideRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return rides.stream()
-                   .map(this::convertToDTO)
-                   .collect(Collectors.toList());
+        return rideRepository.findByUserIdOrderByCreatedAtDesc(userId);
     }
     
     public List<RideDTO> getTop5RecentRides() {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
+        if (!recentRidesFeed.isWarm()) {
+            // Pornire la rece: o singură interogare limitată la capacitatea fluxului
+            List<RideDTO> recent = rideRepository.findRecentActiveRides(PageRequest.of(0, RecentRidesFeed.CAPACITY));
+            recentRidesFeed.reset(recent);
+        }
+        return recentRidesFeed.latest(RecentRidesFeed.HOME_SIZE);
+    }
+    
+    /**
+     * Leagă cursele vechi (create înainte de dicționarul de localități) de localitățile lor,
+     * în loturi, la pornirea aplicației.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRideLocalities() {
+        int updated = 0;
+        long lastId = 0L;
+        List<Ride> batch = rideRepository.findRidesWithoutLocality(lastId, PageRequest.of(0, LOCALITY_BACKFILL_BATCH));
+        while (!batch.isEmpty()) {
+            for (Ride ride : batch) {
+                try {
+                    ride.setFromLocality(localityService.resolveOrCreate(ride.getFromLocation()));
+                    ride.setToLocality(localityService.resolveOrCreate(ride.getToLocation()));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Cursa " + ride.getId() + " nu are o localitate validă: " + e.getMessage());
+                }
+            }
+            rideRepository.saveAll(batch);
+            updated += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            batch = rideRepository.findRidesWithoutLocality(lastId, PageRequest.of(0, LOCALITY_BACKFILL_BATCH));
+        }
+        if (updated > 0) {
+            System.out.println("Curse legate de dicționarul de localități: " + updated);
+        }
         
-        List<Ride> rides = rideRepository.findTop5RecentRides();
-        return rides.stream()
-                   .limit(5)
-                   .map(this::convertToDTO)
-                   .collect(Collectors.toList());
+        loadCatalog();
     }
     
     /**
-     * Curăță automat cursele care au trecut data de călătorie + 1 zi
-     * Folosește timpul din Moldova (Europe/Chisinau)
-     * Această metodă trebuie apelată periodic, nu la fiecare cerere
+     * Încarcă toate cursele active în catalogul din memorie.
      */
-    public void cleanupExpiredRides() {
-        // Folosim timpul din Moldova
-        ZoneId moldovaZone = ZoneId.of("Europe/Chisinau");
-        LocalDateTime currentDateTime = LocalDateTime.now(moldovaZone);
-        
-        // Găsim toate cursele active
-        List<Ride> activeRides = rideRepository.findAll().stream()
-                .filter(Ride::getIsActive)
-                .collect(Collectors.toList());
-        
-        List<Ride> expiredRides = new ArrayList<>();
-        
-        for (Ride ride : activeRides) {
-            // Verificăm dacă a trecut mai mult de 1 zi de la data și ora cursei
-            // ride.getTravelDate() conține deja data și ora de plecare
-            if (currentDateTime.isAfter(ride.getTravelDate().plusDays(1))) {
-                expiredRides.add(ride);
+    public void loadCatalog() {
+        long start = System.currentTimeMillis();
+        // Modificările salvate de alte noduri de acum încolo vor fi reaplicate peste catalog
+        dataVersions.start();
+        List<Ride> rides = rideRepository.findAllActiveRides();
+        Set<Long> localityIds = new HashSet<>();
+        for (Ride ride : rides) {
+            if (ride.getFromLocality() != null) {
+                localityIds.add(ride.getFromLocality().getId());
+            }
+            if (ride.getToLocality() != null) {
+                localityIds.add(ride.getToLocality().getId());
             }
         }
+        rideCatalog.reload(rides, localityService.findKeys(localityIds));
+        recentRidesFeed.reset(rideCatalog.findRecent(RecentRidesFeed.CAPACITY));
+        locationListCache.reload(rides);
+        System.out.println("Catalog de curse încărcat: " + rides.size() + " curse în "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    /**
+     * Dezactivează cursele care au trecut data de călătorie + 1 zi.
+     * Folosește timpul din Moldova (Europe/Chisinau) și este apelată periodic de RideExpiryJob.
+     * Actualizarea se face pe loturi, direct în SQL, fără a încărca entitățile.
+     *
+     * @return numărul de curse dezactivate
+     */
+    public int cleanupExpiredRides() {
+        LocalDateTime cutoff = expiryCutoff();
+        
+        int expiredTotal = 0;
+        long lastId = 0L;
+        List<RideRef> batch = rideRepository.findExpiredRides(cutoff, lastId, PageRequest.of(0, expiryBatchSize));
+        while (!batch.isEmpty()) {
+            List<Long> expiredIds = batch.stream().map(RideRef::id).collect(Collectors.toList());
+            int updated = rideRepository.deactivateRides(expiredIds);
+            expiredTotal += updated;
+            
+            // Anunțăm cache-urile din memorie
+            rideCatalog.removeAll(expiredIds);
+            recentRidesFeed.removeAll(expiredIds);
+            batch.forEach(ride -> locationListCache.rideRemoved(ride.fromLocation(), ride.toLocation()));
+            rideLiveFeed.publishAll(batch.stream().map(RideEvent::expired).collect(Collectors.toList()));
+            
+            lastId = expiredIds.get(expiredIds.size() - 1);
+            batch = rideRepository.findExpiredRides(cutoff, lastId, PageRequest.of(0, expiryBatchSize));
+        }
+        // Cursele dezactivate deja de alt nod nu mai apar în interogare, dar pot fi încă în catalog
+        removeExpiredFromCaches(cutoff);
         
-        if (!expiredRides.isEmpty()) {
-            // Setăm cursele ca inactive în loc să le ștergem
-            expiredRides.forEach(ride -> ride.setIsActive(false));
-            rideRepository.saveAll(expiredRides);
-            System.out.println("Curse expirate setate ca inactive: " + expiredRides.size());
+        if (expiredTotal > 0) {
+            dataVersions.ridesExpired();
+            System.out.println("Curse expirate setate ca inactive: " + expiredTotal);
+        }
+        return expiredTotal;
+    }
+    
+    /**
+     * Aplică modificările curselor făcute de alte noduri: cursele fiecărui șofer afectat sunt
+     * recitite din baza de date și comparate cu catalogul; expirările scot cursele trecute.
+     */
+    @EventListener
+    public void onRemoteChanges(DataVersions.RemoteChanges remote) {
+        if (!rideCatalog.isReady()) {
+            return; // încărcarea completă de la pornire include deja modificările
+        }
+        Set<Long> driverIds = new LinkedHashSet<>();
+        boolean expired = false;
+        for (DataVersions.Change change : remote.changes()) {
+            switch (change.kind()) {
+                case RIDES, PROFILE -> {
+                    if (change.userId() != null) {
+                        driverIds.add(change.userId());
+                    }
+                }
+                case EXPIRY -> expired = true;
+                default -> { }
+            }
+        }
+        if (expired) {
+            removeExpiredFromCaches(expiryCutoff());
+        }
+        boolean membershipChanged = false;
+        for (Long driverId : driverIds) {
+            try {
+                membershipChanged |= resyncDriver(driverId);
+            } catch (RuntimeException e) {
+                System.err.println("Cursele șoferului " + driverId + " nu au putut fi resincronizate: " + e.getMessage());
+            }
+        }
+        if (membershipChanged) {
+            recentRidesFeed.reset(rideCatalog.findRecent(RecentRidesFeed.CAPACITY));
         }
     }
     
     /**
-     * Curăță cursele expirate doar dacă este necesar (la intervale mari)
-     * Această metodă poate fi apelată la fiecare cerere fără să afecteze performanța
+     * Aduce catalogul la starea din baza de date pentru cursele active ale unui șofer.
+     *
+     * @return true dacă au fost adăugate sau scoase curse
      */
-    private void cleanupExpiredRidesIfNeeded() {
-        // Curățăm cursele expirate doar o dată la 100 de cereri sau la intervale mari
-        // Pentru moment, nu curățăm automat
-        // cleanupExpiredRides() va fi apelată periodic de un scheduler
+    private boolean resyncDriver(Long driverId) {
+        List<Ride> rides = rideRepository.findActiveRidesWithDetailsByUserId(driverId);
+        Map<Long, Integer> cachedSeats = rideCatalog.seatsByDriver(driverId);
+        boolean membershipChanged = false;
+        List<RideEvent> events = new ArrayList<>();
+        
+        Set<Long> activeIds = rides.stream().map(Ride::getId).collect(Collectors.toSet());
+        for (Long rideId : cachedSeats.keySet()) {
+            if (!activeIds.contains(rideId)) {
+                RideDTO removed = rideCatalog.find(rideId).orElse(null);
+                rideCatalog.remove(rideId);
+                if (removed != null) {
+                    locationListCache.rideRemoved(removed.getFromLocation(), removed.getToLocation());
+                    events.add(RideEvent.deleted(rideId, removed.getFromLocation(), removed.getToLocation()));
+                }
+                membershipChanged = true;
+            }
+        }
+        
+        for (Ride ride : rides) {
+            Integer seats = cachedSeats.get(ride.getId());
+            if (seats == null) {
+                rideCatalog.add(ride);
+                locationListCache.rideAdded(ride.getFromLocation(), ride.getToLocation());
+                events.add(RideEvent.created(convertToDTO(ride)));
+                membershipChanged = true;
+            } else if (seats != ride.getAvailableSeats().intValue()) {
+                int delta = ride.getAvailableSeats() - seats;
+                rideCatalog.adjustSeats(ride.getId(), delta);
+                recentRidesFeed.adjustSeats(ride.getId(), delta);
+                rideCatalog.find(ride.getId()).map(RideEvent::seatsChanged).ifPresent(events::add);
+            }
+        }
+        rideLiveFeed.publishAll(events);
+        
+        // Numele și datele de contact ale șoferului (modificarea profilului)
+        if (!rides.isEmpty()) {
+            User driver = rides.get(0).getUser();
+            rideCatalog.updateDriver(driver);
+            recentRidesFeed.updateDriver(driver);
+        }
+        return membershipChanged;
+    }
+    
+    private void removeExpiredFromCaches(LocalDateTime cutoff) {
+        List<RideRef> expired = rideCatalog.findTravellingBefore(cutoff);
+        if (expired.isEmpty()) {
+            return;
+        }
+        List<Long> expiredIds = expired.stream().map(RideRef::id).collect(Collectors.toList());
+        rideCatalog.removeAll(expiredIds);
+        recentRidesFeed.removeAll(expiredIds);
+        expired.forEach(ride -> locationListCache.rideRemoved(ride.fromLocation(), ride.toLocation()));
+        rideLiveFeed.publishAll(expired.stream().map(RideEvent::expired).collect(Collectors.toList()));
     }
     
-    public void deleteRide(Long rideId, User user) {
+    // Folosim timpul din Moldova
+    private static LocalDateTime expiryCutoff() {
+        return LocalDateTime.now(ZoneId.of("Europe/Chisinau")).minusDays(1);
+    }
+    
+    /**
+     * Șterge o cursă a șoferului. Rezervările active sunt anulate (rândurile rămân în istoricul
+     * pasagerilor, care sunt anunțați în inbox); o cursă cu rezervări sau o ocurență a unei curse
+     * recurente rămâne ca inactivă, altfel rândul este șters.
+     */
+    @Transactional
+    public void deleteRide(Long rideId, Long userId) {
         // Nu curățăm automat cursele expirate aici pentru a nu afecta performanța
         
         Ride ride = rideRepository.findById(rideId)
                 .orElseThrow(() -> new RuntimeException("Cursa nu a fost găsită"));
         
         // Verificăm dacă utilizatorul este proprietarul cursei
-        if (!ride.getUser().getId().equals(user.getId())) {
+        if (!ride.getUser().getId().equals(userId)) {
             throw new RuntimeException("Nu aveți permisiunea de a șterge această cursă");
         }
         
-        // Ștergem cursa
-        rideRepository.delete(ride);
+        // Aceeași tranziție condiționată ca la anulare: o rezervare expirată sau anulată între timp nu se schimbă
+        Set<Long> passengerIds = new LinkedHashSet<>();
+        for (BookingDTO booking : bookingRepository.findByRideIdAndStatusIn(rideId, ACTIVE_BOOKINGS)) {
+            if (bookingRepository.transition(booking.getId(), ACTIVE_BOOKINGS, BookingStatus.CANCELLED) > 0) {
+                passengerIds.add(booking.getPassengerId());
+            }
+        }
+        savedSearchService.rideCancelled(rideId, ride.getFromLocation(), ride.getToLocation(),
+                ride.getDepartureTime(), passengerIds);
+        
+        // Ocurența unei curse recurente rămâne ca inactivă (ca la anulare), altfel ar fi generată din nou din șablon
+        if (ride.getTemplate() != null || bookingRepository.existsByRideId(rideId)) {
+            rideRepository.deactivateRides(List.of(rideId));
+        } else {
+            rideRepository.delete(ride);
+        }
+        // Înregistrat înaintea versiunii, ca un ETag nou să nu fie servit cu listele vechi
+        afterCommit(() -> {
+            rideCatalog.remove(rideId);
+            recentRidesFeed.remove(rideId);
+            if (Boolean.TRUE.equals(ride.getIsActive())) {
+                locationListCache.rideRemoved(ride.getFromLocation(), ride.getToLocation());
+            }
+            rideLiveFeed.publish(RideEvent.deleted(rideId, ride.getFromLocation(), ride.getToLocation()));
+        });
+        dataVersions.ridesChanged(userId);
+    }
+    
+    /**
+     * Scrie cursele (active, inactive sau toate când active este null) ca NDJSON, câte o cursă pe linie.
+     * Rândurile vin dintr-un cursor, proiectate direct în RideDTO (fără entități în contextul de
+     * persistență), deci memoria folosită nu crește cu numărul de curse. Datele de contact ale
+     * șoferilor (email, telefon) nu sunt exportate.
+     */
+    @Transactional(readOnly = true)
+    public long exportRides(Boolean active, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<RideDTO> rides = rideRepository.streamRidesForExport(active);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null); // separatorul de linie îl scriem noi
+            // Fără flush după fiecare rând; golim bufferul o dată la EXPORT_FETCH_SIZE rânduri
+            ObjectWriter writer = objectMapper.copy().addMixIn(RideDTO.class, PublicRideMixin.class)
+                    .writerFor(RideDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            Iterator<RideDTO> iterator = rides.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                count++;
+                
+                if (count % RideRepository.EXPORT_FETCH_SIZE == 0) {
+                    // Trimitem clientului ce s-a scris până acum
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return count;
+    }
+    
+    // Cache-urile din memorie se actualizează doar după ce modificarea a fost salvată
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
     
     private RideDTO convertToDTO(Ride ride) {
@@ -212,7 +661,8 @@ public class RideService {
                 "N/A",
                 null,
                 ride.getCreatedAt(),
-                ride.getIsActive()
+                ride.getIsActive(),
+                ride.getTemplate() != null ? ride.getTemplate().getId() : null
             );
         }
         
@@ -231,7 +681,8 @@ public class RideService {
             user.getEmail(),
             user.getProfileImage(),
             ride.getCreatedAt(),
-            ride.getIsActive()
+            ride.getIsActive(),
+            ride.getTemplate() != null ? ride.getTemplate().getId() : null
         );
     }
 }
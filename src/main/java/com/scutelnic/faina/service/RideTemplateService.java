@@ -0,0 +1,404 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.dto.RideTemplateDTO;
+import com.scutelnic.faina.dto.TemplateOccurrenceRef;
+import com.scutelnic.faina.entity.Ride;
+import com.scutelnic.faina.entity.RideTemplate;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.repository.RideRepository;
+import com.scutelnic.faina.repository.RideTemplateRepository;
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Curse recurente. Șabloanele active sunt ținute în memorie și extinse în ocurențe doar pentru
+ * intervalul de date cerut. O ocurență devine rând în tabela rides ("materializată") doar când
+ * diverge de la șablon: la prima rezervare sau când șoferul o anulează.
+ */
+@Service
+public class RideTemplateService {
+    
+    private static final int MAX_SEATS = 8;
+    
+    @Value("${rides.templates.horizon-days:14}")
+    private int horizonDays;
+    
+    @Autowired
+    private RideTemplateRepository rideTemplateRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private LocalityService localityService;
+    
+    @Autowired
+    private RideCatalog rideCatalog;
+    
+    @Autowired
+    private LocationListCache locationListCache;
+    
+    @Autowired
+    private DataVersions dataVersions;
+    
+    @Autowired
+    private SavedSearchService savedSearchService;
+    
+    private final Map<Long, TemplateCard> templates = new ConcurrentHashMap<>();
+    
+    // Ocurențele care au deja rând în rides; nu le mai generăm din șablon
+    private final Set<OccurrenceKey> materialized = ConcurrentHashMap.newKeySet();
+    
+    private volatile boolean ready = false;
+    
+    /**
+     * Câte zile înainte sunt extinse șabloanele când cererea nu are o dată de sfârșit.
+     */
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        dataVersions.start();
+        templates.clear();
+        for (RideTemplate template : rideTemplateRepository.findActiveTemplates(today)) {
+            templates.put(template.getId(), TemplateCard.of(template));
+        }
+        materialized.clear();
+        for (TemplateOccurrenceRef occurrence : rideRepository.findMaterializedOccurrences(today.atStartOfDay())) {
+            materialized.add(new OccurrenceKey(occurrence.templateId(), occurrence.travelDate().toLocalDate()));
+        }
+        ready = true;
+        System.out.println("Curse recurente încărcate: " + templates.size() + " șabloane, "
+                + materialized.size() + " ocurențe materializate, " + (System.currentTimeMillis() - started) + " ms");
+    }
+    
+    /**
+     * Reîncarcă șabloanele și ocurențele materializate ale șoferilor modificați pe alte noduri.
+     */
+    @EventListener
+    public void onRemoteChanges(DataVersions.RemoteChanges remote) {
+        if (!ready) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        remote.changes().stream()
+                .filter(change -> change.kind() == DataVersions.Kind.RIDES || change.kind() == DataVersions.Kind.PROFILE)
+                .map(DataVersions.Change::userId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(driverId -> {
+                    try {
+                        reloadDriver(driverId, today);
+                    } catch (RuntimeException e) {
+                        System.err.println("Cursele recurente ale șoferului " + driverId
+                                + " nu au putut fi reîncărcate: " + e.getMessage());
+                    }
+                });
+    }
+    
+    private void reloadDriver(Long driverId, LocalDate today) {
+        List<RideTemplate> active = rideTemplateRepository.findActiveTemplatesByUserId(driverId, today);
+        for (TemplateOccurrenceRef occurrence : rideRepository.findMaterializedOccurrencesByUserId(driverId, today.atStartOfDay())) {
+            materialized.add(new OccurrenceKey(occurrence.templateId(), occurrence.travelDate().toLocalDate()));
+        }
+        Set<Long> activeIds = new HashSet<>();
+        for (RideTemplate template : active) {
+            templates.put(template.getId(), TemplateCard.of(template));
+            activeIds.add(template.getId());
+        }
+        templates.values().removeIf(card -> card.driverId().equals(driverId) && !activeIds.contains(card.id()));
+    }
+    
+    /**
+     * Generează ocurențele nematerializate ale șabloanelor care se potrivesc cu ruta,
+     * cu data între windowStart și windowEnd (inclusiv), dar nu mai devreme de azi.
+     * Ca și cursele concrete, ocurențele de azi rămân vizibile toată ziua, deci rezultatul
+     * se schimbă doar odată cu data (ETag-ul listei include ziua curentă).
+     */
+    public List<RideDTO> expand(String fromLocation, String toLocation, LocalDate windowStart, LocalDate windowEnd, Integer minSeats) {
+        ensureLoaded();
+        String fromKey = LocationNormalizer.normalize(fromLocation);
+        String toKey = LocationNormalizer.normalize(toLocation);
+        int requiredSeats = minSeats != null ? minSeats : 0;
+        LocalDate today = LocalDate.now();
+        if (windowStart.isBefore(today)) {
+            windowStart = today;
+        }
+        
+        List<RideDTO> occurrences = new ArrayList<>();
+        for (TemplateCard card : templates.values()) {
+            if (!matches(card.fromKey(), fromKey) || !matches(card.toKey(), toKey) || card.seats() < requiredSeats) {
+                continue;
+            }
+            LocalDate first = windowStart.isAfter(card.startDate()) ? windowStart : card.startDate();
+            LocalDate last = card.endDate() != null && card.endDate().isBefore(windowEnd) ? card.endDate() : windowEnd;
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                if ((card.weekdayMask() & (1 << (date.getDayOfWeek().getValue() - 1))) == 0
+                        || materialized.contains(new OccurrenceKey(card.id(), date))) {
+                    continue;
+                }
+                occurrences.add(card.toOccurrence(date));
+            }
+        }
+        occurrences.sort((a, b) -> a.getDepartureTime().compareTo(b.getDepartureTime()));
+        return occurrences;
+    }
+    
+    public RideTemplateDTO createTemplate(String fromLocation, String toLocation, LocalTime departureTime,
+                                          Collection<Integer> weekdays, LocalDate startDate, LocalDate endDate,
+                                          int availableSeats, BigDecimal price, String description, User user) {
+        if (weekdays == null || weekdays.isEmpty()) {
+            throw new IllegalArgumentException("Selectați cel puțin o zi a săptămânii");
+        }
+        int mask = 0;
+        for (Integer weekday : weekdays) {
+            if (weekday == null || weekday < 1 || weekday > 7) {
+                throw new IllegalArgumentException("Zi a săptămânii invalidă: " + weekday);
+            }
+            mask |= 1 << (weekday - 1);
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Data de început nu poate fi în trecut");
+        }
+        if (endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Data de sfârșit trebuie să fie după data de început");
+        }
+        if (availableSeats < 1 || availableSeats > MAX_SEATS) {
+            throw new IllegalArgumentException("Numărul de locuri trebuie să fie între 1 și " + MAX_SEATS);
+        }
+        
+        RideTemplate template = new RideTemplate();
+        template.setFromLocation(fromLocation);
+        template.setToLocation(toLocation);
+        template.setFromLocality(localityService.resolveOrCreate(fromLocation));
+        template.setToLocality(localityService.resolveOrCreate(toLocation));
+        template.setDepartureTime(departureTime);
+        template.setWeekdayMask(mask);
+        template.setStartDate(startDate);
+        template.setEndDate(endDate);
+        template.setAvailableSeats(availableSeats);
+        template.setPrice(price);
+        template.setDescription(description);
+        template.setUser(user);
+        
+        RideTemplate saved = rideTemplateRepository.save(template);
+        TemplateCard card = TemplateCard.of(saved);
+        templates.put(saved.getId(), card);
+        dataVersions.ridesChanged(user.getId());
+        
+        // Căutările salvate sunt anunțate ca la o cursă nouă, pentru fiecare zi în care cursa circulă
+        LocalDate first = startDate;
+        for (int day = 0; day < 7 && !saved.runsOn(first); day++) {
+            first = first.plusDays(1);
+        }
+        if (saved.runsOn(first)) {
+            savedSearchService.recurringRideAdded(card.toOccurrence(first), saved::runsOn, card::toOccurrence);
+        }
+        return toDTO(saved);
+    }
+    
+    public List<RideTemplateDTO> getTemplatesForUser(Long userId) {
+        return rideTemplateRepository.findByUserId(userId).stream().map(this::toDTO).toList();
+    }
+    
+    /**
+     * Oprește șablonul. Ocurențele deja materializate (cu rezervări) rămân curse obișnuite.
+     */
+    public void deactivateTemplate(Long templateId, Long userId) {
+        RideTemplate template = rideTemplateRepository.findById(templateId)
+                .orElseThrow(() -> new RuntimeException("Cursa recurentă nu a fost găsită"));
+        if (!template.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Nu aveți permisiunea de a opri această cursă recurentă");
+        }
+        template.setIsActive(false);
+        rideTemplateRepository.save(template);
+        templates.remove(templateId);
+        dataVersions.ridesChanged(userId);
+    }
+    
+    /**
+     * Întoarce id-ul cursei concrete pentru ocurența dată, creând rândul dacă nu există.
+     * Folosit înainte de prima rezervare; șoferul nu își poate rezerva propria cursă, iar zilele trecute sunt refuzate.
+     */
+    public Long materializeForBooking(Long templateId, LocalDate date, Long passengerId) {
+        TemplateCard card = templates.get(templateId);
+        if (card != null && card.driverId().equals(passengerId)) {
+            throw new RuntimeException("Nu puteți rezerva locuri la propria cursă");
+        }
+        if (date.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Nu se pot rezerva locuri la o cursă din trecut");
+        }
+        return materialize(templateId, date);
+    }
+    
+    /**
+     * Anulează o singură zi a unei curse recurente: ocurența este salvată ca inactivă,
+     * deci nu mai este generată din șablon. Zilele trecute sunt refuzate.
+     */
+    public void cancelOccurrence(Long templateId, LocalDate date, Long userId) {
+        RideTemplate template = rideTemplateRepository.findById(templateId)
+                .orElseThrow(() -> new RuntimeException("Cursa recurentă nu a fost găsită"));
+        if (!template.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Nu aveți permisiunea de a anula această cursă");
+        }
+        if (date.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Nu se poate anula o cursă din trecut");
+        }
+        
+        Long rideId = materialize(templateId, date);
+        Ride ride = rideRepository.findById(rideId).orElseThrow();
+        if (Boolean.TRUE.equals(ride.getIsActive())) {
+            rideRepository.deactivateRides(List.of(rideId));
+            rideCatalog.remove(rideId);
+            locationListCache.rideRemoved(ride.getFromLocation(), ride.getToLocation());
+            dataVersions.ridesChanged(userId);
+        }
+    }
+    
+    /**
+     * Scoate din memorie ocurențele materializate din zilele trecute.
+     */
+    public void pruneMaterialized() {
+        LocalDate today = LocalDate.now();
+        materialized.removeIf(key -> key.date().isBefore(today));
+        templates.values().removeIf(card -> card.endDate() != null && card.endDate().isBefore(today));
+    }
+    
+    public void updateDriver(User user) {
+        templates.replaceAll((id, card) -> card.driverId().equals(user.getId()) ? card.withDriver(user) : card);
+    }
+    
+    private Long materialize(Long templateId, LocalDate date) {
+        ensureLoaded();
+        LocalDateTime travelDate = date.atStartOfDay();
+        Long existing = rideRepository.findIdByTemplateAndTravelDate(templateId, travelDate).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        
+        RideTemplate template = rideTemplateRepository.findWithDetailsById(templateId)
+                .orElseThrow(() -> new RuntimeException("Cursa recurentă nu a fost găsită"));
+        if (!Boolean.TRUE.equals(template.getIsActive()) || !template.runsOn(date)) {
+            throw new RuntimeException("Cursa recurentă nu circulă în această zi");
+        }
+        
+        Ride ride = new Ride();
+        ride.setFromLocation(template.getFromLocation());
+        ride.setToLocation(template.getToLocation());
+        ride.setFromLocality(template.getFromLocality());
+        ride.setToLocality(template.getToLocality());
+        ride.setTravelDate(travelDate);
+        ride.setDepartureTime(LocalDateTime.of(date, template.getDepartureTime()));
+        ride.setAvailableSeats(template.getAvailableSeats());
+        ride.setPrice(template.getPrice());
+        ride.setDescription(template.getDescription());
+        ride.setUser(template.getUser());
+        ride.setTemplate(template);
+        
+        Ride saved;
+        try {
+            saved = rideRepository.save(ride);
+        } catch (DataIntegrityViolationException e) {
+            // Altă cerere a materializat aceeași ocurență între timp
+            return rideRepository.findIdByTemplateAndTravelDate(templateId, travelDate).orElseThrow(() -> e);
+        }
+        materialized.add(new OccurrenceKey(templateId, date));
+        rideCatalog.add(saved);
+        locationListCache.rideAdded(saved.getFromLocation(), saved.getToLocation());
+        dataVersions.ridesChanged(template.getUser().getId());
+        return saved.getId();
+    }
+    
+    private void ensureLoaded() {
+        if (!ready) {
+            load();
+        }
+    }
+    
+    private static boolean matches(String localityKey, String prefix) {
+        return prefix.isEmpty() || localityKey.startsWith(prefix) || localityKey.contains(" " + prefix);
+    }
+    
+    private RideTemplateDTO toDTO(RideTemplate template) {
+        List<Integer> weekdays = new ArrayList<>();
+        for (int day = 1; day <= 7; day++) {
+            if ((template.getWeekdayMask() & (1 << (day - 1))) != 0) {
+                weekdays.add(day);
+            }
+        }
+        return new RideTemplateDTO(
+            template.getId(),
+            template.getFromLocation(),
+            template.getToLocation(),
+            template.getDepartureTime(),
+            weekdays,
+            template.getStartDate(),
+            template.getEndDate(),
+            template.getAvailableSeats(),
+            template.getPrice(),
+            template.getDescription(),
+            template.getUser().getId(),
+            template.getCreatedAt(),
+            template.getIsActive()
+        );
+    }
+    
+    private record OccurrenceKey(long templateId, LocalDate date) {
+    }
+    
+    private record TemplateCard(Long id, String fromLocation, String toLocation, String fromKey, String toKey,
+                                LocalTime departureTime, int weekdayMask, LocalDate startDate, LocalDate endDate,
+                                int seats, BigDecimal price, String description, LocalDateTime createdAt,
+                                Long driverId, String driverName, String driverPhone, String driverEmail,
+                                String driverProfileImage) {
+        
+        static TemplateCard of(RideTemplate template) {
+            User user = template.getUser();
+            return new TemplateCard(template.getId(), template.getFromLocation(), template.getToLocation(),
+                    LocationNormalizer.normalize(template.getFromLocation()),
+                    LocationNormalizer.normalize(template.getToLocation()),
+                    template.getDepartureTime(), template.getWeekdayMask(), template.getStartDate(),
+                    template.getEndDate(), template.getAvailableSeats(), template.getPrice(),
+                    template.getDescription(), template.getCreatedAt(), user.getId(),
+                    user.getFirstName() + " " + user.getLastName(), user.getPhone(), user.getEmail(),
+                    user.getProfileImage());
+        }
+        
+        TemplateCard withDriver(User user) {
+            return new TemplateCard(id, fromLocation, toLocation, fromKey, toKey, departureTime, weekdayMask,
+                    startDate, endDate, seats, price, description, createdAt, driverId,
+                    user.getFirstName() + " " + user.getLastName(), user.getPhone(), user.getEmail(),
+                    user.getProfileImage());
+        }
+        
+        // Ocurențele nu au încă id de cursă; sunt identificate prin templateId și travelDate
+        RideDTO toOccurrence(LocalDate date) {
+            return new RideDTO(null, fromLocation, toLocation, LocalDateTime.of(date, departureTime),
+                    date.atStartOfDay(), seats, price, description, driverId, driverName, driverPhone,
+                    driverEmail, driverProfileImage, createdAt, true, id);
+        }
+    }
+}
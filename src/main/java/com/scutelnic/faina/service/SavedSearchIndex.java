@@ -0,0 +1,150 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Index inversat al căutărilor salvate: cheia este ruta normalizată plus ziua (sau "orice zi").
+ * O cursă nouă nu este comparată cu toate căutările, ci caută doar în două liste:
+ * (rută, ziua cursei) și (rută, orice zi). Costul nu depinde de numărul total de căutări.
+ */
+@Service
+public class SavedSearchIndex {
+
+    private final Map<SearchKey, Set<Entry>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, SearchKey> keysById = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> idsByUser = new ConcurrentHashMap<>();
+    // Zilele căutate pe fiecare rută, pentru cursele recurente care circulă în mai multe zile
+    private final Map<Route, Set<SearchKey>> keysByRoute = new ConcurrentHashMap<>();
+
+    public void clear() {
+        entries.clear();
+        keysById.clear();
+        idsByUser.clear();
+        keysByRoute.clear();
+    }
+
+    public void add(long searchId, long userId, String fromLocation, String toLocation, LocalDate travelDate, int minSeats) {
+        SearchKey key = new SearchKey(LocationNormalizer.normalize(fromLocation),
+                LocationNormalizer.normalize(toLocation), travelDate);
+        entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(new Entry(searchId, userId, minSeats));
+        keysById.put(searchId, key);
+        keysByRoute.computeIfAbsent(new Route(key.fromKey(), key.toKey()), k -> ConcurrentHashMap.newKeySet()).add(key);
+        idsByUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(searchId);
+    }
+
+    public void remove(long searchId) {
+        SearchKey key = keysById.remove(searchId);
+        if (key == null) {
+            return;
+        }
+        entries.computeIfPresent(key, (k, set) -> {
+            set.removeIf(entry -> {
+                if (entry.searchId() != searchId) {
+                    return false;
+                }
+                idsByUser.computeIfPresent(entry.userId(), (user, ids) -> ids.remove(searchId) && ids.isEmpty() ? null : ids);
+                return true;
+            });
+            if (!set.isEmpty()) {
+                return set;
+            }
+            keysByRoute.computeIfPresent(new Route(k.fromKey(), k.toKey()), (route, keys) -> keys.remove(k) && keys.isEmpty() ? null : keys);
+            return null;
+        });
+    }
+
+    /**
+     * Id-urile căutărilor unui utilizator aflate în index.
+     */
+    public Set<Long> searchIdsOf(long userId) {
+        return Set.copyOf(idsByUser.getOrDefault(userId, Set.of()));
+    }
+
+    /**
+     * Căutările care se potrivesc cu o cursă nouă. Căutările șoferului cursei sunt ignorate.
+     */
+    public List<Entry> match(String fromLocation, String toLocation, LocalDate travelDate, int availableSeats, long driverId) {
+        String fromKey = LocationNormalizer.normalize(fromLocation);
+        String toKey = LocationNormalizer.normalize(toLocation);
+        List<Entry> matches = new ArrayList<>();
+        collect(entries.get(new SearchKey(fromKey, toKey, travelDate)), availableSeats, driverId, matches);
+        collect(entries.get(new SearchKey(fromKey, toKey, null)), availableSeats, driverId, matches);
+        return matches;
+    }
+
+    /**
+     * Căutările care se potrivesc cu o cursă recurentă nouă: toate zilele căutate pe rută în care
+     * cursa circulă, plus căutările pentru orice zi (cu data null în rezultat).
+     */
+    public List<DatedEntry> matchRecurring(String fromLocation, String toLocation, Predicate<LocalDate> runsOn,
+                                           int availableSeats, long driverId) {
+        Set<SearchKey> keys = keysByRoute.get(new Route(LocationNormalizer.normalize(fromLocation),
+                LocationNormalizer.normalize(toLocation)));
+        List<DatedEntry> matches = new ArrayList<>();
+        if (keys == null) {
+            return matches;
+        }
+        for (SearchKey key : keys) {
+            if (key.travelDate() != null && !runsOn.test(key.travelDate())) {
+                continue;
+            }
+            List<Entry> found = new ArrayList<>();
+            collect(entries.get(key), availableSeats, driverId, found);
+            for (Entry entry : found) {
+                matches.add(new DatedEntry(entry, key.travelDate()));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Scoate căutările pentru zile care au trecut.
+     */
+    public int pruneBefore(LocalDate today) {
+        List<Long> expired = new ArrayList<>();
+        keysById.forEach((id, key) -> {
+            if (key.travelDate() != null && key.travelDate().isBefore(today)) {
+                expired.add(id);
+            }
+        });
+        expired.forEach(this::remove);
+        return expired.size();
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    private static void collect(Collection<Entry> candidates, int availableSeats, long driverId, List<Entry> matches) {
+        if (candidates == null) {
+            return;
+        }
+        for (Entry entry : candidates) {
+            if (entry.minSeats() <= availableSeats && entry.userId() != driverId) {
+                matches.add(entry);
+            }
+        }
+    }
+
+    public record Entry(long searchId, long userId, int minSeats) {
+    }
+
+    public record DatedEntry(Entry entry, LocalDate travelDate) {
+    }
+
+    private record Route(String fromKey, String toKey) {
+    }
+
+    private record SearchKey(String fromKey, String toKey, LocalDate travelDate) {
+    }
+}
@@ -0,0 +1,351 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.InboxMessageDTO;
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.dto.SavedSearchDTO;
+import com.scutelnic.faina.entity.InboxMessage;
+import com.scutelnic.faina.entity.SavedSearch;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.repository.InboxMessageRepository;
+import com.scutelnic.faina.repository.SavedSearchRepository;
+import com.scutelnic.faina.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Căutări salvate și livrarea potrivirilor în inbox. Potrivirea se face în memorie,
+ * prin SavedSearchIndex, în momentul adăugării cursei; mesajele sunt puse într-o coadă
+ * și salvate în loturi de un job periodic, deci adăugarea cursei nu așteaptă după inbox.
+ * Coada este limitată (searches.max-pending); un lot care nu poate fi salvat este reîncercat
+ * la livrările următoare, de cel mult searches.delivery-attempts ori. Potrivirile pierdute
+ * sunt numărate în metrica searches.inbox.dropped. Căutările create sau șterse pe alte noduri
+ * ajung în index prin jurnalul de modificări (DataVersions, SEARCHES).
+ */
+@Service
+public class SavedSearchService {
+
+    private static final int INBOX_PAGE_SIZE = 50;
+    private static final int DELIVERY_BATCH = 500;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Value("${searches.max-per-user:20}")
+    private int maxPerUser;
+
+    @Value("${searches.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${searches.delivery-attempts:5}")
+    private int maxAttempts;
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private InboxMessageRepository inboxMessageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SavedSearchIndex savedSearchIndex;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingMatch> pending;
+
+    // Lotul care nu a putut fi salvat, reîncercat înaintea potrivirilor noi; folosit doar în deliverPending
+    private List<PendingMatch> failedBatch = List.of();
+    private int failedAttempts;
+
+    private Counter droppedQueueFull;
+    private Counter droppedSaveFailed;
+
+    @PostConstruct
+    public void init() {
+        pending = new LinkedBlockingQueue<>(maxPending);
+        droppedQueueFull = Counter.builder("searches.inbox.dropped").tag("reason", "queue-full")
+                .description("Potriviri care nu au ajuns în inbox")
+                .register(meterRegistry);
+        droppedSaveFailed = Counter.builder("searches.inbox.dropped").tag("reason", "save-failed")
+                .description("Potriviri care nu au ajuns în inbox")
+                .register(meterRegistry);
+        Gauge.builder("searches.inbox.pending", this, service -> service.pending.size())
+                .description("Potriviri care așteaptă să fie salvate în inbox")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        // Modificările salvate după citirea poziției jurnalului sunt reaplicate de onRemoteChanges
+        dataVersions.start();
+        savedSearchIndex.clear();
+        List<SavedSearch> searches = savedSearchRepository.findActiveSearches(LocalDate.now());
+        for (SavedSearch search : searches) {
+            savedSearchIndex.add(search.getId(), search.getUser().getId(), search.getFromLocation(),
+                    search.getToLocation(), search.getTravelDate(), search.getMinSeats());
+        }
+        System.out.println("Căutări salvate încărcate: " + searches.size() + " în "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    public SavedSearchDTO createSearch(String fromLocation, String toLocation, LocalDate travelDate, int minSeats, User user) {
+        if (fromLocation == null || fromLocation.isBlank() || toLocation == null || toLocation.isBlank()) {
+            throw new IllegalArgumentException("Completați localitatea de plecare și cea de destinație");
+        }
+        if (travelDate != null && travelDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Data nu poate fi în trecut");
+        }
+        if (minSeats < 1 || minSeats > 8) {
+            throw new IllegalArgumentException("Numărul de locuri trebuie să fie între 1 și 8");
+        }
+        if (savedSearchRepository.countActiveByUserId(user.getId(), LocalDate.now()) >= maxPerUser) {
+            throw new IllegalArgumentException("Puteți avea cel mult " + maxPerUser + " căutări salvate");
+        }
+
+        SavedSearch search = new SavedSearch();
+        search.setUser(user);
+        search.setFromLocation(fromLocation.trim());
+        search.setToLocation(toLocation.trim());
+        search.setTravelDate(travelDate);
+        search.setMinSeats(minSeats);
+        SavedSearch saved = savedSearchRepository.save(search);
+        savedSearchIndex.add(saved.getId(), user.getId(), saved.getFromLocation(), saved.getToLocation(),
+                saved.getTravelDate(), saved.getMinSeats());
+        dataVersions.searchesChanged(user.getId());
+        return new SavedSearchDTO(saved.getId(), saved.getFromLocation(), saved.getToLocation(),
+                saved.getTravelDate(), saved.getMinSeats(), saved.getCreatedAt());
+    }
+
+    public List<SavedSearchDTO> getSearchesForUser(Long userId) {
+        return savedSearchRepository.findByUserId(userId);
+    }
+
+    public void deleteSearch(Long searchId, Long userId) {
+        SavedSearch search = savedSearchRepository.findById(searchId)
+                .orElseThrow(() -> new RuntimeException("Căutarea salvată nu a fost găsită"));
+        if (!search.getUser().getId().equals(userId)) {
+            throw new RuntimeException("Nu aveți permisiunea de a șterge această căutare");
+        }
+        search.setIsActive(false);
+        savedSearchRepository.save(search);
+        savedSearchIndex.remove(searchId);
+        dataVersions.searchesChanged(userId);
+    }
+
+    /**
+     * Căutările create sau șterse pe alte noduri: indexul este recitit pentru fiecare utilizator afectat.
+     */
+    @EventListener
+    public void onRemoteChanges(DataVersions.RemoteChanges remote) {
+        Set<Long> users = new HashSet<>();
+        for (DataVersions.Change change : remote.changes()) {
+            if (change.kind() == DataVersions.Kind.SEARCHES && change.userId() != null) {
+                users.add(change.userId());
+            }
+        }
+        for (Long userId : users) {
+            try {
+                reloadUser(userId);
+            } catch (RuntimeException e) {
+                System.err.println("Căutările salvate ale utilizatorului " + userId + " nu au putut fi recitite: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Apelată după salvarea unei curse noi: găsește căutările potrivite și pune mesajele în coadă.
+     * Un utilizator primește un singur mesaj pe cursă, chiar dacă are mai multe căutări potrivite.
+     */
+    public void rideAdded(RideDTO ride) {
+        List<SavedSearchIndex.Entry> matches = savedSearchIndex.match(ride.getFromLocation(), ride.getToLocation(),
+                ride.getTravelDate().toLocalDate(), ride.getAvailableSeats(), ride.getUserId());
+        if (matches.isEmpty()) {
+            return;
+        }
+        Set<Long> notified = new HashSet<>();
+        for (SavedSearchIndex.Entry match : matches) {
+            if (notified.add(match.userId()) && !pending.offer(new PendingMatch(match.searchId(), match.userId(), ride))) {
+                droppedQueueFull.increment();
+            }
+        }
+    }
+
+    /**
+     * Apelată după crearea unei curse recurente. O căutare pentru o anumită zi primește ocurența
+     * din acea zi, iar o căutare pentru orice zi primește prima ocurență (first).
+     * Un utilizator primește un singur mesaj pe zi de cursă.
+     */
+    public void recurringRideAdded(RideDTO first, Predicate<LocalDate> runsOn, Function<LocalDate, RideDTO> occurrence) {
+        LocalDate today = LocalDate.now();
+        List<SavedSearchIndex.DatedEntry> matches = savedSearchIndex.matchRecurring(first.getFromLocation(),
+                first.getToLocation(), date -> !date.isBefore(today) && runsOn.test(date),
+                first.getAvailableSeats(), first.getUserId());
+        Set<Map.Entry<Long, LocalDate>> notified = new HashSet<>();
+        for (SavedSearchIndex.DatedEntry match : matches) {
+            LocalDate date = match.travelDate() != null ? match.travelDate() : first.getTravelDate().toLocalDate();
+            if (!notified.add(Map.entry(match.entry().userId(), date))) {
+                continue;
+            }
+            RideDTO ride = match.travelDate() != null ? occurrence.apply(date) : first;
+            if (!pending.offer(new PendingMatch(match.entry().searchId(), match.entry().userId(), ride))) {
+                droppedQueueFull.increment();
+            }
+        }
+    }
+
+    /**
+     * Salvează în inbox potrivirile din coadă, în loturi. Dacă un lot nu poate fi salvat, livrarea
+     * se oprește până la următoarea rulare, iar restul potrivirilor rămân în coadă.
+     */
+    @Scheduled(fixedDelayString = "${searches.delivery-interval-ms:2000}")
+    public synchronized int deliverPending() {
+        int delivered = 0;
+        if (!failedBatch.isEmpty()) {
+            List<PendingMatch> retry = failedBatch;
+            if (!save(retry)) {
+                return 0;
+            }
+            delivered += retry.size();
+        }
+        List<PendingMatch> batch = new ArrayList<>(DELIVERY_BATCH);
+        PendingMatch match;
+        while ((match = pending.poll()) != null) {
+            batch.add(match);
+            if (batch.size() == DELIVERY_BATCH) {
+                if (!save(batch)) {
+                    return delivered;
+                }
+                delivered += batch.size();
+                batch = new ArrayList<>(DELIVERY_BATCH);
+            }
+        }
+        if (!batch.isEmpty() && save(batch)) {
+            delivered += batch.size();
+        }
+        return delivered;
+    }
+
+    /**
+     * Anunță în inbox pasagerii ale căror rezervări au fost anulate pentru că șoferul a șters cursa.
+     * Mesajele sunt salvate în tranzacția apelantului, odată cu anularea.
+     */
+    public void rideCancelled(Long rideId, String fromLocation, String toLocation, LocalDateTime departureTime,
+                              Collection<Long> passengerIds) {
+        if (passengerIds.isEmpty()) {
+            return;
+        }
+        List<InboxMessage> messages = new ArrayList<>(passengerIds.size());
+        for (Long passengerId : passengerIds) {
+            InboxMessage message = new InboxMessage();
+            message.setUser(userRepository.getReferenceById(passengerId));
+            message.setRideId(rideId);
+            message.setMessage("Cursa " + fromLocation + " → " + toLocation + " din " + departureTime.format(DATE_FORMAT)
+                    + " la " + departureTime.format(TIME_FORMAT) + " a fost anulată de șofer; rezervarea dvs. a fost anulată");
+            messages.add(message);
+        }
+        inboxMessageRepository.saveAll(messages);
+    }
+
+    public int pruneExpired() {
+        return savedSearchIndex.pruneBefore(LocalDate.now());
+    }
+
+    public List<InboxMessageDTO> getInbox(Long userId) {
+        return inboxMessageRepository.findLatestByUserId(userId, PageRequest.of(0, INBOX_PAGE_SIZE));
+    }
+
+    public long getUnreadCount(Long userId) {
+        return inboxMessageRepository.countUnread(userId);
+    }
+
+    public boolean markRead(Long messageId, Long userId) {
+        return inboxMessageRepository.markRead(messageId, userId) > 0;
+    }
+
+    public int markAllRead(Long userId) {
+        return inboxMessageRepository.markAllRead(userId);
+    }
+
+    /**
+     * Salvează un lot într-o singură tranzacție. Un lot eșuat este păstrat pentru reîncercare,
+     * iar după searches.delivery-attempts încercări este renunțat la el.
+     */
+    private boolean save(List<PendingMatch> batch) {
+        try {
+            inboxMessageRepository.saveAll(batch.stream().map(this::toMessage).collect(Collectors.toList()));
+            failedBatch = List.of();
+            failedAttempts = 0;
+            return true;
+        } catch (Exception e) {
+            failedAttempts = batch == failedBatch ? failedAttempts + 1 : 1;
+            if (failedAttempts >= maxAttempts) {
+                System.err.println("Eroare la livrarea mesajelor în inbox, " + batch.size()
+                        + " mesaje pierdute după " + failedAttempts + " încercări: " + e.getMessage());
+                droppedSaveFailed.increment(batch.size());
+                failedBatch = List.of();
+                failedAttempts = 0;
+            } else {
+                System.err.println("Eroare la livrarea mesajelor în inbox (încercarea " + failedAttempts
+                        + "), lotul va fi reîncercat: " + e.getMessage());
+                failedBatch = batch;
+            }
+            return false;
+        }
+    }
+
+    private void reloadUser(Long userId) {
+        List<SavedSearch> searches = savedSearchRepository.findActiveSearchesByUserId(userId, LocalDate.now());
+        Set<Long> stale = new HashSet<>(savedSearchIndex.searchIdsOf(userId));
+        for (SavedSearch search : searches) {
+            stale.remove(search.getId());
+            savedSearchIndex.add(search.getId(), userId, search.getFromLocation(), search.getToLocation(),
+                    search.getTravelDate(), search.getMinSeats());
+        }
+        stale.forEach(savedSearchIndex::remove);
+    }
+
+    private InboxMessage toMessage(PendingMatch match) {
+        RideDTO ride = match.ride();
+        InboxMessage message = new InboxMessage();
+        message.setUser(userRepository.getReferenceById(match.userId()));
+        message.setRideId(ride.getId());
+        message.setSavedSearchId(match.searchId());
+        message.setMessage("Cursă nouă: " + ride.getFromLocation() + " → " + ride.getToLocation() + ", "
+                + ride.getDepartureTime().format(DATE_FORMAT) + " la " + ride.getDepartureTime().format(TIME_FORMAT)
+                + ", " + ride.getAvailableSeats() + " locuri, " + ride.getPrice() + " lei");
+        return message;
+    }
+
+    private record PendingMatch(long searchId, long userId, RideDTO ride) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.scutelnic.faina.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.session.MapSession;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Nivelul durabil al sesiunilor: tabela app_sessions (vezi StoredSession), accesată cu JdbcTemplate.
+ * Atributele sunt serializate împreună într-o singură coloană; la citire sunt acceptate doar
+ * clasele JDK și cele ale aplicației.
+ */
+@Service
+public class SessionJdbcTier {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private static final ObjectInputFilter ATTRIBUTE_FILTER = ObjectInputFilter.Config.createFilter(
+            "java.base/*;com.scutelnic.faina.**;!*");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    public Optional<MapSession> load(String sessionId, long nowMillis) {
+        List<MapSession> sessions = jdbcTemplate.query(
+                "SELECT session_id, creation_time, last_access_time, max_inactive_seconds, attributes " +
+                "FROM app_sessions WHERE session_id = ? AND expiry_time > ?",
+                (rs, rowNum) -> {
+                    MapSession session = new MapSession(rs.getString("session_id"));
+                    session.setCreationTime(Instant.ofEpochMilli(rs.getLong("creation_time")));
+                    session.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("last_access_time")));
+                    session.setMaxInactiveInterval(Duration.ofSeconds(rs.getLong("max_inactive_seconds")));
+                    readAttributes(rs.getBytes("attributes")).forEach(session::setAttribute);
+                    return session;
+                },
+                sessionId, nowMillis);
+        return sessions.stream().findFirst();
+    }
+    
+    /**
+     * Salvează o sesiune nouă (sau una cu id schimbat).
+     */
+    public void insert(MapSession session) {
+        long lastAccess = session.getLastAccessedTime().toEpochMilli();
+        long maxInactiveSeconds = session.getMaxInactiveInterval().toSeconds();
+        jdbcTemplate.update(
+                "INSERT INTO app_sessions (session_id, creation_time, last_access_time, max_inactive_seconds, " +
+                "expiry_time, attributes) VALUES (?, ?, ?, ?, ?, ?)",
+                session.getId(), session.getCreationTime().toEpochMilli(), lastAccess, maxInactiveSeconds,
+                lastAccess + maxInactiveSeconds * 1000L, writeAttributes(session));
+    }
+    
+    /**
+     * Rescrie atributele și momentele unei sesiuni existente. Nu creează rândul: o sesiune
+     * ștearsă între timp (deconectare într-o cerere paralelă) rămâne ștearsă.
+     *
+     * @return false dacă sesiunea nu mai există
+     */
+    public boolean update(MapSession session) {
+        long lastAccess = session.getLastAccessedTime().toEpochMilli();
+        long maxInactiveSeconds = session.getMaxInactiveInterval().toSeconds();
+        return jdbcTemplate.update(
+                "UPDATE app_sessions SET last_access_time = ?, max_inactive_seconds = ?, expiry_time = ?, attributes = ? " +
+                "WHERE session_id = ?",
+                lastAccess, maxInactiveSeconds, lastAccess + maxInactiveSeconds * 1000L, writeAttributes(session),
+                session.getId()) > 0;
+    }
+    
+    /**
+     * Actualizează momentul ultimului acces pentru mai multe sesiuni, în loturi JDBC.
+     * Un moment mai vechi decât cel salvat (de exemplu, scris de alt nod) este ignorat.
+     *
+     * @return numărul de instrucțiuni trimise
+     */
+    public int touchAll(Map<String, Long> lastAccessById) {
+        List<Object[]> rows = new ArrayList<>(Math.min(lastAccessById.size(), BATCH_SIZE));
+        int statements = 0;
+        for (Map.Entry<String, Long> touch : lastAccessById.entrySet()) {
+            rows.add(new Object[] {touch.getValue(), touch.getValue(), touch.getKey(), touch.getValue()});
+            if (rows.size() == BATCH_SIZE) {
+                statements += touch(rows);
+            }
+        }
+        statements += touch(rows);
+        return statements;
+    }
+    
+    public void delete(String sessionId) {
+        jdbcTemplate.update("DELETE FROM app_sessions WHERE session_id = ?", sessionId);
+    }
+    
+    public int deleteExpired(long nowMillis) {
+        return jdbcTemplate.update("DELETE FROM app_sessions WHERE expiry_time <= ?", nowMillis);
+    }
+    
+    private int touch(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE app_sessions SET last_access_time = ?, expiry_time = ? + max_inactive_seconds * 1000 " +
+                "WHERE session_id = ? AND last_access_time < ?", rows);
+        int size = rows.size();
+        rows.clear();
+        return size;
+    }
+    
+    private static byte[] writeAttributes(MapSession session) {
+        HashMap<String, Object> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(attributes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Atributele sesiunii nu pot fi serializate: " + e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readAttributes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return Map.of();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(ATTRIBUTE_FILTER);
+            return (Map<String, Object>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            // Sesiune scrisă de o versiune incompatibilă: utilizatorul se va autentifica din nou
+            System.err.println("Atributele sesiunii nu pot fi citite: " + e.getMessage());
+            return Map.of();
+        }
+    }
+}
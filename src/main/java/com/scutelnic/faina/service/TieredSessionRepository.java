@@ -0,0 +1,319 @@
+package com.scutelnic.faina.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Depozitul sesiunilor HTTP, pe două niveluri: o hartă concurentă în memorie (nivelul „cald”)
+ * peste tabela app_sessions (SessionJdbcTier). Sesiunile noi și cele cu atribute modificate sunt
+ * scrise imediat în baza de date; doar sesiunile noi sunt inserate, deci o cerere care se termină
+ * după o deconectare nu recreează sesiunea. O cerere care doar atinge sesiunea (lastAccessedTime)
+ * nu face nicio scriere și nu înlocuiește atributele din memorie (pot fi schimbate între timp de
+ * o autentificare): momentele sunt strânse în pendingTouches și salvate în loturi de flushTouches().
+ * Intrările calde sunt recitite din baza de date după sessions.hot-ttl-ms, ca o deconectare făcută
+ * pe alt nod să fie văzută. Sesiunile expirate sunt șterse în bloc de sweepExpired().
+ * Citirile și scrierile făcute în timpul unei cereri rulează într-o tranzacție: cu open-in-view,
+ * JpaTransactionManager folosește conexiunea pe care EntityManager-ul cererii o ține deja, deci
+ * sesiunea nu cere o a doua conexiune din pool (sub sarcină, pool-ul s-ar bloca).
+ * Metrici: sessions.touches.flushed, sessions.jdbc.loads și sessions.hot.size.
+ */
+@Service
+public class TieredSessionRepository implements SessionRepository<TieredSessionRepository.TieredSession> {
+
+    @Value("${spring.session.timeout:${server.servlet.session.timeout:30m}}")
+    private Duration defaultMaxInactiveInterval;
+
+    @Value("${sessions.hot-ttl-ms:5000}")
+    private long hotTtlMs;
+
+    @Value("${sessions.hot-idle-ms:600000}")
+    private long hotIdleMs;
+
+    @Autowired
+    private SessionJdbcTier jdbcTier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, HotSession> hot = new ConcurrentHashMap<>();
+    private final Map<String, Long> pendingTouches = new ConcurrentHashMap<>();
+
+    private Counter touchesFlushed;
+    private Counter jdbcLoads;
+
+    @PostConstruct
+    public void registerMetrics() {
+        touchesFlushed = Counter.builder("sessions.touches.flushed")
+                .description("Momente de acces ale sesiunilor salvate în loturi")
+                .register(meterRegistry);
+        jdbcLoads = Counter.builder("sessions.jdbc.loads")
+                .description("Sesiuni citite din baza de date (lipsă sau expirate în memorie)")
+                .register(meterRegistry);
+        Gauge.builder("sessions.hot.size", hot, Map::size)
+                .description("Sesiuni ținute în memorie")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public TieredSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new TieredSession(session, true);
+    }
+
+    @Override
+    public void save(TieredSession session) {
+        long now = System.currentTimeMillis();
+        String id = session.getId();
+        if (!id.equals(session.originalId)) {
+            deleteById(session.originalId);
+        }
+        MapSession snapshot = new MapSession(session.delegate);
+        if (session.isNew || !id.equals(session.originalId)) {
+            inRequestTransaction(status -> {
+                jdbcTier.insert(snapshot);
+                return null;
+            });
+            pendingTouches.remove(id);
+            hot.put(id, new HotSession(snapshot, now));
+        } else if (session.changed) {
+            if (inRequestTransaction(status -> jdbcTier.update(snapshot))) {
+                hot.put(id, new HotSession(snapshot, now));
+            } else {
+                // Ștearsă între timp (deconectare): nu o recreăm
+                hot.remove(id);
+                pendingTouches.remove(id);
+            }
+        } else {
+            // Doar momentul accesului; UPDATE-ul din flushTouches nu atinge o sesiune deja ștearsă
+            long lastAccess = snapshot.getLastAccessedTime().toEpochMilli();
+            pendingTouches.merge(id, lastAccess, Math::max);
+            hot.computeIfPresent(id, (key, previous) -> previous.touched(lastAccess));
+        }
+        session.isNew = false;
+        session.changed = false;
+        session.originalId = id;
+    }
+
+    @Override
+    public TieredSession findById(String id) {
+        long now = System.currentTimeMillis();
+        HotSession cached = hot.get(id);
+        MapSession session;
+        if (cached != null && now - cached.loadedAt() < hotTtlMs) {
+            session = cached.session();
+        } else {
+            jdbcLoads.increment();
+            MapSession stored = inRequestTransaction(status -> jdbcTier.load(id, now)).orElse(null);
+            if (stored == null) {
+                // Ștearsă sau expirată (eventual de pe alt nod)
+                hot.remove(id);
+                pendingTouches.remove(id);
+                return null;
+            }
+            if (cached != null && cached.session().getLastAccessedTime().isAfter(stored.getLastAccessedTime())) {
+                stored.setLastAccessedTime(cached.session().getLastAccessedTime());
+            }
+            hot.put(id, new HotSession(stored, now));
+            session = stored;
+        }
+        if (isExpired(session, now)) {
+            deleteById(id);
+            return null;
+        }
+        return new TieredSession(new MapSession(session), false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        hot.remove(id);
+        pendingTouches.remove(id);
+        inRequestTransaction(status -> {
+            jdbcTier.delete(id);
+            return null;
+        });
+    }
+
+    /**
+     * Salvează în loturi momentele de acces strânse de la ultima rulare.
+     */
+    @Scheduled(fixedDelayString = "${sessions.flush-interval-ms:5000}")
+    public int flushTouches() {
+        if (pendingTouches.isEmpty()) {
+            return 0;
+        }
+        Map<String, Long> batch = new HashMap<>();
+        for (String id : Set.copyOf(pendingTouches.keySet())) {
+            Long lastAccess = pendingTouches.remove(id);
+            if (lastAccess != null) {
+                batch.put(id, lastAccess);
+            }
+        }
+        try {
+            jdbcTier.touchAll(batch);
+        } catch (Exception e) {
+            System.err.println("Eroare la salvarea accesului la sesiuni: " + e.getMessage());
+            batch.forEach((id, lastAccess) -> pendingTouches.merge(id, lastAccess, Math::max));
+            return 0;
+        }
+        touchesFlushed.increment(batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Scoate din memorie sesiunile expirate sau nefolosite de mult și șterge în bloc rândurile expirate.
+     * Accesele în așteptare sunt salvate întâi, ca o sesiune activă să nu fie ștearsă.
+     */
+    @Scheduled(cron = "${sessions.cleanup-cron:0 * * * * *}")
+    public int sweepExpired() {
+        flushTouches();
+        long now = System.currentTimeMillis();
+        hot.entrySet().removeIf(entry -> isExpired(entry.getValue().session(), now)
+                || now - entry.getValue().session().getLastAccessedTime().toEpochMilli() > hotIdleMs);
+        try {
+            int deleted = jdbcTier.deleteExpired(now);
+            if (deleted > 0) {
+                System.out.println("Sesiuni expirate șterse: " + deleted);
+            }
+            return deleted;
+        } catch (Exception e) {
+            System.err.println("Eroare la ștergerea sesiunilor expirate: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public int getHotSize() {
+        return hot.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushTouches();
+    }
+
+    private <T> T inRequestTransaction(TransactionCallback<T> action) {
+        return new TransactionTemplate(transactionManager).execute(action);
+    }
+
+    private static boolean isExpired(MapSession session, long nowMillis) {
+        return !session.getMaxInactiveInterval().isNegative()
+                && session.getLastAccessedTime().toEpochMilli() + session.getMaxInactiveInterval().toMillis() <= nowMillis;
+    }
+
+    private record HotSession(MapSession session, long loadedAt) {
+        
+        // Sesiunile din memorie sunt partajate între cereri, deci nu sunt modificate pe loc
+        HotSession touched(long lastAccessMillis) {
+            if (session.getLastAccessedTime().toEpochMilli() >= lastAccessMillis) {
+                return this;
+            }
+            MapSession copy = new MapSession(session);
+            copy.setLastAccessedTime(Instant.ofEpochMilli(lastAccessMillis));
+            return new HotSession(copy, loadedAt);
+        }
+    }
+
+    /**
+     * Sesiunea dată filtrului: o copie proprie a datelor, plus ce s-a schimbat de la citire.
+     * Atributele sunt considerate modificate doar la setAttribute/removeAttribute, deci
+     * obiectele puse în sesiune trebuie înlocuite, nu modificate pe loc (SessionUser este imutabil).
+     */
+    public static final class TieredSession implements Session {
+        private final MapSession delegate;
+        private String originalId;
+        private boolean isNew;
+        private boolean changed;
+
+        private TieredSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.originalId = delegate.getId();
+            this.isNew = isNew;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changed = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changed = true;
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            changed = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -5,35 +5,223 @@ import com.scutelnic.faina.repository.UserRepository;
 import com.scutelnic.faina.dto.LoginRequest;
 import com.scutelnic.faina.dto.RegisterRequest;
 import com.scutelnic.faina.dto.AuthResponse;
+import com.scutelnic.faina.dto.PublicProfile;
+import com.scutelnic.faina.dto.AdminUserDTO;
+import com.scutelnic.faina.dto.AdminUserPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
     
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int ADMIN_MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private UserRepository userRepository;
     
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Autowired
+    private RideCatalog rideCatalog;
+    
+    @Autowired
+    private RecentRidesFeed recentRidesFeed;
+    
+    @Autowired
+    private RideTemplateService rideTemplateService;
+    
+    @Autowired
+    private DataVersions dataVersions;
+    
+    @Autowired
+    private PasswordService passwordService;
+    
+    @Autowired
+    private PublicProfileCache publicProfileCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Coloanele cerute prin parametrul fields ("email,firstName"); toate, dacă lipsește.
+     */
+    public List<String> adminColumns(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new ArrayList<>(AdminUserDTO.COLUMNS.keySet());
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String column = field.trim();
+            if (!AdminUserDTO.COLUMNS.containsKey(column)) {
+                throw new IllegalArgumentException("Coloană necunoscută: " + column
+                        + ". Coloane disponibile: " + String.join(", ", AdminUserDTO.COLUMNS.keySet()));
+            }
+            columns.add(column);
+        }
+        return new ArrayList<>(columns);
+    }
+    
+    /**
+     * O pagină din lista de utilizatori pentru administrare, cei mai noi primii, cu cursor (createdAt, id).
+     * Filtre opționale: active și începutul adresei de email.
+     */
+    @Transactional(readOnly = true)
+    public AdminUserPage getUsersPage(Boolean active, String emailPrefix, List<String> columns, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, ADMIN_MAX_PAGE_SIZE));
+        LocalDateTime cursorCreatedAt = MAX_DATE;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.lastIndexOf('_');
+            if (separator > 0) {
+                try {
+                    cursorCreatedAt = LocalDateTime.parse(cursor.substring(0, separator));
+                    cursorId = Long.parseLong(cursor.substring(separator + 1));
+                } catch (RuntimeException e) {
+                    System.err.println("Cursor invalid, se afișează prima pagină: " + cursor);
+                }
+            }
+        }
+        
+        List<AdminUserDTO> users = userRepository.findAdminPage(active, emailPattern(emailPrefix), cursorCreatedAt,
+                cursorId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = users.size() > pageSize;
+        List<AdminUserDTO> pageUsers = hasMore ? users.subList(0, pageSize) : users;
+        
+        AdminUserPage page = new AdminUserPage();
+        page.setFields(columns);
+        page.setUsers(pageUsers.stream().map(user -> project(user, columns)).toList());
+        page.setHasNext(hasMore);
+        if (hasMore) {
+            AdminUserDTO last = pageUsers.get(pageUsers.size() - 1);
+            page.setNextCursor(last.getCreatedAt() + "_" + last.getId());
+        }
+        return page;
+    }
+    
+    /**
+     * Scrie utilizatorii filtrați ca CSV (cu antet) sau NDJSON, doar cu coloanele cerute.
+     * Rândurile vin dintr-un cursor, câte EXPORT_FETCH_SIZE odată, proiectate direct în DTO,
+     * deci în memorie se află cel mult un lot, oricât de mare ar fi tabela.
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(Boolean active, String emailPrefix, List<String> columns, boolean csv,
+                            OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<AdminUserDTO> users = userRepository.streamForExport(active, emailPattern(emailPrefix))) {
+            Iterator<AdminUserDTO> iterator = users.iterator();
+            if (csv) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(String.join(",", columns));
+                writer.write("\r\n");
+                while (iterator.hasNext()) {
+                    AdminUserDTO user = iterator.next();
+                    for (int i = 0; i < columns.size(); i++) {
+                        if (i > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(csvValue(AdminUserDTO.COLUMNS.get(columns.get(i)).apply(user)));
+                    }
+                    writer.write("\r\n");
+                    if (++count % UserRepository.EXPORT_FETCH_SIZE == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } else {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.setRootValueSeparator(null);
+                    ObjectWriter writer = objectMapper.writerFor(Map.class)
+                            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                    while (iterator.hasNext()) {
+                        writer.writeValue(generator, project(iterator.next(), columns));
+                        generator.writeRaw('\n');
+                        if (++count % UserRepository.EXPORT_FETCH_SIZE == 0) {
+                            generator.flush();
+                        }
+                    }
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+    
+    private static Map<String, Object> project(AdminUserDTO user, List<String> columns) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String column : columns) {
+            row.put(column, AdminUserDTO.COLUMNS.get(column).apply(user));
+        }
+        return row;
+    }
+    
+    // "ion" -> "ion%", cu caracterele speciale LIKE escapate prin '!'
+    private static String emailPattern(String emailPrefix) {
+        if (emailPrefix == null || emailPrefix.isBlank()) {
+            return null;
+        }
+        return emailPrefix.trim().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+    
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // O celulă care începe cu =, +, - sau @ ar fi interpretată ca formulă de Excel
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !(value instanceof Number)) {
+            text = "'" + text;
+        }
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
     }
     
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
     
+    public Optional<PublicProfile> getPublicProfile(Long id) {
+        return publicProfileCache.get(id);
+    }
+    
+    /**
+     * Referință la utilizatorul din sesiune, pentru a fi asociat unei curse, căutări etc.
+     * Rândul este citit doar dacă sunt folosite și alte câmpuri decât id-ul.
+     */
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+    
     public Optional<User> getUserByEmail(String email) {
         return userRepository.findByEmailAndIsActiveTrue(email);
     }
@@ -42,11 +230,23 @@ public class UserService {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Utilizatorul cu acest email există deja");
         }
+        user.setPassword(passwordService.hash(user.getPassword()));
         return userRepository.save(user);
     }
     
     public User updateUser(User user) {
-        return userRepository.save(user);
+        // Parola nu este trimisă în răspunsuri; lipsa ei înseamnă că rămâne cea salvată
+        if (user.getPassword() == null) {
+            user.setPassword(userRepository.findById(user.getId())
+                    .orElseThrow(() -> new RuntimeException("Utilizatorul nu a fost găsit"))
+                    .getPassword());
+        } else if (!PasswordService.isHashed(user.getPassword())) {
+            user.setPassword(passwordService.hash(user.getPassword()));
+        }
+        User saved = userRepository.save(user);
+        dataVersions.profileChanged(saved.getId());
+        publicProfileCache.invalidate(saved.getId());
+        return saved;
     }
     
     public User updateProfile(Long userId, String firstName, String lastName, String email, 
@@ -73,15 +273,15 @@ public class UserService {
                 throw new RuntimeException("Parola actuală este obligatorie pentru a schimba parola");
             }
             
-            if (!Objects.equals(user.getPassword(), currentPassword)) {
-                throw new RuntimeException("Parola actuală este incorectă");
-            }
-            
             if (newPassword.length() < 6) {
                 throw new RuntimeException("Parola nouă trebuie să aibă cel puțin 6 caractere");
             }
             
-            user.setPassword(newPassword);
+            if (!passwordService.check(currentPassword, user.getPassword()).matches()) {
+                throw new RuntimeException("Parola actuală este incorectă");
+            }
+            
+            user.setPassword(passwordService.hash(newPassword));
         }
         
         // Gestionăm imaginea de profil
@@ -94,7 +294,13 @@ public class UserService {
             }
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        rideCatalog.updateDriver(savedUser);
+        recentRidesFeed.updateDriver(savedUser);
+        rideTemplateService.updateDriver(savedUser);
+        dataVersions.profileChanged(savedUser.getId());
+        publicProfileCache.invalidate(savedUser.getId());
+        return savedUser;
     }
     
     private String saveProfileImage(MultipartFile file) throws IOException {
@@ -122,6 +328,8 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Utilizatorul nu a fost găsit"));
         user.setIsActive(false);
         userRepository.save(user);
+        dataVersions.profileChanged(id);
+        publicProfileCache.invalidate(id);
     }
     
     public AuthResponse login(LoginRequest loginRequest) {
@@ -131,14 +339,19 @@ public class UserService {
         
         Optional<User> userOpt = userRepository.findByEmailAndIsActiveTrue(loginRequest.getEmail());
         if (userOpt.isEmpty()) {
+            passwordService.checkAgainstDummy(loginRequest.getPassword());
             return new AuthResponse(false, "Email sau parolă incorectă");
         }
         
         User user = userOpt.get();
-        // Verificăm parola (pentru moment, direct comparare - în producție ar trebui hash)
-        if (!user.getPassword().equals(loginRequest.getPassword())) {
+        PasswordService.Check check = passwordService.check(loginRequest.getPassword(), user.getPassword());
+        if (!check.matches()) {
             return new AuthResponse(false, "Email sau parolă incorectă");
         }
+        // Parolă în clar sau hash cu mai puține iterații: îl înlocuim acum, cât avem parola
+        if (check.rehash() != null && userRepository.replacePassword(user.getId(), user.getPassword(), check.rehash()) > 0) {
+            user.setPassword(check.rehash());
+        }
         
         return new AuthResponse(true, "Autentificare reușită", user);
     }
@@ -156,7 +369,7 @@ public class UserService {
         
         User newUser = new User();
         newUser.setEmail(registerRequest.getEmail());
-        newUser.setPassword(registerRequest.getPassword());
+        newUser.setPassword(passwordService.hash(registerRequest.getPassword()));
         newUser.setFirstName(registerRequest.getFirstName());
         newUser.setLastName(registerRequest.getLastName());
         newUser.setPhone(registerRequest.getPhone());
@@ -0,0 +1,162 @@
+package com.scutelnic.faina.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trie compact pentru autocompletare, construit o singură dată la pornire.
+ * Nodurile sunt stocate în tablouri primitive (copiii fiecărui nod sunt contigui și sortați),
+ * iar fiecare nod păstrează intrările din subarborele său (toate sau doar primele
+ * maxEntriesPerNode), în ordinea în care au fost adăugate (adică după rang).
+ * O căutare costă O(lungimea prefixului).
+ */
+public final class LocalityTrie {
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] entriesOffset;
+    private final int[] entriesCount;
+    private final int[] entries;
+
+    private LocalityTrie(char[] labels, int[] firstChild, int[] childCount,
+                         int[] entriesOffset, int[] entriesCount, int[] entries) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.entriesOffset = entriesOffset;
+        this.entriesCount = entriesCount;
+        this.entries = entries;
+    }
+
+    public static Builder builder() {
+        return new Builder(Integer.MAX_VALUE);
+    }
+
+    public static Builder builder(int maxEntriesPerNode) {
+        return new Builder(maxEntriesPerNode);
+    }
+
+    /**
+     * Returnează id-urile intrărilor ale căror chei încep cu prefixul dat, în ordinea rangului.
+     */
+    public int[] lookup(String prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = findChild(node, prefix.charAt(i));
+            if (node < 0) {
+                return new int[0];
+            }
+        }
+        int offset = entriesOffset[node];
+        return Arrays.copyOfRange(entries, offset, offset + entriesCount[node]);
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public static final class Builder {
+
+        private final int maxEntriesPerNode;
+        private final Node root = new Node('\0');
+
+        private Builder(int maxEntriesPerNode) {
+            this.maxEntriesPerNode = maxEntriesPerNode;
+        }
+
+        /**
+         * Adaugă o cheie. Intrările trebuie adăugate în ordinea rangului (cea mai relevantă prima),
+         * cu toate cheile unei intrări una după alta.
+         */
+        public Builder add(String key, int entryId) {
+            Node node = root;
+            node.offer(entryId, maxEntriesPerNode);
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                node = node.children.computeIfAbsent(c, Node::new);
+                node.offer(entryId, maxEntriesPerNode);
+            }
+            return this;
+        }
+
+        public LocalityTrie build() {
+            // Parcurgere în lățime, astfel încât copiii fiecărui nod să fie contigui
+            List<Node> order = new ArrayList<>();
+            Deque<Node> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                order.add(node);
+                queue.addAll(node.children.values());
+            }
+
+            int size = order.size();
+            char[] labels = new char[size];
+            int[] firstChild = new int[size];
+            int[] childCount = new int[size];
+            int[] entriesOffset = new int[size];
+            int[] entriesCount = new int[size];
+            int totalEntries = 0;
+            for (Node node : order) {
+                totalEntries += node.entries.size();
+            }
+            int[] entries = new int[totalEntries];
+
+            int nextChild = 1;
+            int nextEntry = 0;
+            for (int i = 0; i < size; i++) {
+                Node node = order.get(i);
+                labels[i] = node.label;
+                firstChild[i] = nextChild;
+                childCount[i] = node.children.size();
+                nextChild += node.children.size();
+                entriesOffset[i] = nextEntry;
+                entriesCount[i] = node.entries.size();
+                for (int entryId : node.entries) {
+                    entries[nextEntry++] = entryId;
+                }
+            }
+            return new LocalityTrie(labels, firstChild, childCount, entriesOffset, entriesCount, entries);
+        }
+    }
+
+    private static final class Node {
+        private final char label;
+        private final Map<Character, Node> children = new TreeMap<>();
+        private final List<Integer> entries = new ArrayList<>();
+
+        private Node(char label) {
+            this.label = label;
+        }
+
+        private void offer(int entryId, int max) {
+            // Cheile unei intrări sunt adăugate una după alta, deci un duplicat poate fi doar ultimul
+            if (entries.size() < max && (entries.isEmpty() || entries.get(entries.size() - 1) != entryId)) {
+                entries.add(entryId);
+            }
+        }
+    }
+}
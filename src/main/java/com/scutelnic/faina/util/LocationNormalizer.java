@@ -0,0 +1,44 @@
+package com.scutelnic.faina.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizează numele localităților pentru căutare:
+ * fără diacritice, litere mici, iar orice separator devine un singur spațiu.
+ * Astfel "Chișinău", "Chişinău" și "CHISINAU" au aceeași cheie: "chisinau".
+ */
+public final class LocationNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private LocationNormalizer() {
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        String folded = COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(folded).replaceAll(" ").trim();
+    }
+
+    public static List<String> tokens(String value) {
+        List<String> tokens = new ArrayList<>();
+        String key = normalize(value);
+        if (key.isEmpty()) {
+            return tokens;
+        }
+        for (String token : key.split(" ")) {
+            if (!token.isEmpty() && !tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -49,16 +49,9 @@ document.addEventListener('DOMContentLoaded', function() {
 
 // Funcție pentru verificarea autentificării
 function checkAuthentication() {
-    fetch('/api/auth/user')
-        .then(response => {
-            if (response.ok) {
-                return response.json();
-            } else {
-                return null;
-            }
-        })
-        .then(user => {
-            if (!user) {
+    loadSession()
+        .then(session => {
+            if (!session.authenticated) {
                 // Utilizatorul nu este autentificat, redirecționăm la logare
                 // Salvăm URL-ul curent pentru a reveni după logare
                 sessionStorage.setItem('redirectAfterLogin', '/add-ride');
@@ -300,6 +293,13 @@ function initializeFormHandlers() {
     if (previewBtn) {
         previewBtn.addEventListener('click', showPreview);
     }
+    
+    const recurring = document.getElementById('recurring');
+    if (recurring) {
+        recurring.addEventListener('change', function() {
+            document.getElementById('recurring-options').style.display = this.checked ? 'block' : 'none';
+        });
+    }
 }
 
 // Handler pentru submit-ul formularului
@@ -340,13 +340,27 @@ function validateForm() {
         return false;
     }
     
+    // Validare cursă recurentă
+    if (document.getElementById('recurring')?.checked
+            && document.querySelectorAll('[name="weekdays"]:checked').length === 0) {
+        showNotification('Selectați cel puțin o zi a săptămânii pentru cursa recurentă.', 'error');
+        return false;
+    }
+    
     return true;
 }
 
 // Trimiterea datelor cursei
 async function submitRideData(formData) {
     try {
-        const response = await fetch('/api/rides', {
+        // Cursele recurente se salvează ca șablon; data călătoriei devine data de început
+        let url = '/api/rides';
+        if (formData.get('recurring')) {
+            formData.set('startDate', formData.get('travelDate'));
+            url = '/api/ride-templates';
+        }
+        
+        const response = await fetch(url, {
             method: 'POST',
             body: formData
         });
@@ -375,6 +389,7 @@ function showPreview() {
     
     const formData = new FormData(document.getElementById('add-ride-form'));
     currentFormData = Object.fromEntries(formData);
+    currentFormData.weekdays = formData.getAll('weekdays');
     
     const previewContent = document.getElementById('preview-content');
     previewContent.innerHTML = generatePreviewHTML(currentFormData);
@@ -394,7 +409,7 @@ function generatePreviewHTML(data) {
             
             <div class="preview-section">
                 <h4><i class="fas fa-calendar"></i> Detalii Călătorie</h4>
-                <p><strong>Data:</strong> ${data.travelDate}</p>
+                <p><strong>Data:</strong> ${data.travelDate}${data.recurring ? ` (recurentă, zilele: ${data.weekdays.join(', ')}${data.endDate ? `, până la ${data.endDate}` : ''})` : ''}</p>
                 <p><strong>Ora plecării:</strong> ${data.departureTime}</p>
                 <p><strong>Locuri disponibile:</strong> ${data.availableSeats}</p>
                                             <p><strong>Preț per loc:</strong> ${data.price} MDL</p>
@@ -424,7 +439,11 @@ function submitRide() {
     
     const formData = new FormData();
     Object.entries(currentFormData).forEach(([key, value]) => {
-        formData.append(key, value);
+        if (Array.isArray(value)) {
+            value.forEach(item => formData.append(key, item));
+        } else {
+            formData.append(key, value);
+        }
     });
     
     submitRideData(formData);
@@ -145,36 +145,25 @@ function setupAutocomplete(input, suggestionsId, type) {
     });
 }
 
-// Căutarea localităților folosind Nominatim
+// Căutarea localităților în gazetteer-ul servit de aplicație (fără Nominatim)
 async function searchLocations(query, container, type) {
     console.log(`Searching for: ${query} (${type})`);
     
     try {
-        // Căutăm în Moldova cu Nominatim
-        const searchQuery = `${query}, Moldova`;
-        const url = `https://nominatim.openstreetmap.org/search?format=json&q=${encodeURIComponent(searchQuery)}&countrycodes=md&limit=15&addressdetails=1`;
-        
-        console.log('Fetching from Nominatim:', url);
+        const url = `/api/locations/suggest?q=${encodeURIComponent(query)}&limit=15`;
         
         const response = await fetch(url);
         const data = await response.json();
         
-        console.log('Nominatim results:', data.length);
+        console.log('Suggestions:', data.length);
         
-        // Procesăm rezultatele și le sortăm pentru a avea localitățile relevante primele
-        const processedResults = data.map(item => {
-            const displayName = formatDisplayName(item);
-            const locationType = getLocationType(item);
-            
-            return {
-                name: displayName,
-                lat: item.lat,
-                lon: item.lon,
-                type: locationType,
-                fullAddress: item.display_name,
-                relevance: calculateRelevance(item, query)
-            };
-        }).sort((a, b) => b.relevance - a.relevance);
+        // Rezultatele vin deja sortate după relevanță de la server
+        const processedResults = data.map(item => ({
+            name: item.name,
+            type: item.type,
+            fullAddress: item.fullAddress,
+            relevance: item.relevance
+        }));
         
         displaySuggestions(processedResults, container, type);
     } catch (error) {
@@ -184,90 +173,6 @@ async function searchLocations(query, container, type) {
     }
 }
 
-// Calcularea relevanței pentru sortare
-function calculateRelevance(item, query) {
-    const address = item.address || {};
-    const queryLower = query.toLowerCase();
-    let relevance = 0;
-    
-    // Verificăm dacă query-ul se potrivește cu numele localității
-    if (address.city && address.city.toLowerCase().includes(queryLower)) relevance += 10;
-    if (address.town && address.town.toLowerCase().includes(queryLower)) relevance += 10;
-    if (address.village && address.village.toLowerCase().includes(queryLower)) relevance += 10;
-    if (address.hamlet && address.hamlet.toLowerCase().includes(queryLower)) relevance += 10;
-    
-    // Bonus pentru potrivirea exactă
-    if (address.city && address.city.toLowerCase() === queryLower) relevance += 5;
-    if (address.town && address.town.toLowerCase() === queryLower) relevance += 5;
-    if (address.village && address.village.toLowerCase() === queryLower) relevance += 5;
-    if (address.hamlet && address.hamlet.toLowerCase() === queryLower) relevance += 5;
-    
-    // Bonus pentru localități din Moldova
-    if (address.country === 'Moldova') relevance += 2;
-    
-    return relevance;
-}
-
-// Formatarea numelui pentru afișare
-function formatDisplayName(item) {
-    const address = item.address || {};
-    
-    // Pentru orașe mari, returnăm doar numele
-    const majorCities = ['chisinau', 'bălți', 'orhei', 'soroca', 'ungheni', 'cahul', 'strășeni', 'călărași', 'florești', 'drochia', 'rîșcani', 'glodeni', 'fălești', 'sîngerei', 'rezina', 'telenești', 'criuleni', 'aneni noi', 'cimișlia', 'leova', 'cantemir', 'ștefan vodă', 'căușeni', 'hîncești', 'ialoveni', 'nisporeni', 'ocnița', 'dondușeni', 'edineț', 'briceni', 'comrat', 'vulcănești', 'ceadîr-lunga', 'taraclia', 'basarabeasca', 'căinari', 'criuleni', 'dubăsari', 'grigoriopol', 'camenca', 'rîbnița', 'slobozia', 'tiraspol', 'bender', 'tiraspol'];
-    
-    // Verificăm dacă este un oraș mare
-    if (address.city) {
-        const cityName = address.city.toLowerCase();
-        if (majorCities.some(city => cityName.includes(city) || city.includes(cityName))) {
-            return address.city; // Returnăm doar numele orașului
-        }
-    }
-    if (address.town) {
-        const townName = address.town.toLowerCase();
-        if (majorCities.some(city => townName.includes(city) || city.includes(townName))) {
-            return address.town; // Returnăm doar numele orașului
-        }
-    }
-    
-    // Pentru sate și orașe mici, returnăm numele complet
-    if (address.city) return address.city;
-    if (address.town) return address.town;
-    if (address.village) return address.village;
-    if (address.hamlet) return address.hamlet;
-    if (address.suburb) return address.suburb;
-    if (address.neighbourhood) return address.neighbourhood;
-    
-    // Dacă nu găsim în address, încercăm să extragem din display_name
-    const parts = item.display_name.split(',');
-    // Căutăm primul element care pare a fi numele unei localități
-    for (let part of parts) {
-        part = part.trim();
-        // Verificăm dacă nu este un tip de locație (raion, țară, etc.)
-        if (part && !part.toLowerCase().includes('raion') && 
-            !part.toLowerCase().includes('moldova') && 
-            !part.toLowerCase().includes('md-') &&
-            part.length > 1) {
-            return part;
-        }
-    }
-    
-    // Fallback la primul element
-    return parts[0].trim();
-}
-
-// Determinarea tipului de locație
-function getLocationType(item) {
-    const address = item.address || {};
-    
-    if (address.aerodrome || address.airport) return 'airport';
-    if (address.railway_station || address.station) return 'station';
-    if (address.city || address.town) return 'city';
-    if (address.village || address.hamlet) return 'village';
-    if (address.suburb || address.neighbourhood) return 'district';
-    
-    return 'location';
-}
-
 // Afișarea sugestiilor
 function displaySuggestions(results, container, type) {
     console.log(`Displaying ${results.length} suggestions for ${type}`);
@@ -285,7 +190,7 @@ function displaySuggestions(results, container, type) {
         
         // Afișăm numele localității în titlu și adresa completă în subtitlu
         html += `
-            <div class="suggestion-item" data-index="${index}" data-lat="${result.lat}" data-lon="${result.lon}">
+            <div class="suggestion-item" data-index="${index}" data-lat="${result.lat || ''}" data-lon="${result.lon || ''}">
                 <i class="${iconClass}"></i>
                 <div class="suggestion-content">
                     <span class="suggestion-name">${displayName}</span>
@@ -10,9 +10,9 @@ document.addEventListener('DOMContentLoaded', function() {
 });
 
 function checkAuthAndRedirect() {
-    fetch('/api/auth/user')
-        .then(response => {
-            if (response.ok) {
+    loadSession()
+        .then(session => {
+            if (session.authenticated) {
                 // User is logged in, redirect to add-ride page
                 window.location.href = '/add-ride';
             } else {
@@ -5,20 +5,11 @@ document.addEventListener('DOMContentLoaded', function() {
 function checkAuthStatus() {
     console.log('Checking authentication status...');
     
-    fetch('/api/auth/user')
-        .then(response => {
-            console.log('Auth check response status:', response.status);
-            if (response.ok) {
-                return response.json();
-            } else {
-                console.log('User not authenticated, status:', response.status);
-                return null;
-            }
-        })
-        .then(user => {
-            if (user) {
-                console.log('User authenticated:', user.email);
-                updateNavbarForLoggedInUser(user);
+    loadSession()
+        .then(session => {
+            if (session.authenticated) {
+                console.log('User authenticated:', session.user.id);
+                updateNavbarForLoggedInUser(session.user, session.unreadInbox);
             } else {
                 console.log('No authenticated user found');
                 updateNavbarForLoggedOutUser();
@@ -30,14 +21,15 @@ function checkAuthStatus() {
         });
 }
 
-function updateNavbarForLoggedInUser(user) {
+function updateNavbarForLoggedInUser(user, unreadInbox = 0) {
     const navAuth = document.getElementById('nav-auth');
     if (navAuth) {
         navAuth.innerHTML = `
             <div class="nav-user">
                 <a href="/profile" class="nav-profile" title="Profilul meu">
                     <i class="fas fa-user-circle"></i>
-                    <span class="user-name">${user.firstName}</span>
+                    <span class="user-name">${user.displayName}</span>
+                    ${unreadInbox > 0 ? `<span class="nav-unread" title="Mesaje necitite">${unreadInbox}</span>` : ''}
                 </a>
                 <button class="btn-logout" onclick="logout()">
                     <i class="fas fa-sign-out-alt"></i>
@@ -24,16 +24,9 @@ function checkAuthentication() {
     
     // Dacă suntem pe profilul propriu, verificăm autentificarea
     if (!targetUserId || targetUserId === 'edit-profile') {
-        fetch('/api/auth/user')
-            .then(response => {
-                if (response.ok) {
-                    return response.json();
-                } else {
-                    return null;
-                }
-            })
-            .then(user => {
-                if (!user) {
+        loadSession()
+            .then(session => {
+                if (!session.authenticated) {
                     // Utilizatorul nu este autentificat, redirecționăm la logare
                     // Salvăm URL-ul curent pentru a reveni după logare
                     sessionStorage.setItem('redirectAfterLogin', window.location.pathname);
@@ -382,12 +375,14 @@ function displayUserInfo(user, isOwnProfile) {
         console.log('✅ Profile image updated');
         
         // Update user information with smooth transitions
+        // Profilul public (al altui utilizator) nu conține email și telefon, iar data înscrierii este memberSince
+        const memberSince = user.createdAt || user.memberSince;
         animateTextChange('user-name', `${user.firstName} ${user.lastName}`);
-        animateTextChange('user-email', user.email);
+        animateTextChange('user-email', user.email || '');
         animateTextChange('full-name', `${user.firstName} ${user.lastName}`);
-        animateTextChange('email', user.email);
-        animateTextChange('phone', user.phone || 'Nu specificat');
-        animateTextChange('created-at', formatDate(user.createdAt));
+        animateTextChange('email', user.email || 'Ascuns');
+        animateTextChange('phone', user.phone || (isOwnProfile ? 'Nu specificat' : 'Ascuns'));
+        animateTextChange('created-at', formatDate(memberSince));
         
         console.log('✅ User info updated');
         
@@ -399,7 +394,7 @@ function displayUserInfo(user, isOwnProfile) {
         }
         
         // Update member since
-        animateTextChange('member-since-header', formatDate(user.createdAt));
+        animateTextChange('member-since-header', formatDate(memberSince));
         
         // Update rating from user data - only for display purposes
         // The actual rating data will be loaded separately by loadUserRatingData
@@ -900,8 +895,7 @@ function loadUserRatingData(userId) {
     console.log('🔍 loadUserRatingData called for userId:', userId);
     
     // First check if user is authenticated
-    fetch('/api/auth/check')
-        .then(response => response.json())
+    loadSession()
         .then(authData => {
             console.log('🔍 Auth check result:', authData);
             
@@ -946,7 +940,7 @@ function loadUserRatingData(userId) {
                 const averageRating = data.averageRating || 0;
                 const totalRatings = data.totalRatings || 0;
                 // updateRatingDisplay(averageRating, totalRatings); // Removed as per edit hint
-                displayUserRatings(data.ratings);
+                displayUserRatings(data.ratings, userId, data.hasNext ? data.nextCursor : null);
             } else {
                 // Set default values if no rating data
                 // updateRatingDisplay(0, 0); // Removed as per edit hint
@@ -982,7 +976,7 @@ function loadUserRatingData(userId) {
                 const averageRating = data.averageRating || 0;
                 const totalRatings = data.totalRatings || 0;
                 // updateRatingDisplay(averageRating, totalRatings); // Removed as per edit hint
-                displayUserRatings(data.ratings);
+                displayUserRatings(data.ratings, userId, data.hasNext ? data.nextCursor : null);
             } else {
                 // Set default values if no rating data
                 // updateRatingDisplay(0, 0); // Removed as per edit hint
@@ -994,7 +988,7 @@ function loadUserRatingData(userId) {
         });
 }
 
-function displayUserRatings(ratings) {
+function displayUserRatings(ratings, userId, nextCursor, append = false) {
     console.log('🔍 displayUserRatings called with ratings:', ratings);
     
     const ratingsList = document.getElementById('ratings-list');
@@ -1005,7 +999,7 @@ function displayUserRatings(ratings) {
         return;
     }
     
-    if (!ratings || ratings.length === 0) {
+    if (!append && (!ratings || ratings.length === 0)) {
         userRatings.style.display = 'none';
         console.log('✅ No ratings to display, hiding ratings section');
         return;
@@ -1014,8 +1008,12 @@ function displayUserRatings(ratings) {
     // Show ratings section
     userRatings.style.display = 'block';
     
-    // Clear existing ratings
-    ratingsList.innerHTML = '';
+    // Clear existing ratings (the "load more" button is re-added below)
+    if (!append) {
+        ratingsList.innerHTML = '';
+    }
+    const oldLoadMore = document.getElementById('ratings-load-more');
+    if (oldLoadMore) oldLoadMore.remove();
     
     // Add each rating
     ratings.forEach(rating => {
@@ -1042,15 +1040,36 @@ function displayUserRatings(ratings) {
         ratingsList.appendChild(ratingItem);
     });
     
+    // Următoarea pagină se cere doar la click, cu cursorul ultimului rating afișat
+    if (nextCursor) {
+        const loadMore = document.createElement('button');
+        loadMore.id = 'ratings-load-more';
+        loadMore.type = 'button';
+        loadMore.className = 'btn btn-outline';
+        loadMore.textContent = 'Mai multe rating-uri';
+        loadMore.addEventListener('click', () => loadMoreRatings(userId, nextCursor));
+        ratingsList.appendChild(loadMore);
+    }
+    
     console.log(`✅ Displayed ${ratings.length} ratings`);
 }
 
+function loadMoreRatings(userId, cursor) {
+    fetch(`/api/ratings/user/${userId}?cursor=${encodeURIComponent(cursor)}`)
+        .then(response => response.json())
+        .then(data => {
+            if (data && data.success) {
+                displayUserRatings(data.ratings, userId, data.hasNext ? data.nextCursor : null, true);
+            }
+        })
+        .catch(error => console.error('Error loading more ratings:', error));
+}
+
 function checkCurrentUserRating(ratedUserId) {
     console.log('🔍 checkCurrentUserRating called for ratedUserId:', ratedUserId);
     
     // First check if user is authenticated
-    fetch('/api/auth/check')
-        .then(response => response.json())
+    loadSession()
         .then(authData => {
             if (!authData.authenticated) {
                 console.log('❌ User not authenticated, cannot check rating');
@@ -1197,8 +1216,7 @@ function submitRating() {
     console.log('👤 Submitting rating for user:', ratedUserId);
     
     // First check if user is authenticated
-    fetch('/api/auth/check')
-        .then(response => response.json())
+    loadSession()
         .then(authData => {
             if (!authData.authenticated) {
                 throw new Error('User not authenticated');
@@ -23,6 +23,83 @@ function initializeRidesPage() {
     
     // Încărcăm toate cursele disponibile la inițializare
     loadAllRides();
+    
+    // Ascultăm modificările curselor, ca lista să fie la zi fără reîncărcare,
+    // iar căutarea salvată apare doar dacă funcționalitatea este activă
+    loadSession().then(session => {
+        if (session.features.liveFeed !== false) {
+            connectLiveFeed();
+        }
+        const saveSearchBtn = document.getElementById('save-search-btn');
+        if (saveSearchBtn && session.features.savedSearches === false) {
+            saveSearchBtn.style.display = 'none';
+        }
+    });
+}
+
+// Cursele afișate acum în listă (actualizate de fluxul live)
+let displayedRides = [];
+let liveFeed = null;
+let liveTravelDate = '';
+
+// Conectarea la fluxul live de curse (SSE), filtrat după rută
+function connectLiveFeed(fromLocation = '', toLocation = '', travelDate = '') {
+    if (!window.EventSource) {
+        return;
+    }
+    if (liveFeed) {
+        liveFeed.close();
+    }
+    liveTravelDate = travelDate;
+    
+    const params = new URLSearchParams();
+    if (fromLocation) params.append('from', fromLocation);
+    if (toLocation) params.append('to', toLocation);
+    liveFeed = new EventSource(`/api/rides/live?${params.toString()}`);
+    
+    const onEvent = event => applyLiveEvents([JSON.parse(event.data)]);
+    ['ride-created', 'ride-deleted', 'ride-expired', 'seats-changed']
+        .forEach(type => liveFeed.addEventListener(type, onEvent));
+    
+    // Importurile și expirările trimit toate evenimentele într-un singur mesaj
+    liveFeed.addEventListener('rides-batch', event => applyLiveEvents(JSON.parse(event.data)));
+    
+    // Serverul a renunțat la evenimente (conexiune prea lentă sau lot prea mare): recitim lista
+    liveFeed.addEventListener('resync', () => {
+        if (fromLocation || toLocation || travelDate) {
+            applyFilters();
+        } else {
+            loadAllRides();
+        }
+    });
+}
+
+// Aplică evenimentele live pe lista afișată, cu o singură redesenare
+function applyLiveEvents(events) {
+    const rides = events.reduce(applyLiveEvent, displayedRides);
+    if (rides !== displayedRides) {
+        updateRidesList(rides);
+    }
+}
+
+function applyLiveEvent(rides, data) {
+    switch (data.type) {
+        case 'ride-created':
+            if (liveTravelDate && !data.ride.travelDate.startsWith(liveTravelDate)) {
+                return rides;
+            }
+            return rides.some(ride => ride.id === data.rideId) ? rides : [data.ride, ...rides];
+        case 'ride-deleted':
+        case 'ride-expired':
+            return rides.some(ride => ride.id === data.rideId)
+                ? rides.filter(ride => ride.id !== data.rideId) : rides;
+        case 'seats-changed':
+            return rides.some(ride => ride.id === data.rideId)
+                ? rides.map(ride => ride.id === data.rideId ? { ...ride, availableSeats: data.availableSeats } : ride)
+                : rides;
+        default:
+            return rides;
+    }
 }
 
 // Inițializarea autocomplete pentru filtre
@@ -97,14 +174,46 @@ function initializeFiltering() {
             applyFilters();
         });
     }
+    
+    const saveSearchBtn = document.getElementById('save-search-btn');
+    if (saveSearchBtn) {
+        saveSearchBtn.addEventListener('click', function(e) {
+            e.preventDefault();
+            saveCurrentSearch();
+        });
+    }
+}
+
+// Salvarea căutării curente: utilizatorul primește un mesaj în inbox când apare o cursă potrivită
+function saveCurrentSearch() {
+    const fromLocation = document.getElementById('filter-from')?.value || '';
+    const toLocation = document.getElementById('filter-to')?.value || '';
+    const travelDate = document.getElementById('filter-date')?.value || '';
+    if (!fromLocation || !toLocation) {
+        showNotification('Completați locul de plecare și destinația pentru a salva căutarea.', 'error');
+        return;
+    }
+    
+    const params = new URLSearchParams();
+    params.append('fromLocation', fromLocation);
+    params.append('toLocation', toLocation);
+    if (travelDate) params.append('travelDate', travelDate);
+    
+    fetch('/api/saved-searches', { method: 'POST', body: params })
+        .then(response => response.json())
+        .then(data => showNotification(data.message, data.success ? 'success' : 'error'))
+        .catch(error => {
+            console.error('Error saving search:', error);
+            showNotification('Eroare la salvarea căutării.', 'error');
+        });
 }
 
 // Gestionarea rezervării
 function handleReservation(rideId) {
     // Verificăm dacă utilizatorul este logat
-    fetch('/api/auth/user')
-        .then(response => {
-            if (response.ok) {
+    loadSession()
+        .then(session => {
+            if (session.authenticated) {
                 // Utilizatorul este logat, putem face rezervarea
                 showNotification('Funcționalitatea de rezervare va fi implementată în curând!', 'info');
             } else {
@@ -161,6 +270,11 @@ function applyFilters() {
     .then(data => {
         if (data.success) {
             updateRidesList(data.results);
+            loadSession().then(session => {
+                if (session.features.liveFeed !== false) {
+                    connectLiveFeed(fromLocation, toLocation, travelDate);
+                }
+            });
         } else {
             showNotification(data.message, 'error');
         }
@@ -174,6 +288,7 @@ function applyFilters() {
 // Actualizarea listei de curse
 function updateRidesList(rides) {
     console.log('Updating rides list with:', rides);
+    displayedRides = rides || [];
     
     const ridesList = document.getElementById('rides-list');
     console.log('Found rides list element:', ridesList);
@@ -201,6 +316,39 @@ function updateRidesList(rides) {
     
     ridesList.innerHTML = ridesHTML;
     console.log('Updated rides list HTML');
+    
+    loadDriverRatings();
+}
+
+// Stelele șoferilor din listă, cerute într-un singur apel pentru toți șoferii
+function loadDriverRatings() {
+    const links = document.querySelectorAll('.user-profile-link[data-user-id]');
+    const userIds = [...new Set([...links]
+        .map(link => link.dataset.userId)
+        .filter(id => id && Number(id) > 0))].slice(0, 100);
+    if (userIds.length === 0) {
+        return;
+    }
+    
+    fetch(`/api/ratings/summaries?userIds=${userIds.join(',')}`)
+        .then(response => response.json())
+        .then(data => {
+            if (!data || !data.success) {
+                return;
+            }
+            const byUser = new Map(data.summaries.map(summary => [String(summary.userId), summary]));
+            links.forEach(link => {
+                const summary = byUser.get(link.dataset.userId);
+                if (!summary || summary.totalRatings === 0 || link.querySelector('.driver-rating')) {
+                    return;
+                }
+                const rating = document.createElement('span');
+                rating.className = 'driver-rating';
+                rating.innerHTML = `<i class="fas fa-star"></i> ${summary.averageRating.toFixed(1)} (${summary.totalRatings})`;
+                link.querySelector('.driver-name').after(rating);
+            });
+        })
+        .catch(error => console.error('Error loading driver ratings:', error));
 }
 
 // Generarea HTML-ului pentru o carte de cursă
@@ -368,18 +516,9 @@ function loadAllRides() {
         return;
     }
     
-    // Mai întâi testăm conexiunea la baza de date
-    fetch('/api/rides/test')
-        .then(response => response.json())
-        .then(testData => {
-            console.log('Database test result:', testData);
-            if (!testData.success) {
-                throw new Error('Database connection failed: ' + testData.message);
-            }
-            
-            // Dacă testul a reușit, încărcăm cursele
-            return fetch('/api/rides');
-        })
+    // Cererea este condiționată (ETag): dacă lista nu s-a schimbat, browserul primește 304
+    // și folosește copia din cache
+    fetch('/api/rides')
         .then(response => {
             console.log('Response status:', response.status);
             console.log('Response headers:', response.headers);
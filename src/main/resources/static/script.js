@@ -102,9 +102,9 @@ function initializeAddRideButton() {
 
 // Funcție pentru verificarea autentificării și redirecționare
 function checkAuthAndRedirect() {
-    fetch('/api/auth/user')
-        .then(response => {
-            if (response.ok) {
+    loadSession()
+        .then(session => {
+            if (session.authenticated) {
                 // User is logged in, redirect to add-ride page
                 window.location.href = '/add-ride';
             } else {
@@ -0,0 +1,17 @@
+// Datele de pornire ale paginii (utilizatorul din sesiune, mesaje necitite, funcționalități active),
+// cerute o singură dată pe pagină și folosite de toate scripturile
+const ANONYMOUS_SESSION = { authenticated: false, user: null, unreadInbox: 0, features: {} };
+let sessionBootstrap = null;
+
+function loadSession() {
+    if (!sessionBootstrap) {
+        sessionBootstrap = fetch('/api/auth/bootstrap')
+            .then(response => response.ok ? response.json() : ANONYMOUS_SESSION)
+            .catch(error => {
+                console.error('Error loading session:', error);
+                sessionBootstrap = null;
+                return ANONYMOUS_SESSION;
+            });
+    }
+    return sessionBootstrap;
+}
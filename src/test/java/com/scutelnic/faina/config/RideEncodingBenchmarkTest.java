@@ -0,0 +1,89 @@
+package com.scutelnic.faina.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.scutelnic.faina.dto.RideColumns;
+import com.scutelnic.faina.dto.RideDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compară mărimea și timpul de serializare pentru lista de curse: JSON (ca în aplicație),
+ * CBOR, Smile și varianta pe coloane. Rulează doar cu -Dbenchmarks=true.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RideEncodingBenchmarkTest {
+
+	private static final int RIDES = 10_000;
+	private static final int WARMUP = 20;
+	private static final int ITERATIONS = 50;
+
+	private static final String[] LOCATIONS = {"Chișinău", "Bălți", "Orhei", "Cahul", "Comrat", "Ungheni",
+			"Soroca", "Edineț", "Hîncești", "Ștefan Vodă"};
+
+	@Test
+	void jsonVersusBinaryFormats() throws IOException {
+		List<RideDTO> rides = rides();
+		ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+		ObjectMapper cbor = BinaryFormatsConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+		ObjectMapper smile = BinaryFormatsConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory());
+
+		long jsonBytes = measure("JSON", json, rides);
+		assertTrue(measure("CBOR", cbor, rides) < jsonBytes);
+		assertTrue(measure("Smile", smile, rides) < jsonBytes);
+		measure("JSON pe coloane", json, RideColumns.of(rides));
+		assertTrue(measure("CBOR pe coloane", cbor, RideColumns.of(rides)) < jsonBytes);
+	}
+
+	private long measure(String name, ObjectMapper mapper, Object value) throws IOException {
+		for (int i = 0; i < WARMUP; i++) {
+			mapper.writeValueAsBytes(value);
+		}
+		byte[] bytes = null;
+		long started = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			bytes = mapper.writeValueAsBytes(value);
+		}
+		long nanos = System.nanoTime() - started;
+		System.out.printf("%-16s %10d octeți %9d octeți gzip %8.2f ms/serializare%n", name, bytes.length,
+				gzipped(bytes), nanos / 1e6 / ITERATIONS);
+		return bytes.length;
+	}
+
+	private static int gzipped(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.size();
+	}
+
+	private static List<RideDTO> rides() {
+		LocalDateTime now = LocalDateTime.now().withNano(0);
+		List<RideDTO> rides = new ArrayList<>(RIDES);
+		for (int i = 0; i < RIDES; i++) {
+			int driver = i % 200;
+			LocalDateTime departure = now.plusDays(1 + i % 30).withHour(6 + i % 14).withMinute(i % 4 * 15);
+			rides.add(new RideDTO((long) i + 1, LOCATIONS[i % LOCATIONS.length], LOCATIONS[(i / 3 + 1) % LOCATIONS.length],
+					departure, departure.toLocalDate().atStartOfDay(), 1 + i % 4, new BigDecimal(50 + i % 20 * 10),
+					"Plecare din centru, bagaj mic", (long) driver + 1, "Șofer " + driver, "06900" + (1000 + driver),
+					"sofer" + driver + "@faina.md", "profil-" + driver + ".jpg", now.minusMinutes(i), true, null));
+		}
+		return rides;
+	}
+}
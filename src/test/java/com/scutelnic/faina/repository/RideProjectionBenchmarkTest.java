@@ -0,0 +1,108 @@
+package com.scutelnic.faina.repository;
+
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.entity.Ride;
+import com.scutelnic.faina.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compară citirea a 10k curse ca entități (Ride + User, apoi conversie în RideDTO)
+ * cu proiecția directă în RideDTO. Rulează doar cu -Dbenchmarks=true.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RideProjectionBenchmarkTest {
+
+	private static final int RIDES = 10_000;
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 15;
+
+	@Autowired
+	private RideRepository rideRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@BeforeEach
+	void setUp() {
+		User driver = new User();
+		driver.setEmail("driver@faina.md");
+		driver.setPassword("secret");
+		driver.setFirstName("Ion");
+		driver.setLastName("Popescu");
+		driver.setPhone("060000000");
+		userRepository.save(driver);
+
+		List<Ride> rides = new ArrayList<>(RIDES);
+		for (int i = 0; i < RIDES; i++) {
+			Ride ride = new Ride();
+			ride.setFromLocation("Chișinău");
+			ride.setToLocation("Bălți");
+			ride.setDepartureTime(LocalDateTime.now().plusDays(1 + i % 30));
+			ride.setTravelDate(LocalDateTime.now().plusDays(1 + i % 30));
+			ride.setAvailableSeats(3);
+			ride.setPrice(new BigDecimal("100.00"));
+			ride.setDescription("Cursa " + i);
+			ride.setUser(driver);
+			rides.add(ride);
+		}
+		rideRepository.saveAll(rides);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void entityPathVersusProjection() {
+		Supplier<List<RideDTO>> entities = () -> rideRepository.findAllActiveRides().stream()
+				.map(ride -> new RideDTO(ride.getId(), ride.getFromLocation(), ride.getToLocation(),
+						ride.getDepartureTime(), ride.getTravelDate(), ride.getAvailableSeats(), ride.getPrice(),
+						ride.getDescription(), ride.getUser().getId(),
+						ride.getUser().getFirstName() + " " + ride.getUser().getLastName(),
+						ride.getUser().getPhone(), ride.getUser().getEmail(), ride.getUser().getProfileImage(),
+						ride.getCreatedAt(), ride.getIsActive(), null))
+				.toList();
+		Supplier<List<RideDTO>> projection = rideRepository::findAllActiveRideDTOs;
+
+		measure("entitate + convertToDTO", entities);
+		measure("proiecție RideDTO", projection);
+	}
+
+	private void measure(String name, Supplier<List<RideDTO>> query) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int i = 0; i < WARMUP; i++) {
+			assertEquals(RIDES, query.get().size());
+			entityManager.clear();
+		}
+
+		long totalNanos = 0;
+		long totalBytes = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+			long started = System.nanoTime();
+			assertEquals(RIDES, query.get().size());
+			totalNanos += System.nanoTime() - started;
+			totalBytes += threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+			// Fiecare cerere are propriul context de persistență
+			entityManager.clear();
+		}
+		System.out.printf("%-26s %8.1f ms/interogare %8.1f MB alocați/interogare%n", name,
+				totalNanos / 1e6 / ITERATIONS, totalBytes / 1024.0 / 1024.0 / ITERATIONS);
+	}
+}
@@ -0,0 +1,177 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.BookingDTO;
+import com.scutelnic.faina.entity.BookingStatus;
+import com.scutelnic.faina.entity.Ride;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.repository.BookingRepository;
+import com.scutelnic.faina.repository.RideRepository;
+import com.scutelnic.faina.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookingService.class, RideCatalog.class, RecentRidesFeed.class, DataVersions.class, DataChangeLog.class, RideLiveFeed.class,
+		JacksonAutoConfiguration.class})
+class BookingServiceConcurrencyTest {
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private RideRepository rideRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User driver;
+
+	@BeforeEach
+	void setUp() {
+		bookingRepository.deleteAll();
+		rideRepository.deleteAll();
+		userRepository.deleteAll();
+		driver = newUser("driver@faina.md");
+	}
+
+	@Test
+	void neverSellsMoreSeatsThanAvailable() throws Exception {
+		Ride ride = newRide(5);
+		List<User> passengers = new ArrayList<>();
+		for (int i = 0; i < THREADS * 2; i++) {
+			passengers.add(newUser("p" + i + "@faina.md"));
+		}
+
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (User passenger : passengers) {
+			tasks.add(() -> {
+				try {
+					bookingService.reserve(ride.getId(), passenger.getId(), 1);
+					return true;
+				} catch (RuntimeException e) {
+					return false;
+				}
+			});
+		}
+
+		long succeeded = runConcurrently(tasks).stream().filter(Boolean::booleanValue).count();
+
+		assertEquals(5, succeeded);
+		assertEquals(0, rideRepository.findById(ride.getId()).orElseThrow().getAvailableSeats());
+		assertEquals(5, bookingRepository.count());
+	}
+
+	@Test
+	void reserveAndCancelKeepSeatCountConsistent() throws Exception {
+		Ride ride = newRide(4);
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int i = 0; i < THREADS * 2; i++) {
+			User passenger = newUser("p" + i + "@faina.md");
+			boolean cancelAfterwards = i % 2 == 0;
+			tasks.add(() -> {
+				try {
+					BookingDTO booking = bookingService.reserve(ride.getId(), passenger.getId(), 1);
+					if (cancelAfterwards) {
+						bookingService.cancel(booking.getId(), passenger.getId());
+					}
+					return true;
+				} catch (RuntimeException e) {
+					return false;
+				}
+			});
+		}
+
+		runConcurrently(tasks);
+
+		long held = bookingRepository.findAll().stream()
+				.filter(b -> b.getStatus() == BookingStatus.HELD)
+				.mapToInt(b -> b.getSeats())
+				.sum();
+		int available = rideRepository.findById(ride.getId()).orElseThrow().getAvailableSeats();
+		assertEquals(4, held + available);
+	}
+
+	private List<Boolean> runConcurrently(List<Callable<Boolean>> tasks) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (Callable<Boolean> task : tasks) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			List<Boolean> results = new ArrayList<>();
+			for (Future<Boolean> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void departedRideCannotBeBooked() {
+		Ride ride = newRide(5);
+		LocalDateTime departed = LocalDateTime.now(ZoneId.of("Europe/Chisinau")).minusHours(1);
+		ride.setDepartureTime(departed);
+		ride.setTravelDate(departed.toLocalDate().atStartOfDay());
+		rideRepository.save(ride);
+		User passenger = newUser("late@faina.md");
+
+		assertThrows(RuntimeException.class, () -> bookingService.reserve(ride.getId(), passenger.getId(), 1));
+		assertEquals(5, rideRepository.findById(ride.getId()).orElseThrow().getAvailableSeats());
+		assertEquals(0, bookingRepository.count());
+	}
+
+	private User newUser(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("secret");
+		user.setFirstName("Ion");
+		user.setLastName("Popescu");
+		user.setPhone("060000000");
+		return userRepository.save(user);
+	}
+
+	private Ride newRide(int seats) {
+		Ride ride = new Ride();
+		ride.setFromLocation("Chișinău");
+		ride.setToLocation("Bălți");
+		ride.setDepartureTime(LocalDateTime.now().plusDays(1));
+		ride.setTravelDate(LocalDateTime.now().plusDays(1));
+		ride.setAvailableSeats(seats);
+		ride.setPrice(new BigDecimal("100.00"));
+		ride.setUser(driver);
+		return rideRepository.save(ride);
+	}
+}
@@ -0,0 +1,183 @@
+package com.scutelnic.faina.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig({PasswordService.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+		"passwords.iterations=20000",
+		"passwords.threads=2",
+		"passwords.max-pending=8"
+})
+class PasswordServiceTest {
+
+	private static final int ATTACKERS = 64;
+	private static final int SEARCHERS = 4;
+	private static final int SEARCH_WORK = 200;
+	private static final long PHASE_MS = 3000;
+	private static final long REJECTED_PAUSE_MS = 20;
+
+	private static final String[] LOCATIONS = {"Chișinău", "Bălți", "Orhei", "Cahul", "Comrat", "Ungheni",
+			"Soroca", "Edineț", "Hîncești", "Ștefan Vodă", "Florești", "Căușeni"};
+
+	@Autowired
+	private PasswordService passwordService;
+
+	@Test
+	void hashesVerifiesRehashesAndRejectsExcessWork() throws Exception {
+		String hash = passwordService.hash("secret1");
+		assertTrue(PasswordService.isHashed(hash));
+		assertFalse(passwordService.needsRehash(hash));
+		assertTrue(passwordService.check("secret1", hash).matches());
+		assertNull(passwordService.check("secret1", hash).rehash());
+		assertFalse(passwordService.check("secret2", hash).matches());
+
+		// Parolă veche în clar: acceptată o dată și înlocuită cu un hash
+		PasswordService.Check legacy = passwordService.check("secret1", "secret1");
+		assertTrue(legacy.matches());
+		assertNotNull(legacy.rehash());
+		assertTrue(passwordService.check("secret1", legacy.rehash()).matches());
+		assertNull(passwordService.check("wrong", "secret1").rehash());
+
+		// Mai multe cereri simultane decât max-pending: surplusul este respins imediat
+		int callers = 40;
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger rejected = new AtomicInteger();
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				try {
+					return passwordService.check("secret1", hash).matches();
+				} catch (IllegalStateException e) {
+					rejected.incrementAndGet();
+					return true;
+				}
+			}));
+		}
+		start.countDown();
+		for (Future<Boolean> result : results) {
+			assertTrue(result.get());
+		}
+		executor.shutdown();
+		assertTrue(rejected.get() > 0);
+		assertEquals(0, passwordService.getPending());
+	}
+
+	/**
+	 * Val de autentificări cu parole greșite (credential stuffing), în paralel cu căutări:
+	 * p99 pentru căutare și autentificare când hash-ul rulează pe firele cererilor, față de
+	 * executorul limitat cu admitere. Rulare: mvn test -Dbenchmarks=true -Dtest=PasswordServiceTest
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+	void benchmarkLoginBurstAgainstSearchLatency() throws Exception {
+		SavedSearchIndex index = new SavedSearchIndex();
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			index.add(i, i % 5000, LOCATIONS[random.nextInt(LOCATIONS.length)], LOCATIONS[random.nextInt(LOCATIONS.length)],
+					random.nextBoolean() ? null : LocalDate.now().plusDays(random.nextInt(30)), 1 + random.nextInt(4));
+		}
+		String hash = passwordService.hash("secret1");
+
+		// O „cerere de căutare” face câteva sute de potriviri, ca să dureze cât o cerere reală
+		Runnable search = () -> {
+			Random r = new Random();
+			for (int i = 0; i < SEARCH_WORK; i++) {
+				index.match(LOCATIONS[r.nextInt(LOCATIONS.length)], LOCATIONS[r.nextInt(LOCATIONS.length)],
+						LocalDate.now().plusDays(r.nextInt(30)), 4, -1);
+			}
+		};
+		report("fără atac", run(search, 0, () -> { }));
+		report("hash pe firele cererilor", run(search, ATTACKERS, () -> PasswordService.matchesNow("ghicire", hash)));
+		report("executor limitat", run(search, ATTACKERS, () -> passwordService.check("ghicire", hash)));
+	}
+
+	private Result run(Runnable search, int attackers, Runnable login) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(SEARCHERS + Math.max(attackers, 1));
+		long deadline = System.currentTimeMillis() + PHASE_MS;
+		List<Future<long[]>> searches = new ArrayList<>();
+		List<Future<long[]>> logins = new ArrayList<>();
+		AtomicInteger rejected = new AtomicInteger();
+		for (int i = 0; i < SEARCHERS; i++) {
+			searches.add(executor.submit(() -> measure(search, deadline, rejected)));
+		}
+		for (int i = 0; i < attackers; i++) {
+			logins.add(executor.submit(() -> measure(login, deadline, rejected)));
+		}
+		Result result = new Result(collect(searches), collect(logins), rejected.get());
+		executor.shutdown();
+		return result;
+	}
+
+	private static long[] measure(Runnable operation, long deadline, AtomicInteger rejected) {
+		long[] samples = new long[1 << 18];
+		int count = 0;
+		while (System.currentTimeMillis() < deadline && count < samples.length) {
+			long started = System.nanoTime();
+			try {
+				operation.run();
+			} catch (IllegalStateException e) {
+				rejected.incrementAndGet();
+				samples[count++] = System.nanoTime() - started;
+				// Clientul primește 503 și reîncearcă după un timp, nu imediat
+				try {
+					Thread.sleep(REJECTED_PAUSE_MS);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				continue;
+			}
+			samples[count++] = System.nanoTime() - started;
+		}
+		return Arrays.copyOf(samples, count);
+	}
+
+	private static long[] collect(List<Future<long[]>> futures) throws Exception {
+		long[] all = new long[0];
+		for (Future<long[]> future : futures) {
+			long[] samples = future.get();
+			int offset = all.length;
+			all = Arrays.copyOf(all, offset + samples.length);
+			System.arraycopy(samples, 0, all, offset, samples.length);
+		}
+		Arrays.sort(all);
+		return all;
+	}
+
+	private static void report(String name, Result result) {
+		System.out.printf("%-26s căutări %,8d p99 %7.2f ms | autentificări %,6d p99 %8.2f ms, respinse %,d%n",
+				name, result.searches().length, p99(result.searches()), result.logins().length,
+				p99(result.logins()), result.rejected());
+	}
+
+	private static double p99(long[] sorted) {
+		return sorted.length == 0 ? 0 : sorted[(int) (sorted.length * 0.99)] / 1_000_000.0;
+	}
+
+	private record Result(long[] searches, long[] logins, int rejected) {
+	}
+}
@@ -0,0 +1,38 @@
+package com.scutelnic.faina.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringJUnitConfig({PasswordService.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+		"passwords.iterations=2000000",
+		"passwords.threads=1",
+		"passwords.max-pending=2",
+		"passwords.timeout-ms=50"
+})
+class PasswordServiceTimeoutTest {
+
+	@Autowired
+	private PasswordService passwordService;
+
+	@Test
+	void timedOutOperationsKeepTheirSlotUntilTheyFinish() throws Exception {
+		// Prima operație rulează mai mult decât timeout-ul; următoarele expiră în coadă și sunt scoase din ea.
+		// Niciuna nu ajunge la executor peste capacitatea cozii (RejectedExecutionException, adică 500)
+		for (int i = 0; i < 6; i++) {
+			assertThrows(IllegalStateException.class, () -> passwordService.hash("secret1"));
+		}
+
+		long deadline = System.currentTimeMillis() + 30000;
+		while (passwordService.getPending() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(0, passwordService.getPending());
+	}
+}
@@ -0,0 +1,185 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.entity.Rating;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.repository.RatingRepository;
+import com.scutelnic.faina.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RatingService.class, DataVersions.class, DataChangeLog.class, RatedUsersCache.class, PublicProfileCache.class,
+		SimpleMeterRegistry.class})
+class RatingAggregatesTest {
+
+	private static final int RATERS = 24;
+
+	@Autowired
+	private RatingService ratingService;
+
+	@Autowired
+	private RatingRepository ratingRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PublicProfileCache publicProfileCache;
+
+	private User driver;
+
+	@BeforeEach
+	void setUp() {
+		ratingRepository.deleteAll();
+		userRepository.deleteAll();
+		driver = newUser("driver@faina.md");
+	}
+
+	@Test
+	void concurrentAddUpdateDeleteKeepSumAndCountExact() throws Exception {
+		List<User> raters = new ArrayList<>();
+		for (int i = 0; i < RATERS; i++) {
+			raters.add(newUser("r" + i + "@faina.md"));
+		}
+		// Mulțimile evaluatorilor sunt încărcate înainte, deci trebuie actualizate de rate/delete
+		for (User rater : raters) {
+			assertFalse(ratingService.hasUserRated(rater.getId(), driver.getId()));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < RATERS; i++) {
+				User rater = raters.get(i);
+				int index = i;
+				futures.add(executor.submit(() -> {
+					start.await();
+					Rating rating = ratingService.addOrUpdateRating(rater.getId(), driver.getId(), 1 + index % 5, null);
+					ratingService.updateRating(rating.getId(), rater.getId(), 5 - index % 5, "actualizat");
+					if (index % 3 == 0) {
+						ratingService.deleteRating(rating.getId(), rater.getId());
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long expectedSum = ratingRepository.getRatingSumByUserId(driver.getId());
+		long expectedCount = ratingRepository.getTotalRatingsByUserId(driver.getId());
+		User stored = userRepository.findById(driver.getId()).orElseThrow();
+		assertEquals(RATERS - RATERS / 3, expectedCount);
+		assertEquals(expectedSum, stored.getRatingSum());
+		assertEquals(expectedCount, stored.getTotalRatings());
+		assertEquals(Math.round(expectedSum * 10.0 / expectedCount) / 10.0, stored.getAverageRating());
+		assertArrayEquals(ratingRepository.computeRatingSummary(driver.getId()).orElseThrow().getStars(),
+				ratingService.getRatingSummaries(List.of(driver.getId())).get(0).getStars());
+		assertFalse(ratingService.findRatingAggregates(List.of(driver.getId())).get(0).drifted());
+		assertFalse(ratingService.reconcileUser(driver.getId()));
+		for (int i = 0; i < RATERS; i++) {
+			assertEquals(i % 3 != 0, ratingService.hasUserRated(raters.get(i).getId(), driver.getId()));
+		}
+	}
+
+	@Test
+	void racingUpdatesOfOneRatingApplyEveryDelta() throws Exception {
+		User rater = newUser("rater@faina.md");
+		Rating rating = ratingService.addOrUpdateRating(rater.getId(), driver.getId(), 3, null);
+
+		// Toate firele modifică același rând; fiecare diferență trebuie calculată față de valoarea salvată de celălalt
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				int stars = 1 + i % 5;
+				boolean byPair = i % 2 == 0;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int round = 0; round < 5; round++) {
+						if (byPair) {
+							ratingService.addOrUpdateRating(rater.getId(), driver.getId(), stars, "pereche");
+						} else {
+							ratingService.updateRating(rating.getId(), rater.getId(), stars, "id");
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		int finalStars = ratingRepository.findById(rating.getId()).orElseThrow().getRating();
+		User stored = userRepository.findById(driver.getId()).orElseThrow();
+		assertEquals(finalStars, stored.getRatingSum());
+		assertEquals(1L, stored.getTotalRatings());
+		long[] expectedStars = new long[5];
+		expectedStars[finalStars - 1] = 1;
+		assertArrayEquals(expectedStars, ratingService.getRatingSummaries(List.of(driver.getId())).get(0).getStars());
+		assertFalse(ratingService.findRatingAggregates(List.of(driver.getId())).get(0).drifted());
+	}
+
+	@Test
+	void reconciliationRepairsDrift() {
+		User rater = newUser("rater@faina.md");
+		// Profilul public din cache trebuie scos la schimbarea rating-ului
+		assertEquals(0L, publicProfileCache.get(driver.getId()).orElseThrow().getTotalRatings());
+		ratingService.addOrUpdateRating(rater.getId(), driver.getId(), 4, null);
+		assertEquals(1L, publicProfileCache.get(driver.getId()).orElseThrow().getTotalRatings());
+		userRepository.setRatingStats(driver.getId(), 40, 3, 1.0);
+
+		assertTrue(ratingService.reconcileUser(driver.getId()));
+
+		User stored = userRepository.findById(driver.getId()).orElseThrow();
+		assertEquals(4L, stored.getRatingSum());
+		assertEquals(1L, stored.getTotalRatings());
+		assertEquals(4.0, stored.getAverageRating());
+
+		// Doar histograma greșită: suma și numărul sunt corecte, dar reconcilierea o găsește
+		userRepository.setRatingHistogram(driver.getId(), 1, 0, 0, 0, 0);
+		assertTrue(ratingService.findRatingAggregates(List.of(driver.getId())).get(0).drifted());
+		assertTrue(ratingService.reconcileUser(driver.getId()));
+		assertArrayEquals(new long[] {0, 0, 0, 1, 0},
+				ratingService.getRatingSummaries(List.of(driver.getId())).get(0).getStars());
+	}
+
+	private User newUser(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("secret");
+		user.setFirstName("Ion");
+		user.setLastName("Popescu");
+		user.setPhone("060000000");
+		return userRepository.save(user);
+	}
+}
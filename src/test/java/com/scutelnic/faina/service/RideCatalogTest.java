@@ -0,0 +1,87 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.RideDTO;
+import com.scutelnic.faina.entity.Locality;
+import com.scutelnic.faina.entity.Ride;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RideCatalogTest {
+
+	private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+	@Test
+	void searchMatchesLocalityPrefixesOfAnyWord() {
+		RideCatalog catalog = new RideCatalog();
+		catalog.reload(List.of(), Map.of());
+		catalog.add(ride(1L, locality(10L, "Chișinău"), locality(20L, "Ștefan Vodă"), 1L));
+		catalog.add(ride(2L, locality(10L, "Chișinău"), locality(30L, "Bălți"), 1L));
+		catalog.add(ride(3L, locality(30L, "Bălți"), locality(10L, "Chișinău"), 2L));
+
+		assertEquals(List.of(1L), ids(catalog.search("chis", "voda", DAY, null)));
+		assertEquals(List.of(1L), ids(catalog.search("", "Ștef", DAY, null)));
+		assertEquals(List.of(3L, 2L, 1L), ids(catalog.search("", "", DAY, null)));
+		assertEquals(List.of(3L), ids(catalog.search("balt", "", DAY, null)));
+		assertEquals(List.of(), ids(catalog.search("oda", "", DAY, null)));
+		assertEquals(List.of(), ids(catalog.search("chis", "", DAY.plusDays(1), null)));
+	}
+
+	@Test
+	void removingRidesDropsEmptyRoutesAndDrivers() {
+		RideCatalog catalog = new RideCatalog();
+		catalog.reload(List.of(), Map.of());
+		catalog.add(ride(1L, locality(10L, "Chișinău"), locality(30L, "Bălți"), 1L));
+		catalog.add(ride(2L, locality(10L, "Chișinău"), locality(30L, "Bălți"), 1L));
+
+		catalog.remove(1L);
+		assertEquals(List.of(2L), ids(catalog.search("chis", "balt", DAY, null)));
+		catalog.removeAll(List.of(2L));
+		assertEquals(List.of(), ids(catalog.search("chis", "balt", DAY, null)));
+		assertEquals(Map.of(), catalog.seatsByDriver(1L));
+
+		// Șoferul fără curse nu mai este în catalog; o cursă nouă îl adaugă din nou
+		catalog.add(ride(4L, locality(10L, "Chișinău"), locality(30L, "Bălți"), 1L));
+		assertEquals("Ion Popa", catalog.find(4L).orElseThrow().getDriverName());
+	}
+
+	private static List<Long> ids(List<RideDTO> rides) {
+		return rides.stream().map(RideDTO::getId).toList();
+	}
+
+	private static Locality locality(Long id, String name) {
+		Locality locality = new Locality();
+		locality.setId(id);
+		locality.setName(name);
+		locality.setNormalizedName(LocationNormalizer.normalize(name));
+		return locality;
+	}
+
+	private static Ride ride(Long id, Locality from, Locality to, Long driverId) {
+		User driver = new User();
+		driver.setId(driverId);
+		driver.setFirstName("Ion");
+		driver.setLastName("Popa");
+		Ride ride = new Ride();
+		ride.setId(id);
+		ride.setFromLocation(from.getName());
+		ride.setToLocation(to.getName());
+		ride.setFromLocality(from);
+		ride.setToLocality(to);
+		ride.setTravelDate(DAY.atStartOfDay());
+		ride.setDepartureTime(DAY.atTime(8, 0));
+		ride.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusSeconds(id));
+		ride.setAvailableSeats(3);
+		ride.setPrice(new BigDecimal("100"));
+		ride.setUser(driver);
+		return ride;
+	}
+}
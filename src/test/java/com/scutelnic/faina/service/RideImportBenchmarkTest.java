@@ -0,0 +1,117 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.AddRideRequest;
+import com.scutelnic.faina.dto.RideImportResult;
+import com.scutelnic.faina.entity.User;
+import com.scutelnic.faina.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Publicarea a 10k curse: câte un addRide pe cursă (ca formularul, o cerere pe cursă)
+ * față de importul CSV cu INSERT-uri în loturi. Jurnalul SQL este oprit, ca timpul să fie
+ * al bazei de date, nu al consolei. Rulează doar cu -Dbenchmarks=true.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.format_sql=false"
+})
+@AutoConfigureTestDatabase
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RideImportBenchmarkTest {
+
+	private static final int RIDES = 10_000;
+	private static final int WARMUP = 1;
+	private static final int ITERATIONS = 3;
+
+	private static final String[] LOCATIONS = {"Chișinău", "Bălți", "Orhei", "Cahul", "Comrat", "Ungheni",
+			"Soroca", "Edineț", "Hîncești", "Ștefan Vodă", "Florești", "Căușeni"};
+
+	@Autowired
+	private RideService rideService;
+
+	@Autowired
+	private RideImportService rideImportService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User driver;
+	private List<AddRideRequest> rows;
+	private String csv;
+
+	@BeforeEach
+	void setUp() {
+		driver = new User();
+		driver.setEmail("import@faina.md");
+		driver.setPassword("secret");
+		driver.setFirstName("Ion");
+		driver.setLastName("Popescu");
+		driver.setPhone("060000000");
+		driver = userRepository.save(driver);
+
+		LocalDate today = LocalDate.now();
+		rows = new ArrayList<>(RIDES);
+		StringBuilder builder = new StringBuilder("fromLocation,toLocation,travelDate,departureTime,availableSeats,price,description\n");
+		for (int i = 0; i < RIDES; i++) {
+			AddRideRequest row = new AddRideRequest();
+			row.setFromLocation(LOCATIONS[i % LOCATIONS.length]);
+			row.setToLocation(LOCATIONS[(i + 1 + i / LOCATIONS.length % (LOCATIONS.length - 1)) % LOCATIONS.length]);
+			row.setTravelDate(today.plusDays(1 + i % 30));
+			row.setDepartureTime(LocalTime.of(6 + i % 14, i % 4 * 15));
+			row.setAvailableSeats(1 + i % 4);
+			row.setPrice(new BigDecimal("100.00"));
+			row.setDescription("Cursa " + i);
+			rows.add(row);
+			builder.append(row.getFromLocation()).append(',').append(row.getToLocation()).append(',')
+					.append(row.getTravelDate()).append(',').append(row.getDepartureTime()).append(',')
+					.append(row.getAvailableSeats()).append(',').append(row.getPrice()).append(',')
+					.append(row.getDescription()).append('\n');
+		}
+		csv = builder.toString();
+	}
+
+	@Test
+	void oneRideAtATimeVersusCsvImport() {
+		measure("addRide, câte o cursă", () -> {
+			for (AddRideRequest row : rows) {
+				rideService.addRide(row, driver);
+			}
+			return RIDES;
+		});
+		measure("import CSV în loturi", () -> {
+			RideImportResult result = rideImportService.importCsv(csv, driver, false);
+			assertEquals(List.of(), result.getErrors());
+			return result.getImported();
+		});
+	}
+
+	private void measure(String name, IntSupplier publish) {
+		for (int i = 0; i < WARMUP; i++) {
+			assertEquals(RIDES, publish.getAsInt());
+		}
+
+		long totalNanos = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long started = System.nanoTime();
+			assertEquals(RIDES, publish.getAsInt());
+			totalNanos += System.nanoTime() - started;
+		}
+		double millis = totalNanos / 1e6 / ITERATIONS;
+		System.out.printf("%-24s %9.1f ms/10k curse %9.0f curse/s%n", name, millis, RIDES / (millis / 1000));
+	}
+}
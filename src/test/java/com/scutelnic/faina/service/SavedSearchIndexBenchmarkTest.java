@@ -0,0 +1,109 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.util.LocationNormalizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Potrivirea unei curse noi cu 100k căutări salvate: indexul inversat față de
+ * verificarea fiecărei căutări. Rulează doar cu -Dbenchmarks=true.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class SavedSearchIndexBenchmarkTest {
+
+	private static final int SEARCHES = 100_000;
+	private static final int RIDES = 20_000;
+	private static final int DAYS = 30;
+	private static final int SCANNED_RIDES = 500;
+
+	private static final String[] LOCATIONS = {"Chișinău", "Bălți", "Orhei", "Cahul", "Comrat", "Ungheni",
+			"Soroca", "Edineț", "Hîncești", "Ștefan Vodă", "Florești", "Căușeni"};
+
+	// fromKey și toKey sunt normalizate o singură dată, ca scanarea să nu fie dezavantajată
+	private record Search(long id, long userId, String from, String to, String fromKey, String toKey,
+			LocalDate date, int minSeats) {
+	}
+
+	private record NewRide(String from, String to, LocalDate date, int seats, long driverId) {
+	}
+
+	@Test
+	void indexVersusFullScan() {
+		Random random = new Random(42);
+		LocalDate today = LocalDate.now();
+		List<Search> searches = new ArrayList<>(SEARCHES);
+		for (int i = 0; i < SEARCHES; i++) {
+			int from = random.nextInt(LOCATIONS.length);
+			int to = (from + 1 + random.nextInt(LOCATIONS.length - 1)) % LOCATIONS.length;
+			// Un sfert dintre căutări sunt pentru orice zi
+			LocalDate date = random.nextInt(4) == 0 ? null : today.plusDays(random.nextInt(DAYS));
+			searches.add(new Search(i + 1, 1 + random.nextInt(50_000), LOCATIONS[from], LOCATIONS[to],
+					LocationNormalizer.normalize(LOCATIONS[from]), LocationNormalizer.normalize(LOCATIONS[to]), date,
+					1 + random.nextInt(3)));
+		}
+		List<NewRide> rides = new ArrayList<>(RIDES);
+		for (int i = 0; i < RIDES; i++) {
+			int from = random.nextInt(LOCATIONS.length);
+			int to = (from + 1 + random.nextInt(LOCATIONS.length - 1)) % LOCATIONS.length;
+			rides.add(new NewRide(LOCATIONS[from], LOCATIONS[to], today.plusDays(random.nextInt(DAYS)),
+					1 + random.nextInt(4), 1 + random.nextInt(50_000)));
+		}
+
+		SavedSearchIndex index = new SavedSearchIndex();
+		long buildStarted = System.nanoTime();
+		for (Search search : searches) {
+			index.add(search.id(), search.userId(), search.from(), search.to(), search.date(), search.minSeats());
+		}
+		System.out.printf("index construit: %d căutări în %.1f ms%n", index.size(), (System.nanoTime() - buildStarted) / 1e6);
+
+		// Încălzire și verificare: ambele metode găsesc aceleași potriviri
+		long indexMatches = 0;
+		for (int i = 0; i < RIDES; i++) {
+			NewRide ride = rides.get(i);
+			int matches = index.match(ride.from(), ride.to(), ride.date(), ride.seats(), ride.driverId()).size();
+			if (i < SCANNED_RIDES) {
+				assertEquals(scan(searches, ride), matches);
+			}
+			indexMatches += matches;
+		}
+
+		long started = System.nanoTime();
+		for (NewRide ride : rides) {
+			index.match(ride.from(), ride.to(), ride.date(), ride.seats(), ride.driverId());
+		}
+		double indexMicros = (System.nanoTime() - started) / 1e3 / RIDES;
+
+		started = System.nanoTime();
+		for (int i = 0; i < SCANNED_RIDES; i++) {
+			scan(searches, rides.get(i));
+		}
+		double scanMicros = (System.nanoTime() - started) / 1e3 / SCANNED_RIDES;
+
+		System.out.printf("index inversat: %8.2f µs/cursă (%.1f potriviri/cursă)%n", indexMicros,
+				(double) indexMatches / RIDES);
+		System.out.printf("scanare completă: %8.2f µs/cursă%n", scanMicros);
+		assertTrue(indexMicros < 1000, "potrivirea trebuie să rămână sub o milisecundă");
+	}
+
+	private static int scan(List<Search> searches, NewRide ride) {
+		String fromKey = LocationNormalizer.normalize(ride.from());
+		String toKey = LocationNormalizer.normalize(ride.to());
+		int matches = 0;
+		for (Search search : searches) {
+			if (search.fromKey().equals(fromKey) && search.toKey().equals(toKey)
+					&& (search.date() == null || search.date().equals(ride.date()))
+					&& search.minSeats() <= ride.seats() && search.userId() != ride.driverId()) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+}
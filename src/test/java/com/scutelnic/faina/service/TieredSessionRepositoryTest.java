@@ -0,0 +1,266 @@
+package com.scutelnic.faina.service;
+
+import com.scutelnic.faina.dto.SessionUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.session.MapSession;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Pool real (Hikari), ca testul să poată ocupa toate conexiunile
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sessions;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.datasource.hikari.maximum-pool-size=" + TieredSessionRepositoryTest.POOL_SIZE,
+		"spring.datasource.hikari.connection-timeout=1000",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"sessions.hot-ttl-ms=60000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TieredSessionRepository.class, SessionJdbcTier.class, SimpleMeterRegistry.class})
+class TieredSessionRepositoryTest {
+
+	static final int POOL_SIZE = 10;
+
+	private static final int SESSIONS = 200;
+	private static final int THREADS = 8;
+	private static final int REQUESTS_PER_THREAD = 20_000;
+
+	@Autowired
+	private TieredSessionRepository repository;
+
+	@Autowired
+	private SessionJdbcTier jdbcTier;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM app_sessions");
+	}
+
+	@Test
+	void attributesAreWrittenThroughTouchesAreCoalescedAndExpiredRowsSwept() {
+		TieredSessionRepository.TieredSession session = repository.createSession();
+		session.setAttribute("user", new SessionUser(7L, "Ion", null));
+		repository.save(session);
+		String id = session.getId();
+		assertEquals(1, countRows());
+
+		// Doar accesul: nicio scriere până la flush, apoi o singură actualizare pentru mai multe atingeri
+		long stored = lastAccess(id);
+		for (int i = 1; i <= 5; i++) {
+			TieredSessionRepository.TieredSession request = repository.findById(id);
+			request.setLastAccessedTime(Instant.ofEpochMilli(stored + i * 1000L));
+			repository.save(request);
+		}
+		assertEquals(stored, lastAccess(id));
+		assertEquals(1, repository.flushTouches());
+		assertEquals(stored + 5000L, lastAccess(id));
+
+		SessionUser user = jdbcTier.load(id, System.currentTimeMillis()).orElseThrow().getAttribute("user");
+		assertEquals(7L, user.id());
+
+		// Sesiune expirată: ștearsă în bloc și nemaigăsită
+		TieredSessionRepository.TieredSession old = repository.createSession();
+		old.setMaxInactiveInterval(Duration.ofSeconds(1));
+		old.setLastAccessedTime(Instant.now().minusSeconds(10));
+		repository.save(old);
+		assertEquals(1, repository.sweepExpired());
+		assertNull(repository.findById(old.getId()));
+		assertNotNull(repository.findById(id));
+
+		repository.deleteById(id);
+		assertNull(repository.findById(id));
+		assertEquals(0, countRows());
+	}
+
+	@Test
+	void requestFinishingAfterLogoutDoesNotRecreateSession() {
+		TieredSessionRepository.TieredSession session = repository.createSession();
+		session.setAttribute("user", new SessionUser(7L, "Ion", null));
+		repository.save(session);
+		String id = session.getId();
+
+		// Două cereri pornite cu sesiunea autentificată; o a treia se deconectează între timp
+		TieredSessionRepository.TieredSession touching = repository.findById(id);
+		TieredSessionRepository.TieredSession changing = repository.findById(id);
+		repository.deleteById(id);
+
+		touching.setLastAccessedTime(Instant.now().plusSeconds(1));
+		repository.save(touching);
+		changing.setAttribute("lastSearch", "Chișinău");
+		repository.save(changing);
+		repository.flushTouches();
+
+		assertNull(repository.findById(id));
+		assertEquals(0, countRows());
+	}
+
+	@Test
+	void staleTouchAfterLoginKeepsLoggedInUser() {
+		TieredSessionRepository.TieredSession anonymous = repository.createSession();
+		repository.save(anonymous);
+		String id = anonymous.getId();
+
+		// O cerere lungă pornește anonimă; alta se autentifică în aceeași sesiune și se termină prima
+		TieredSessionRepository.TieredSession slow = repository.findById(id);
+		TieredSessionRepository.TieredSession login = repository.findById(id);
+		login.setAttribute("user", new SessionUser(7L, "Ion", null));
+		repository.save(login);
+
+		long touchedAt = slow.getLastAccessedTime().toEpochMilli() + 5000L;
+		slow.setLastAccessedTime(Instant.ofEpochMilli(touchedAt));
+		repository.save(slow);
+
+		TieredSessionRepository.TieredSession next = repository.findById(id);
+		SessionUser user = next.getAttribute("user");
+		assertEquals(7L, user.id());
+		assertEquals(touchedAt, next.getLastAccessedTime().toEpochMilli());
+		repository.flushTouches();
+		assertEquals(touchedAt, lastAccess(id));
+		assertNotNull(jdbcTier.load(id, System.currentTimeMillis()).orElseThrow().getAttribute("user"));
+	}
+
+	@Test
+	void sessionUsesConnectionAlreadyHeldByRequest() throws Exception {
+		TieredSessionRepository.TieredSession session = repository.createSession();
+		repository.save(session);
+		String id = session.getId();
+
+		// Ca open-in-view: EntityManager-ul cererii ține o conexiune după prima tranzacție,
+		// iar toate celelalte conexiuni din pool sunt ocupate de alte cereri
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+		List<Connection> others = new ArrayList<>();
+		try {
+			new TransactionTemplate(transactionManager).execute(status ->
+					entityManager.createNativeQuery("SELECT 1").getSingleResult());
+			for (int i = 1; i < POOL_SIZE; i++) {
+				others.add(dataSource.getConnection());
+			}
+
+			TieredSessionRepository.TieredSession request = repository.findById(id);
+			request.setAttribute("user", new SessionUser(7L, "Ion", null));
+			repository.save(request);
+			repository.deleteById(id);
+		} finally {
+			for (Connection connection : others) {
+				connection.close();
+			}
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			entityManager.close();
+		}
+		assertEquals(0, countRows());
+	}
+
+	/**
+	 * Citire + salvare de sesiune la fiecare cerere: nivelul din memorie cu accese în loturi,
+	 * comparat cu citirea și actualizarea rândului din baza de date la fiecare cerere.
+	 * Rulare: mvn test -Dbenchmarks=true -Dtest=TieredSessionRepositoryTest
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+	void benchmarkSessionReadsAndWritesUnderLoad() throws Exception {
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < SESSIONS; i++) {
+			TieredSessionRepository.TieredSession session = repository.createSession();
+			session.setAttribute("user", new SessionUser((long) i, "Utilizator " + i, null));
+			repository.save(session);
+			ids.add(session.getId());
+		}
+
+		for (int round = 0; round < 2; round++) {
+			long tiered = run(ids, id -> {
+				TieredSessionRepository.TieredSession session = repository.findById(id);
+				session.setLastAccessedTime(Instant.now());
+				repository.save(session);
+			});
+			int flushed = repository.flushTouches();
+			long direct = run(ids, id -> {
+				MapSession session = jdbcTier.load(id, System.currentTimeMillis()).orElseThrow();
+				session.setLastAccessedTime(Instant.now());
+				jdbcTier.update(session);
+			});
+			int requests = THREADS * REQUESTS_PER_THREAD;
+			System.out.printf("Sesiuni: niveluri %,d cereri/s (%d actualizări în lot), JDBC la fiecare cerere %,d cereri/s (%,d instrucțiuni)%n",
+					requests * 1_000_000_000L / tiered, flushed, requests * 1_000_000_000L / direct, requests * 2);
+		}
+	}
+
+	private long run(List<String> ids, SessionRequest request) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			long started = System.nanoTime();
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+						request.handle(ids.get(random.nextInt(ids.size())));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			return System.nanoTime() - started;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private long lastAccess(String id) {
+		return jdbcTemplate.queryForObject("SELECT last_access_time FROM app_sessions WHERE session_id = ?", Long.class, id);
+	}
+
+	private int countRows() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_sessions", Integer.class);
+	}
+
+	private interface SessionRequest {
+		void handle(String id);
+	}
+}
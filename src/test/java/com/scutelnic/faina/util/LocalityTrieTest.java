@@ -0,0 +1,44 @@
+package com.scutelnic.faina.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalityTrieTest {
+
+	@Test
+	void normalizeFoldsDiacriticsAndCase() {
+		assertEquals("chisinau", LocationNormalizer.normalize("Chișinău"));
+		assertEquals("chisinau", LocationNormalizer.normalize("CHIŞINĂU"));
+		assertEquals("ceadir lunga", LocationNormalizer.normalize(" Ceadîr-Lunga "));
+	}
+
+	@Test
+	void lookupReturnsEntriesInInsertionOrder() {
+		LocalityTrie trie = LocalityTrie.builder(8)
+				.add("chisinau", 0)
+				.add("cahul", 1)
+				.add("ceadir lunga", 2)
+				.add("lunga", 2)
+				.add("comrat", 3)
+				.build();
+
+		assertArrayEquals(new int[]{0, 1, 2, 3}, trie.lookup("c"));
+		assertArrayEquals(new int[]{0}, trie.lookup("chi"));
+		assertArrayEquals(new int[]{2}, trie.lookup("lun"));
+		assertArrayEquals(new int[0], trie.lookup("x"));
+	}
+
+	@Test
+	void lookupKeepsOnlyTopEntriesPerNode() {
+		LocalityTrie trie = LocalityTrie.builder(2)
+				.add("bardar", 0)
+				.add("balti", 1)
+				.add("baurci", 2)
+				.build();
+
+		assertArrayEquals(new int[]{0, 1}, trie.lookup("ba"));
+		assertArrayEquals(new int[]{2}, trie.lookup("bau"));
+	}
+}